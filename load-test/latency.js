@@ -0,0 +1,81 @@
+// Holds VUS concurrent connections (default 5000) against the read and deposit endpoints and reports p99 latency.
+// Run once with spring.threads.virtual.enabled=false and once with true, see "Virtual threads" in the README.
+//   k6 run load-test/latency.js
+//   k6 run -e BASE_URL=http://localhost:8084 -e VUS=5000 -e DURATION=2m load-test/latency.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8084';
+const VUS = parseInt(__ENV.VUS || '5000');
+const CUSTOMERS = 100;
+
+export const options = {
+    scenarios: {
+        wallet: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: __ENV.DURATION || '2m',
+            gracefulStop: '30s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+const json = (token) => ({
+    headers: Object.assign({ 'Content-Type': 'application/json' }, token ? { Authorization: `Bearer ${token}` } : {}),
+});
+
+// spreads the load over CUSTOMERS customers with one wallet each so the deposits do not all queue on one row
+export function setup() {
+    const run = Date.now() % 10000000;
+    const customers = [];
+    for (let i = 0; i < CUSTOMERS; i++) {
+        const email = `load-${run}-${i}@example.com`;
+        const registered = http.post(`${BASE_URL}/api/v1/register`, JSON.stringify({
+            name: 'Load',
+            surname: 'Test',
+            trIdentityNo: String(run * 1000 + i).padStart(11, '0'),
+            email: email,
+            password: 'SecurePass123!',
+        }), json());
+        const token = registered.json('authToken');
+
+        http.post(`${BASE_URL}/api/v1/addWallet`, JSON.stringify({
+            walletName: `load-${run}-${i}`,
+            currency: 'TRY',
+            activeForShopping: true,
+            activeForWithdraw: true,
+        }), json(token));
+        const walletId = http.get(`${BASE_URL}/api/v1/listWallets`, json(token)).json('0.walletId');
+        customers.push({ token, walletId });
+    }
+    return customers;
+}
+
+export default function (customers) {
+    const customer = customers[__VU % customers.length];
+    const params = json(customer.token);
+
+    switch (__ITER % 3) {
+        case 0:
+            check(http.get(`${BASE_URL}/api/v1/listWallets`, Object.assign({ tags: { name: 'listWallets' } }, params)),
+                { 'listWallets 200': (r) => r.status === 200 });
+            break;
+        case 1:
+            check(http.get(`${BASE_URL}/api/v1/transactions?walletId=${customer.walletId}&limit=50`,
+                    Object.assign({ tags: { name: 'transactions' } }, params)),
+                { 'transactions 200': (r) => r.status === 200 });
+            break;
+        default:
+            check(http.post(`${BASE_URL}/api/v1/deposit`, JSON.stringify({
+                amount: 10.00,
+                walletId: customer.walletId,
+                sourceType: 'IBAN',
+                source: 'TR330006100519786457841326',
+            }), Object.assign({ tags: { name: 'deposit' } }, params)),
+                { 'deposit 200': (r) => r.status === 200 });
+    }
+}
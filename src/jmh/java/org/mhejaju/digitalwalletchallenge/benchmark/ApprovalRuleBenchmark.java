@@ -0,0 +1,82 @@
+package org.mhejaju.digitalwalletchallenge.benchmark;
+
+import org.mhejaju.digitalwalletchallenge.entities.ApprovalRule;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.entities.enums.CustomerTier;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OppositePartyType;
+import org.mhejaju.digitalwalletchallenge.services.impl.ApprovalRuleTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The approval decision of a deposit or withdrawal against a rule set with a rule for every currency, counterparty
+ * type and tier, through the compiled {@link ApprovalRuleTable} and, as baseline, by scanning the rules for the most
+ * specific match on every call. Run with the gc profiler to confirm the table lookup allocates nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ApprovalRuleBenchmark {
+
+    private final List<ApprovalRule> rules = new ArrayList<>();
+    private final Money amount = Money.of("750.00");
+    private ApprovalRuleTable table;
+
+    @Setup
+    public void setUp() {
+        rules.add(rule(null, null, null, 100_000));
+        for (Currency currency : Currency.values()) {
+            rules.add(rule(currency, null, null, 50_000 + currency.ordinal()));
+            for (OppositePartyType partyType : OppositePartyType.values()) {
+                for (CustomerTier tier : CustomerTier.values()) {
+                    rules.add(rule(currency, partyType, tier, 70_000 + tier.ordinal() * 10_000L));
+                }
+            }
+        }
+        table = ApprovalRuleTable.compile(rules, Money.of("1000.00"));
+    }
+
+    @Benchmark
+    public boolean compiledTable() {
+        return table.requiresApproval(Currency.TRY, OppositePartyType.PAYMENT, CustomerTier.PREMIUM, amount);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean compiledTableContended() {
+        return table.requiresApproval(Currency.TRY, OppositePartyType.PAYMENT, CustomerTier.PREMIUM, amount);
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        ApprovalRule winner = null;
+        int winnerSpecificity = -1;
+        for (ApprovalRule rule : rules) {
+            if ((rule.getCurrency() == null || rule.getCurrency() == Currency.TRY)
+                    && (rule.getOppositePartyType() == null || rule.getOppositePartyType() == OppositePartyType.PAYMENT)
+                    && (rule.getTier() == null || rule.getTier() == CustomerTier.PREMIUM)) {
+                int specificity = (rule.getCurrency() != null ? 4 : 0) + (rule.getTier() != null ? 2 : 0)
+                        + (rule.getOppositePartyType() != null ? 1 : 0);
+                if (specificity > winnerSpecificity) {
+                    winner = rule;
+                    winnerSpecificity = specificity;
+                }
+            }
+        }
+        return winner != null && !amount.isLessThan(winner.getThreshold());
+    }
+
+    private static ApprovalRule rule(Currency currency, OppositePartyType partyType, CustomerTier tier,
+                                     long thresholdMinorUnits) {
+        ApprovalRule rule = new ApprovalRule();
+        rule.setCurrency(currency);
+        rule.setOppositePartyType(partyType);
+        rule.setTier(tier);
+        rule.setThreshold(Money.ofMinor(thresholdMinorUnits));
+        return rule;
+    }
+}
@@ -0,0 +1,129 @@
+package org.mhejaju.digitalwalletchallenge.benchmark;
+
+import org.mhejaju.digitalwalletchallenge.entities.ApprovalRule;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.Transaction;
+import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.repositories.ApprovalRuleRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.OutboxEventRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.TransactionRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map-backed stand-ins for the Spring Data repositories, implementing only the methods the benchmarked
+ * service paths call, so that the benchmarks measure the service code rather than a database.
+ */
+final class InMemoryRepositories {
+
+    private final Map<String, Wallet> walletsByWalletId = new ConcurrentHashMap<>();
+    private final Map<Long, Wallet> walletsById = new ConcurrentHashMap<>();
+    private final AtomicLong transactionIds = new AtomicLong();
+
+    void addWallet(Wallet wallet) {
+        walletsByWalletId.put(wallet.getWalletId(), wallet);
+        walletsById.put(wallet.getId(), wallet);
+    }
+
+    WalletRepository walletRepository() {
+        return proxy(WalletRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "creditIfOwned" -> credit((String) args[0], (long) args[1], (long) args[2], (long) args[3]);
+            case "debitIfAvailable" -> debit((String) args[0], (long) args[1], (long) args[2], (long) args[3]);
+            case "findByWalletId" -> Optional.ofNullable(walletsByWalletId.get((String) args[0]));
+            case "findCurrencyByWalletId" -> Optional.ofNullable(walletsByWalletId.get((String) args[0])).map(Wallet::getCurrency);
+            case "getReferenceById" -> walletsById.get((Long) args[0]);
+            default -> unsupported(method.getName());
+        });
+    }
+
+    TransactionRepository transactionRepository() {
+        return proxy(TransactionRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            // transactions are not retained, otherwise the heap would grow with every benchmark invocation
+            case "save" -> {
+                Transaction transaction = (Transaction) args[0];
+                transaction.setId(transactionIds.incrementAndGet());
+                yield transaction;
+            }
+            default -> unsupported(method.getName());
+        });
+    }
+
+    LedgerEntryRepository ledgerEntryRepository() {
+        return proxy(LedgerEntryRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            // entries are not retained either, only counted as the insert would
+            case "postCreated", "postSettled" -> ((Collection<?>) args[0]).size();
+            default -> unsupported(method.getName());
+        });
+    }
+
+    OutboxEventRepository outboxEventRepository() {
+        return proxy(OutboxEventRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "record" -> ((Collection<?>) args[1]).size();
+            default -> unsupported(method.getName());
+        });
+    }
+
+    // the rule the approval_rule migration seeds
+    ApprovalRuleRepository approvalRuleRepository() {
+        ApprovalRule defaultRule = new ApprovalRule();
+        defaultRule.setThreshold(Money.of("1000.00"));
+        return proxy(ApprovalRuleRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findAll" -> List.of(defaultRule);
+            default -> unsupported(method.getName());
+        });
+    }
+
+    CustomerRepository customerRepository() {
+        return proxy(CustomerRepository.class, (proxy, method, args) -> unsupported(method.getName()));
+    }
+
+    private Optional<Long> credit(String walletId, long customerId, long amount, long usableAmount) {
+        Wallet wallet = walletsByWalletId.get(walletId);
+        if (wallet == null || wallet.getCustomer().getId() != customerId) {
+            return Optional.empty();
+        }
+        wallet.setBalance(wallet.getBalance().plus(Money.ofMinor(amount)));
+        wallet.setUsableBalance(wallet.getUsableBalance().plus(Money.ofMinor(usableAmount)));
+        return Optional.of(wallet.getId());
+    }
+
+    private Optional<Long> debit(String walletId, long customerId, long amount, long settledAmount) {
+        Wallet wallet = walletsByWalletId.get(walletId);
+        if (wallet == null || wallet.getCustomer().getId() != customerId
+                || !wallet.isActiveForWithdraw() || !wallet.isActiveForShopping()
+                || wallet.getUsableBalance().minorUnits() < amount) {
+            return Optional.empty();
+        }
+        wallet.setUsableBalance(wallet.getUsableBalance().minus(Money.ofMinor(amount)));
+        wallet.setBalance(wallet.getBalance().minus(Money.ofMinor(settledAmount)));
+        return Optional.of(wallet.getId());
+    }
+
+    private static Object unsupported(String method) {
+        throw new UnsupportedOperationException(method + " is not used by the benchmarked code paths");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> type.getSimpleName() + "@InMemory";
+                };
+            }
+            return handler.invoke(proxy, method, args);
+        });
+    }
+}
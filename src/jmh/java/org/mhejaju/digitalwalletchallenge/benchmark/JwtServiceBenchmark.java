@@ -0,0 +1,64 @@
+package org.mhejaju.digitalwalletchallenge.benchmark;
+
+import io.jsonwebtoken.Claims;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
+import org.mhejaju.digitalwalletchallenge.services.impl.JwtService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation and the per-request verification done by the authentication filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private Customer customer;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtService = new JwtService(null);
+        setField("JWT_SECRET_KEY", "59b99a3fd4233fcee4f9d2defa0ab23f2df6f065f9faf7d4514291e01288bb61");
+        setField("expiration", 3600000);
+        Method init = JwtService.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(jwtService);
+
+        customer = new Customer();
+        customer.setId(1L);
+        customer.setEmail("benchmark@example.com");
+        customer.setTrIdentityNo("12345678901");
+        customer.setRole(Role.BASIC);
+
+        token = jwtService.generateToken(customer);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(customer);
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtService.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public boolean parseAndValidateToken() {
+        Claims claims = jwtService.extractAllClaims(token);
+        return jwtService.isTokenValid(claims, customer);
+    }
+
+    private void setField(String name, Object value) throws ReflectiveOperationException {
+        Field field = JwtService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtService, value);
+    }
+}
@@ -0,0 +1,73 @@
+package org.mhejaju.digitalwalletchallenge.benchmark;
+
+import org.mhejaju.digitalwalletchallenge.dto.DepositDto;
+import org.mhejaju.digitalwalletchallenge.dto.WalletResponseDto;
+import org.mhejaju.digitalwalletchallenge.dto.WithdrawDto;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.Transaction;
+import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.mapper.TransactionMapper;
+import org.mhejaju.digitalwalletchallenge.mapper.WalletMapper;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.WalletSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    private DepositDto depositDto;
+    private WithdrawDto withdrawDto;
+    private Wallet wallet;
+    private WalletSummary walletSummary;
+
+    @Setup
+    public void setUp() {
+        depositDto = new DepositDto(new BigDecimal("500.00"), "ebed7406-0593-4e01-bd7b-7f5abee2315f",
+                "IBAN", "TR330006100519786457841326");
+        withdrawDto = new WithdrawDto(new BigDecimal("500.00"), "ebed7406-0593-4e01-bd7b-7f5abee2315f",
+                "PAYMENT", "PAYMENT-123456");
+
+        Customer customer = new Customer();
+        customer.setName("John");
+        customer.setSurname("Doe");
+
+        wallet = new Wallet();
+        wallet.setWalletId("ebed7406-0593-4e01-bd7b-7f5abee2315f");
+        wallet.setWalletName("Benchmark Wallet");
+        wallet.setCurrency(Currency.EUR);
+        wallet.setActiveForShopping(true);
+        wallet.setActiveForWithdraw(true);
+        wallet.setBalance(Money.of("1900.00"));
+        wallet.setUsableBalance(Money.of("400.00"));
+        wallet.setCustomer(customer);
+
+        walletSummary = new WalletSummary(wallet.getWalletId(), wallet.getWalletName(), customer.getName(),
+                customer.getSurname(), wallet.getCurrency(), true, true, wallet.getBalance(), wallet.getUsableBalance());
+    }
+
+    @Benchmark
+    public Transaction mapDepositToTransaction() {
+        return TransactionMapper.mapToTransaction(depositDto);
+    }
+
+    @Benchmark
+    public Transaction mapWithdrawToTransaction() {
+        return TransactionMapper.mapToTransaction(withdrawDto);
+    }
+
+    @Benchmark
+    public WalletResponseDto mapWalletToResponseDto() {
+        return WalletMapper.mapToWalletResponseDto(wallet);
+    }
+
+    @Benchmark
+    public WalletResponseDto mapWalletSummaryToResponseDto() {
+        return WalletMapper.mapToWalletResponseDto(walletSummary);
+    }
+}
@@ -0,0 +1,69 @@
+package org.mhejaju.digitalwalletchallenge.benchmark;
+
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The amount arithmetic of a deposit or withdrawal: the approval threshold check and folding a batch of items into
+ * one balance delta, on the BigDecimal amounts the entities used before and on {@link Money} minor units.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+
+    private static final BigDecimal DECIMAL_THRESHOLD = new BigDecimal("1000.00");
+    private static final Money THRESHOLD = Money.of(DECIMAL_THRESHOLD);
+    private static final int BATCH_SIZE = 256;
+
+    private final BigDecimal[] decimalAmounts = new BigDecimal[BATCH_SIZE];
+    private final Money[] amounts = new Money[BATCH_SIZE];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            // 0.01 to 2000.00, so about half of the items need approval
+            decimalAmounts[i] = BigDecimal.valueOf(1 + (i * 78_125L) % 200_000, Money.SCALE);
+            amounts[i] = Money.of(decimalAmounts[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean decimalThreshold() {
+        return decimalAmounts[BATCH_SIZE / 2].compareTo(DECIMAL_THRESHOLD) < 0;
+    }
+
+    @Benchmark
+    public boolean moneyThreshold() {
+        return amounts[BATCH_SIZE / 2].isLessThan(THRESHOLD);
+    }
+
+    @Benchmark
+    public BigDecimal decimalFold() {
+        BigDecimal balance = BigDecimal.ZERO;
+        BigDecimal usableBalance = BigDecimal.ZERO;
+        for (BigDecimal amount : decimalAmounts) {
+            balance = balance.add(amount);
+            if (amount.compareTo(DECIMAL_THRESHOLD) < 0) {
+                usableBalance = usableBalance.add(amount);
+            }
+        }
+        return balance.subtract(usableBalance);
+    }
+
+    @Benchmark
+    public long moneyFold() {
+        long balance = 0;
+        long usableBalance = 0;
+        for (Money amount : amounts) {
+            balance = Math.addExact(balance, amount.minorUnits());
+            if (amount.isLessThan(THRESHOLD)) {
+                usableBalance = Math.addExact(usableBalance, amount.minorUnits());
+            }
+        }
+        return balance - usableBalance;
+    }
+}
@@ -0,0 +1,53 @@
+package org.mhejaju.digitalwalletchallenge.benchmark;
+
+import org.mhejaju.digitalwalletchallenge.services.impl.SlidingWindowCounters;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The velocity check of a withdrawal against {@link SlidingWindowCounters}: one thread, eight threads spread over
+ * many wallets as in production, and eight threads all withdrawing from the same wallet, the worst case for a stripe.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SlidingWindowCountersBenchmark {
+
+    private static final int WALLETS = 10_000;
+
+    private final String[] walletIds = new String[WALLETS];
+    private SlidingWindowCounters<String> counters;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < WALLETS; i++) {
+            walletIds[i] = "wallet-" + i;
+        }
+        counters = new SlidingWindowCounters<>(Duration.ofHours(1), 12, 64, WALLETS);
+    }
+
+    @Benchmark
+    public boolean singleThread() {
+        return tryAdd(walletIds[ThreadLocalRandom.current().nextInt(WALLETS)]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean spreadOverWallets() {
+        return tryAdd(walletIds[ThreadLocalRandom.current().nextInt(WALLETS)]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean sameWallet() {
+        return tryAdd(walletIds[0]);
+    }
+
+    // caps no run reaches, so every call takes the full check and add path
+    private boolean tryAdd(String walletId) {
+        return counters.tryAdd(walletId, 50_000, System.currentTimeMillis(), Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,54 @@
+package org.mhejaju.digitalwalletchallenge.benchmark;
+
+import org.mhejaju.digitalwalletchallenge.services.TransactionIdGenerator;
+import org.mhejaju.digitalwalletchallenge.services.impl.SnowflakeTransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction id generation, single-threaded and contended, since the generator is shared by every request
+ * that creates a transaction. The SecureRandom variant is the scheme the entity used before, kept as baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionIdBenchmark {
+
+    private static final String ALPHANUMERIC = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final int LEGACY_ID_LENGTH = 12;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final TransactionIdGenerator generator = new SnowflakeTransactionIdGenerator(1);
+
+    @Benchmark
+    public String generateTransactionId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String generateTransactionIdContended() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String legacySecureRandomId() {
+        return legacyId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String legacySecureRandomIdContended() {
+        return legacyId();
+    }
+
+    private static String legacyId() {
+        StringBuilder sb = new StringBuilder(LEGACY_ID_LENGTH);
+        for (int i = 0; i < LEGACY_ID_LENGTH; i++) {
+            sb.append(ALPHANUMERIC.charAt(RANDOM.nextInt(ALPHANUMERIC.length())));
+        }
+        return sb.toString();
+    }
+}
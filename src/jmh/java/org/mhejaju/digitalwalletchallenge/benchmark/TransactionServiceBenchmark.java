@@ -0,0 +1,96 @@
+package org.mhejaju.digitalwalletchallenge.benchmark;
+
+import org.mhejaju.digitalwalletchallenge.dto.DepositDto;
+import org.mhejaju.digitalwalletchallenge.dto.TransactionResponseDto;
+import org.mhejaju.digitalwalletchallenge.dto.WithdrawDto;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
+import org.mhejaju.digitalwalletchallenge.services.impl.ApprovalRules;
+import org.mhejaju.digitalwalletchallenge.services.impl.TransactionServiceImpl;
+import org.mhejaju.digitalwalletchallenge.services.impl.VelocityLimiter;
+import org.mhejaju.digitalwalletchallenge.services.impl.WalletCurrencyCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposit and withdraw through {@link TransactionServiceImpl} with in-memory repositories: validation,
+ * mapping and response building without transaction management or a database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionServiceBenchmark {
+
+    private static final String WALLET_ID = "ebed7406-0593-4e01-bd7b-7f5abee2315f";
+    private static final String IBAN = "TR330006100519786457841326";
+
+    private TransactionServiceImpl transactionService;
+    private Customer customer;
+    private DepositDto approvedDeposit;
+    private DepositDto pendingDeposit;
+    private WithdrawDto approvedWithdraw;
+
+    @Setup
+    public void setUp() {
+        customer = new Customer();
+        customer.setId(1L);
+        customer.setTrIdentityNo("12345678901");
+        customer.setEmail("benchmark@example.com");
+        customer.setRole(Role.BASIC);
+
+        Wallet wallet = new Wallet();
+        wallet.setId(1L);
+        wallet.setWalletId(WALLET_ID);
+        wallet.setWalletName("Benchmark Wallet");
+        wallet.setCurrency(Currency.TRY);
+        wallet.setActiveForShopping(true);
+        wallet.setActiveForWithdraw(true);
+        // large enough that withdrawals never run out of funds during a run
+        wallet.setBalance(Money.of("1000000000000.00"));
+        wallet.setUsableBalance(Money.of("1000000000000.00"));
+        wallet.setCustomer(customer);
+
+        InMemoryRepositories repositories = new InMemoryRepositories();
+        repositories.addWallet(wallet);
+        ApprovalRules approvalRules = new ApprovalRules(repositories.approvalRuleRepository());
+        approvalRules.reload();
+        transactionService = new TransactionServiceImpl(
+                repositories.walletRepository(),
+                repositories.transactionRepository(),
+                repositories.customerRepository(),
+                repositories.ledgerEntryRepository(),
+                repositories.outboxEventRepository(),
+                approvalRules,
+                new WalletCurrencyCache(repositories.walletRepository(), 1000),
+                // a count cap no run reaches, so withdrawals pay for the check without ever being rejected
+                new VelocityLimiter(repositories.ledgerEntryRepository(), Duration.ofHours(1), 12, 64, 1000,
+                        Long.MAX_VALUE, BigDecimal.ZERO, 0, BigDecimal.ZERO),
+                null,
+                null);
+
+        approvedDeposit = new DepositDto(new BigDecimal("500.00"), WALLET_ID, "IBAN", IBAN);
+        pendingDeposit = new DepositDto(new BigDecimal("2500.00"), WALLET_ID, "IBAN", IBAN);
+        approvedWithdraw = new WithdrawDto(new BigDecimal("500.00"), WALLET_ID, "IBAN", IBAN);
+    }
+
+    @Benchmark
+    public TransactionResponseDto makeDepositApproved() {
+        return transactionService.makeDeposit(approvedDeposit, customer);
+    }
+
+    @Benchmark
+    public TransactionResponseDto makeDepositPending() {
+        return transactionService.makeDeposit(pendingDeposit, customer);
+    }
+
+    @Benchmark
+    public TransactionResponseDto withdrawApproved() {
+        return transactionService.withdraw(approvedWithdraw, customer);
+    }
+}
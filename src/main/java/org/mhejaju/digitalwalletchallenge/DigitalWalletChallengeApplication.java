@@ -7,6 +7,8 @@ import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.info.License;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @OpenAPIDefinition(
@@ -27,6 +29,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
                 url = "https://github.com/merthacioglu/digital-wallet-challenge"
         )
 )
+@EnableRetry
+@EnableScheduling
 public class DigitalWalletChallengeApplication {
 
     public static void main(String[] args) {
@@ -1,8 +1,12 @@
 package org.mhejaju.digitalwalletchallenge.config;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.RequiredArgsConstructor;
 import org.mhejaju.digitalwalletchallenge.exceptions.ResourceNotFoundException;
 import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.services.impl.CachingUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,16 +18,39 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
     private final CustomerRepository customerRepository;
 
+    @Value("${auth.user-cache.enabled:true}")
+    private boolean userCacheEnabled;
+
+    @Value("${auth.user-cache.maximum-size:10000}")
+    private long userCacheMaximumSize;
+
+    @Value("${auth.user-cache.ttl:5m}")
+    private Duration userCacheTtl;
+
     @Bean
     public UserDetailsService userDetailsService() {
-        return userName -> customerRepository.findByEmail(userName)
+        UserDetailsService lookup = userName -> customerRepository.findByEmail(userName)
                 .orElseThrow(() -> new BadCredentialsException("Email address or password is incorrect"));
+        return userCacheEnabled
+                ? new CachingUserDetailsService(lookup, userCacheMaximumSize, userCacheTtl)
+                : lookup;
+    }
+
+    @Bean
+    public MeterBinder userDetailsCacheMetrics(UserDetailsService userDetailsService) {
+        return registry -> {
+            if (userDetailsService instanceof CachingUserDetailsService cachingUserDetailsService) {
+                CaffeineCacheMetrics.monitor(registry, cachingUserDetailsService.getCache(), "userDetails");
+            }
+        };
     }
 
     @Bean
@@ -0,0 +1,57 @@
+package org.mhejaju.digitalwalletchallenge.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Names and tag values shared by the hot path timers. Tag values are kept to small fixed sets so the number of
+ * series stays bounded; the outcome of a failure is the exception's simple class name.
+ */
+public final class MetricTags {
+
+    public static final String OPERATION_TIMER = "wallet.operation";
+
+    public static final String OPERATION = "operation";
+    public static final String OUTCOME = "outcome";
+    public static final String ROLE = "role";
+
+    public static final String SUCCESS = "success";
+    public static final String ANONYMOUS = "ANONYMOUS";
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private MetricTags() {
+    }
+
+    public static String outcome(Throwable failure) {
+        return failure == null ? SUCCESS : failure.getClass().getSimpleName();
+    }
+
+    public static String currentRole() {
+        return role(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    public static String role(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ANONYMOUS;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String name = authority.getAuthority();
+            if (name != null && name.startsWith(ROLE_PREFIX)) {
+                return name.substring(ROLE_PREFIX.length());
+            }
+        }
+        return ANONYMOUS;
+    }
+
+    public static Timer operationTimer(MeterRegistry registry, String operation, String outcome, String role) {
+        return Timer.builder(OPERATION_TIMER)
+                .tag(OPERATION, operation)
+                .tag(OUTCOME, outcome)
+                .tag(ROLE, role)
+                .register(registry);
+    }
+}
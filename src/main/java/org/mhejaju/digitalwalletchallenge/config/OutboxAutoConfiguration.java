@@ -0,0 +1,21 @@
+package org.mhejaju.digitalwalletchallenge.config;
+
+import org.mhejaju.digitalwalletchallenge.events.OutboxConsumer;
+import org.mhejaju.digitalwalletchallenge.services.OutboxTransport;
+import org.mhejaju.digitalwalletchallenge.services.impl.InProcessOutboxTransport;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+// registered in META-INF/spring, so it is processed after the scanned beans and the condition sees them all
+@AutoConfiguration
+public class OutboxAutoConfiguration {
+
+    // declare another OutboxTransport bean (e.g. a message broker producer) to relay the outbox elsewhere
+    @Bean
+    @ConditionalOnMissingBean(OutboxTransport.class)
+    public OutboxTransport outboxTransport(ObjectProvider<OutboxConsumer> consumers) {
+        return new InProcessOutboxTransport(consumers.orderedStream().toList());
+    }
+}
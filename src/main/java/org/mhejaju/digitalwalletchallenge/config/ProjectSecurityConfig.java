@@ -1,10 +1,12 @@
 package org.mhejaju.digitalwalletchallenge.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
 import org.mhejaju.digitalwalletchallenge.exceptions.CustomAccessDeniedHandler;
 import org.mhejaju.digitalwalletchallenge.exceptions.CustomAuthenticationEntryPoint;
 import org.mhejaju.digitalwalletchallenge.filter.JwtAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -24,6 +26,9 @@ public class ProjectSecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final AuthenticationProvider authenticationProvider;
 
+    @Value("${management.server.port:8085}")
+    private int managementPort = 8085;
+
     @Bean
     SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -37,13 +42,24 @@ public class ProjectSecurityConfig {
                                 "/v3/api-docs/**"
 
                         ).permitAll()
+                        // streamed exports finish on an async dispatch after the request has been authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/v1/addWallet").hasAnyRole(Role.BASIC.name(), Role.ADMIN.name())
                         .requestMatchers("/api/v1/listWallets").hasAnyRole(Role.BASIC.name(), Role.ADMIN.name())
                         .requestMatchers("/api/v1/deposit").hasAnyRole(Role.BASIC.name(), Role.ADMIN.name())
+                        .requestMatchers("/api/v1/deposit/batch").hasAnyRole(Role.BASIC.name(), Role.ADMIN.name())
                         .requestMatchers("/api/v1/transactions").hasAnyRole(Role.BASIC.name(), Role.ADMIN.name())
+                        .requestMatchers("/api/v1/transactions/export").hasAnyRole(Role.BASIC.name(), Role.ADMIN.name())
                         .requestMatchers("/api/v1/changeTransactionStatus").hasAnyRole(Role.BASIC.name(), Role.ADMIN.name())
                         .requestMatchers("/api/v1/withdraw").hasAnyRole(Role.BASIC.name(), Role.ADMIN.name())
+                        .requestMatchers("/api/v1/withdraw/batch").hasAnyRole(Role.BASIC.name(), Role.ADMIN.name())
                         .requestMatchers("/api/v1/admin/**").hasRole(Role.ADMIN.name())
+                        .requestMatchers("/actuator/health").permitAll()
+                        // scraped without a token, but only on the management port, which listens on
+                        // management.server.address (loopback unless configured otherwise)
+                        .requestMatchers(request -> request.getLocalPort() == managementPort
+                                && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
+                        .requestMatchers("/actuator/**").hasRole(Role.ADMIN.name())
                         .anyRequest().authenticated())
                 .authenticationProvider(authenticationProvider)
                 .exceptionHandling(ehc -> ehc.accessDeniedHandler(new CustomAccessDeniedHandler()))
@@ -0,0 +1,64 @@
+package org.mhejaju.digitalwalletchallenge.config;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Periodically measures how far the replica lags behind the primary. Reads are only routed to the replica while the
+ * lag is within the configured staleness tolerance and the replica is reachable.
+ * <p>
+ * Every check writes a heartbeat on the primary and reads the replicated one back, so the lag keeps growing while the
+ * replica is cut off from the primary, even though it has replayed everything it received. A standby without a WAL
+ * receiver process is not used at all. A database that is not in recovery is not a standby and counts as current.
+ */
+public class ReplicaLagMonitor {
+
+    private static final String BEAT_QUERY = """
+            update replica_heartbeat
+               set beat_at = clock_timestamp()
+             where id = 1
+            returning (extract(epoch from beat_at) * 1000)::bigint
+            """;
+
+    // null while the replica cannot be trusted: a standby with no WAL receiver, or no heartbeat replicated yet
+    private static final String REPLICATED_BEAT_QUERY = """
+            select case
+                       when not pg_is_in_recovery() then -1
+                       when not exists (select 1 from pg_stat_wal_receiver) then null
+                       else (select (extract(epoch from beat_at) * 1000)::bigint from replica_heartbeat where id = 1)
+                   end
+            """;
+
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final Duration maxStaleness;
+
+    // false until the first check succeeds, so reads start out on the primary
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource primaryDataSource, DataSource replicaDataSource, Duration maxStaleness) {
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.maxStaleness = maxStaleness;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        try {
+            Long beatMillis = primaryJdbcTemplate.queryForObject(BEAT_QUERY, Long.class);
+            Long replicatedBeatMillis = replicaJdbcTemplate.queryForObject(REPLICATED_BEAT_QUERY, Long.class);
+            replicaUsable = replicatedBeatMillis != null
+                    && (replicatedBeatMillis < 0 || beatMillis - replicatedBeatMillis <= maxStaleness.toMillis());
+        } catch (DataAccessException e) {
+            replicaUsable = false;
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+}
@@ -0,0 +1,20 @@
+package org.mhejaju.digitalwalletchallenge.config;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the caller's role to the {@code spring.data.repository.invocations} timer that Spring Boot records for every
+ * repository call (tagged by repository, method, state and exception out of the box).
+ */
+@Component
+public class RepositoryMetricsTags extends DefaultRepositoryTagsProvider {
+
+    @Override
+    public Iterable<Tag> repositoryTags(RepositoryMethodInvocation invocation) {
+        return Tags.of(super.repositoryTags(invocation)).and(MetricTags.ROLE, MetricTags.currentRole());
+    }
+}
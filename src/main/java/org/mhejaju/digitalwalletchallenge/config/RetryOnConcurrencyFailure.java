@@ -0,0 +1,22 @@
+package org.mhejaju.digitalwalletchallenge.config;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.*;
+
+/**
+ * Re-runs the annotated service method in a fresh transaction when it loses an optimistic
+ * version check or a lock wait (deadlock, lock timeout). Must sit on a method that opens
+ * its own transaction, otherwise the retry happens inside the failed one.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(retryFor = ConcurrencyFailureException.class,
+        maxAttemptsExpression = "${wallet.concurrency.max-attempts:5}",
+        backoff = @Backoff(delayExpression = "${wallet.concurrency.retry-delay-ms:5}",
+                multiplier = 2, maxDelay = 200, random = true))
+public @interface RetryOnConcurrencyFailure {
+}
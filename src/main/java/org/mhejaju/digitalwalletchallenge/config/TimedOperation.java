@@ -0,0 +1,15 @@
+package org.mhejaju.digitalwalletchallenge.config;
+
+import java.lang.annotation.*;
+
+/**
+ * Records the annotated method under the {@code wallet.operation} timer, tagged with the given operation, the outcome
+ * and the role of the calling customer. The timing includes the transaction commit and any concurrency retries.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface TimedOperation {
+
+    String value();
+}
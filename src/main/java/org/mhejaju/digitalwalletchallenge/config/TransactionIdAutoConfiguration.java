@@ -0,0 +1,20 @@
+package org.mhejaju.digitalwalletchallenge.config;
+
+import org.mhejaju.digitalwalletchallenge.services.TransactionIdGenerator;
+import org.mhejaju.digitalwalletchallenge.services.impl.SnowflakeTransactionIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+// registered in META-INF/spring, so it is processed after the scanned beans and the condition sees them all
+@AutoConfiguration
+public class TransactionIdAutoConfiguration {
+
+    // declare another TransactionIdGenerator bean to replace the default scheme
+    @Bean
+    @ConditionalOnMissingBean(TransactionIdGenerator.class)
+    public TransactionIdGenerator transactionIdGenerator(@Value("${wallet.transaction-id.node-id:0}") int nodeId) {
+        return new SnowflakeTransactionIdGenerator(nodeId);
+    }
+}
@@ -0,0 +1,18 @@
+package org.mhejaju.digitalwalletchallenge.config;
+
+/**
+ * How concurrent balance mutations on the same wallet are serialized.
+ * Selected with the {@code wallet.concurrency.mode} property.
+ */
+public enum WalletConcurrencyMode {
+    /**
+     * Wallet rows are read with {@code SELECT ... FOR UPDATE}, so writers queue on the row lock.
+     */
+    PESSIMISTIC,
+
+    /**
+     * Wallet rows are read without a lock and the {@code @Version} column rejects stale writes,
+     * which are then retried by {@link RetryOnConcurrencyFailure}.
+     */
+    OPTIMISTIC
+}
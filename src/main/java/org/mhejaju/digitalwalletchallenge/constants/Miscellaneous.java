@@ -1,5 +1,12 @@
 package org.mhejaju.digitalwalletchallenge.constants;
 
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+
 public class Miscellaneous {
-    public static final String ALPHANUMERIC = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    public static final String DEFAULT_TRANSACTION_PAGE_SIZE = "50";
+    public static final int MAX_TRANSACTION_PAGE_SIZE = 500;
+    public static final String EXPORT_FETCH_SIZE = "500";
+    public static final int MAX_BATCH_SIZE = 5000;
+    // deposits and withdrawals of at least this amount stay PENDING, unless an approval rule says otherwise
+    public static final Money APPROVAL_THRESHOLD = Money.of("1000.00");
 }
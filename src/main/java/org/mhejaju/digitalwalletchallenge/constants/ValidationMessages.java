@@ -14,6 +14,7 @@ public class ValidationMessages {
     public static final String AMOUNT_REQUIRED = "Amount must be provided";
     public static final String ERR_MIN_AMOUNT = "Amount must be greater than 0";
     public static final String ERR_MAX_AMOUNT = "Amount must be less than 10000";
+    public static final String ERR_AMOUNT_SCALE = "Amount must not have more than 2 decimal places";
     public static final String WALLET_ID_REQUIRED = "Wallet ID must be provided";
     public static final String IBAN_OR_PAYMENT_ID_REQUIRED = "IBAN or payment ID must be provided";
     public static final String SOURCE_TYPE_REQUIRED = "Source type must be provided";
@@ -23,6 +24,9 @@ public class ValidationMessages {
     public static final String STATUS_REQUIRED = "Transaction status must be provided";
     public static final String STATUS_INVALID = "Transaction status must be either 'APPROVED' or 'DENIED'";
     public static final String TRANSACTION_ID_REQUIRED = "Transaction ID must be provided";
+    public static final String PAGE_SIZE_INVALID = "Limit must be between 1 and 500";
+    public static final String BATCH_ITEMS_REQUIRED = "Batch must contain at least one item";
+    public static final String BATCH_SIZE_INVALID = "Batch must not contain more than 5000 items";
     public static final String PASSWORD_INVALID = """
             Password must contain at least 8 characters and:
             At least 1 lowercase letter
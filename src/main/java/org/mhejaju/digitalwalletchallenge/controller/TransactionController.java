@@ -8,19 +8,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
+import org.mhejaju.digitalwalletchallenge.constants.Miscellaneous;
 import org.mhejaju.digitalwalletchallenge.constants.Regex;
 import org.mhejaju.digitalwalletchallenge.constants.ValidationMessages;
 import org.mhejaju.digitalwalletchallenge.dto.*;
 import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.services.BatchTransactionService;
 import org.mhejaju.digitalwalletchallenge.services.TransactionService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequiredArgsConstructor
@@ -30,6 +36,7 @@ import org.springframework.web.bind.annotation.*;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final BatchTransactionService batchTransactionService;
 
     @Operation(
             summary = "Make a deposit",
@@ -587,9 +594,200 @@ public class TransactionController {
     }
 
 
+    @Operation(
+            summary = "Make a batch of deposits",
+            description = "Applies up to 5000 deposits into the authenticated customer's wallets. Items are applied in chunks, each chunk in one database transaction, and every item gets its own result; a rejected item does not affect the others."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed, see the per-item results",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BatchTransactionResponseDto.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                {
+                                    "succeeded": 1,
+                                    "failed": 1,
+                                    "results": [
+                                        {
+                                            "index": 0,
+                                            "succeeded": true,
+                                            "transaction": {
+                                                "walletId": "ebed7406-0593-4e01-bd7b-7f5abee2315f",
+                                                "oppositeParty": "TR330006100519786457841326",
+                                                "oppositePartyType": "IBAN",
+                                                "type": "DEPOSIT",
+                                                "status": "APPROVED",
+                                                "amount": 500.00
+                                            },
+                                            "error": null
+                                        },
+                                        {
+                                            "index": 1,
+                                            "succeeded": false,
+                                            "transaction": null,
+                                            "error": "No wallet with id: 381d7a69-e6d7-401b-8cd5-6c0a394b2d6 found belonging to the user with TR Identity Number: 10195827811"
+                                        }
+                                    ]
+                                }
+                                """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid batch - empty, too large or an item failed validation",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(
+                                    type = "object",
+                                    example = """
+                                {
+                                    "deposits[3].amount": "Amount must be greater than 0"
+                                }
+                                """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - JWT token is missing or invalid",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    })
+    @PostMapping("/deposit/batch")
+    public ResponseEntity<BatchTransactionResponseDto> makeDeposits(@RequestBody @Valid BatchDepositRequestDto batch,
+                                                                    @AuthenticationPrincipal Customer customer) {
+        BatchTransactionResponseDto res = batchTransactionService.makeDeposits(batch.deposits(), customer);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(res);
+    }
+
+
+    @Operation(
+            summary = "Make a batch of deposits (Admin)",
+            description = "Applies up to 5000 deposits into the wallets of a customer specified by Turkish Identity Number, with one result per item. Admin access required."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed, see the per-item results",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BatchTransactionResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Customer not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    })
+    @PostMapping("/admin/deposit/batch")
+    public ResponseEntity<BatchTransactionResponseDto> makeDeposits(@RequestBody @Valid BatchDepositRequestDto batch,
+                                                                    @RequestParam
+                                                                    @Pattern(regexp = Regex.TR_IDENTITY_NO_REGEX, message = ValidationMessages.TR_IDENTITY_NO_INVALID)
+                                                                    String customerTrIdentityNo) {
+        BatchTransactionResponseDto res = batchTransactionService.makeDeposits(batch.deposits(), customerTrIdentityNo);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(res);
+    }
+
+
+    @Operation(
+            summary = "Make a batch of withdrawals",
+            description = "Applies up to 5000 withdrawals from the authenticated customer's wallets. Withdrawals of a wallet are applied in request order, so a later item is rejected once the usable balance is used up; every item gets its own result."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed, see the per-item results",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BatchTransactionResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid batch - empty, too large or an item failed validation",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(
+                                    type = "object",
+                                    example = """
+                                {
+                                    "withdrawals[0].destinationType": "Destination type must have value of either 'IBAN' or 'PAYMENT'"
+                                }
+                                """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - JWT token is missing or invalid",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    })
+    @PostMapping("/withdraw/batch")
+    public ResponseEntity<BatchTransactionResponseDto> withdraw(@RequestBody @Valid BatchWithdrawRequestDto batch,
+                                                                @AuthenticationPrincipal Customer customer) {
+        BatchTransactionResponseDto res = batchTransactionService.withdraw(batch.withdrawals(), customer);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(res);
+    }
+
+
+    @Operation(
+            summary = "Make a batch of withdrawals (Admin)",
+            description = "Applies up to 5000 withdrawals from the wallets of a customer specified by Turkish Identity Number, with one result per item. Admin access required."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed, see the per-item results",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BatchTransactionResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Customer not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    })
+    @PostMapping("/admin/withdraw/batch")
+    public ResponseEntity<BatchTransactionResponseDto> withdraw(@RequestBody @Valid BatchWithdrawRequestDto batch,
+                                                                @RequestParam
+                                                                @Pattern(regexp = Regex.TR_IDENTITY_NO_REGEX, message = ValidationMessages.TR_IDENTITY_NO_INVALID)
+                                                                String customerTrIdentityNo) {
+        BatchTransactionResponseDto res = batchTransactionService.withdraw(batch.withdrawals(), customerTrIdentityNo);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(res);
+    }
+
+
     @Operation(
             summary = "Get wallet transactions",
-            description = "Retrieves all transactions for a specific wallet belonging to the authenticated customer, including balance information."
+            description = "Retrieves transactions for a specific wallet belonging to the authenticated customer, newest first, including balance information. Results are paged with 'limit' (default 50, max 500); pass the returned 'nextCursor' as 'after' to fetch the next page."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -622,7 +820,8 @@ public class TransactionController {
                                             "status": "PENDING",
                                             "amount": 1500.00
                                         }
-                                    ]
+                                    ],
+                                    "nextCursor": "MTI4"
                                 }
                                 """
                             )
@@ -690,10 +889,18 @@ public class TransactionController {
 
             @RequestParam
             @NotEmpty(message = ValidationMessages.WALLET_ID_REQUIRED)
-            String walletId
+            String walletId,
+
+            @RequestParam(defaultValue = Miscellaneous.DEFAULT_TRANSACTION_PAGE_SIZE)
+            @Min(value = 1, message = ValidationMessages.PAGE_SIZE_INVALID)
+            @Max(value = Miscellaneous.MAX_TRANSACTION_PAGE_SIZE, message = ValidationMessages.PAGE_SIZE_INVALID)
+            int limit,
+
+            @RequestParam(required = false)
+            String after
 
     ) {
-        WalletTransactionListResponseDto res = transactionService.getTransactions(customer, walletId);
+        WalletTransactionListResponseDto res = transactionService.getTransactions(customer, walletId, limit, after);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(res);
@@ -701,7 +908,7 @@ public class TransactionController {
 
     @Operation(
             summary = "Get wallet transactions (Admin)",
-            description = "Retrieves all transactions for a specific wallet belonging to a customer identified by Turkish Identity Number, including balance information. Admin access required."
+            description = "Retrieves transactions for a specific wallet belonging to a customer identified by Turkish Identity Number, newest first, including balance information. Results are paged with 'limit' (default 50, max 500); pass the returned 'nextCursor' as 'after' to fetch the next page. Admin access required."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -726,7 +933,8 @@ public class TransactionController {
                                             "status": "APPROVED",
                                             "amount": 500.00
                                         }
-                                    ]
+                                    ],
+                                    "nextCursor": null
                                 }
                                 """
                             )
@@ -829,14 +1037,119 @@ public class TransactionController {
 
             @RequestParam
             @NotEmpty(message = ValidationMessages.WALLET_ID_REQUIRED)
-            String walletId
+            String walletId,
+
+            @RequestParam(defaultValue = Miscellaneous.DEFAULT_TRANSACTION_PAGE_SIZE)
+            @Min(value = 1, message = ValidationMessages.PAGE_SIZE_INVALID)
+            @Max(value = Miscellaneous.MAX_TRANSACTION_PAGE_SIZE, message = ValidationMessages.PAGE_SIZE_INVALID)
+            int limit,
+
+            @RequestParam(required = false)
+            String after
     ) {
-        WalletTransactionListResponseDto res = transactionService.getTransactions(customerTrIdentityNo, walletId);
+        WalletTransactionListResponseDto res = transactionService.getTransactions(customerTrIdentityNo, walletId, limit, after);
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(res);
     }
 
+    @Operation(
+            summary = "Export wallet transactions",
+            description = "Streams the full transaction history of a wallet belonging to the authenticated customer as newline-delimited JSON, oldest first. Intended for reconciliation jobs; use /transactions for paged browsing."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Transactions streamed successfully, one JSON object per line",
+                    content = @Content(
+                            mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = TransactionExportDto.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                {"transactionId":"ABCDEFGHIJ01","walletId":"ebed7406-0593-4e01-bd7b-7f5abee2315f","oppositeParty":"TR330006100519786457841326","oppositePartyType":"IBAN","type":"DEPOSIT","status":"APPROVED","amount":500.00}
+                                {"transactionId":"ABCDEFGHIJ02","walletId":"ebed7406-0593-4e01-bd7b-7f5abee2315f","oppositeParty":"TR330006100519786457841326","oppositePartyType":"IBAN","type":"WITHDRAW","status":"PENDING","amount":1500.00}
+                                """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Wallet not found or does not belong to authenticated customer",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorDto.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                {
+                                    "apiPath": "uri=/api/v1/transactions/export",
+                                    "statusCode": 404,
+                                    "message": "No wallet with id: 381d7a69-e6d7-401b-8cd5-6c0a394b2d6 found belonging to the user with TR Identity Number: 10195827811",
+                                    "timestamp": "2025-11-09T17:15:45"
+                                }
+                                """
+                            )
+                    )
+            )
+    })
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @AuthenticationPrincipal Customer customer,
+
+            @RequestParam
+            @NotEmpty(message = ValidationMessages.WALLET_ID_REQUIRED)
+            String walletId
+    ) {
+        // ownership is checked before the response is committed so that errors are still rendered as JSON
+        long walletDbId = transactionService.getOwnedWalletDbId(customer, walletId);
+        StreamingResponseBody body = outputStream ->
+                transactionService.exportTransactions(walletDbId, walletId, outputStream);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(
+            summary = "Export wallet transactions (Admin)",
+            description = "Streams the full transaction history of a wallet belonging to a customer identified by Turkish Identity Number as newline-delimited JSON, oldest first. Admin access required."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Transactions streamed successfully, one JSON object per line",
+                    content = @Content(
+                            mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = TransactionExportDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Customer or wallet not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    })
+    @GetMapping("/admin/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam
+            @Pattern(regexp = Regex.TR_IDENTITY_NO_REGEX, message = ValidationMessages.TR_IDENTITY_NO_INVALID)
+            String customerTrIdentityNo,
+
+            @RequestParam
+            @NotEmpty(message = ValidationMessages.WALLET_ID_REQUIRED)
+            String walletId
+    ) {
+        long walletDbId = transactionService.getOwnedWalletDbId(customerTrIdentityNo, walletId);
+        StreamingResponseBody body = outputStream ->
+                transactionService.exportTransactions(walletDbId, walletId, outputStream);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @Operation(
             summary = "Change transaction status",
             description = "Updates the status of a pending transaction (approve or deny). Only affects transactions belonging to the authenticated customer. Automatically adjusts wallet balances based on the decision."
@@ -1108,4 +1421,64 @@ public class TransactionController {
     }
 
 
+    @Operation(
+            summary = "Change the status of many transactions (Admin)",
+            description = "Approves or denies up to 5000 pending transactions of any customer. Transactions are settled in chunks, each chunk in one database transaction with a single balance update per wallet. Transactions that do not exist or are no longer pending are skipped. Admin access required."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Status change processed",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BulkTransactionStatusChangeResponseDto.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                {
+                                    "status": "APPROVED",
+                                    "changed": 2,
+                                    "skippedTransactionIds": ["ABCDEFGHIJ02"],
+                                    "failedTransactionIds": []
+                                }
+                                """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid request - empty, too large or invalid status",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(
+                                    type = "object",
+                                    example = """
+                                {
+                                    "status": "Transaction status must be either 'APPROVED' or 'DENIED'"
+                                }
+                                """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - admin access required",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    })
+    @PostMapping("/admin/changeTransactionStatus/batch")
+    public ResponseEntity<BulkTransactionStatusChangeResponseDto> changeTransactionStatuses(
+            @RequestBody
+            @Valid
+            BulkTransactionStatusChangeRequestDto requestDto
+    ) {
+        BulkTransactionStatusChangeResponseDto res = batchTransactionService.changeTransactionStatuses(requestDto);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(res);
+    }
+
+
 }
@@ -15,10 +15,12 @@ import org.mhejaju.digitalwalletchallenge.constants.Regex;
 import org.mhejaju.digitalwalletchallenge.constants.ResponseMessages;
 import org.mhejaju.digitalwalletchallenge.constants.ValidationMessages;
 import org.mhejaju.digitalwalletchallenge.dto.ErrorDto;
+import org.mhejaju.digitalwalletchallenge.dto.LedgerBalanceDto;
 import org.mhejaju.digitalwalletchallenge.dto.ResponseDto;
 import org.mhejaju.digitalwalletchallenge.dto.WalletDto;
 import org.mhejaju.digitalwalletchallenge.dto.WalletResponseDto;
 import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.services.LedgerService;
 import org.mhejaju.digitalwalletchallenge.services.WalletService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +28,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
 
 
@@ -37,6 +40,7 @@ import java.util.List;
 public class WalletController {
 
     private final WalletService walletService;
+    private final LedgerService ledgerService;
 
     @Operation(
             summary = "Create a new wallet",
@@ -324,5 +328,57 @@ public class WalletController {
                 .body(res);
     }
 
+    @Operation(
+            summary = "Rebuild a wallet balance from the ledger (Admin)",
+            description = "Rebuilds the balance and usable balance of any wallet from its ledger entries, starting at the latest balance snapshot. Without `at` the current balance is rebuilt and compared with the wallet. Admin access required."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Balance rebuilt",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = LedgerBalanceDto.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                {
+                                    "walletId": "ebed7406-0593-4e01-bd7b-7f5abee2315f",
+                                    "at": null,
+                                    "balance": 1900.00,
+                                    "usableBalance": 400.00,
+                                    "replayedEntries": 12,
+                                    "matchesWallet": true
+                                }
+                                """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - admin access required",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Wallet not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    })
+    @GetMapping("/admin/ledger/balance")
+    public ResponseEntity<LedgerBalanceDto> getLedgerBalance(
+            @RequestParam String walletId,
+            @RequestParam(required = false) Instant at
+    ) {
+        LedgerBalanceDto res = ledgerService.getBalance(walletId, at);
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(res);
+    }
+
 
 }
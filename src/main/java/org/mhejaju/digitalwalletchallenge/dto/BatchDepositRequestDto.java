@@ -0,0 +1,20 @@
+package org.mhejaju.digitalwalletchallenge.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.mhejaju.digitalwalletchallenge.constants.Miscellaneous;
+import org.mhejaju.digitalwalletchallenge.constants.ValidationMessages;
+
+import java.util.List;
+
+@Schema(description = "Batch of deposits, each item is applied and reported independently")
+public record BatchDepositRequestDto(
+        @ArraySchema(schema = @Schema(implementation = DepositDto.class), maxItems = Miscellaneous.MAX_BATCH_SIZE)
+        @NotEmpty(message = ValidationMessages.BATCH_ITEMS_REQUIRED)
+        @Size(max = Miscellaneous.MAX_BATCH_SIZE, message = ValidationMessages.BATCH_SIZE_INVALID)
+        List<@Valid DepositDto> deposits
+) {
+}
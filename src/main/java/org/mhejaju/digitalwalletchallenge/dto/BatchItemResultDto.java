@@ -0,0 +1,21 @@
+package org.mhejaju.digitalwalletchallenge.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "Outcome of a single item of a batch")
+public record BatchItemResultDto(
+        @Schema(description = "Position of the item in the request", example = "0")
+        int index,
+
+        @Schema(description = "Whether the item was applied", example = "true")
+        boolean succeeded,
+
+        @Schema(description = "The created transaction, null when the item failed")
+        TransactionResponseDto transaction,
+
+        @Schema(description = "Why the item was rejected, null when it succeeded", example = "Not enough funds available in the wallet")
+        String error
+) {
+}
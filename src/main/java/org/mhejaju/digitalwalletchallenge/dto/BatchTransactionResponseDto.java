@@ -0,0 +1,22 @@
+package org.mhejaju.digitalwalletchallenge.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+@Schema(description = "Per-item results of a batch of deposits or withdrawals")
+public record BatchTransactionResponseDto(
+        @Schema(description = "Number of items that were applied", example = "998")
+        int succeeded,
+
+        @Schema(description = "Number of items that were rejected", example = "2")
+        int failed,
+
+        @ArraySchema(schema = @Schema(implementation = BatchItemResultDto.class))
+        @Schema(description = "One result per request item, in request order")
+        List<BatchItemResultDto> results
+) {
+}
@@ -0,0 +1,27 @@
+package org.mhejaju.digitalwalletchallenge.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import org.mhejaju.digitalwalletchallenge.constants.Miscellaneous;
+import org.mhejaju.digitalwalletchallenge.constants.ValidationMessages;
+
+import java.util.List;
+
+@Schema(description = "Request to approve or deny many pending transactions at once")
+public record BulkTransactionStatusChangeRequestDto(
+        @ArraySchema(schema = @Schema(description = "Unique identifier of a pending transaction", example = "0F4XQ3ZK7H8M2"),
+                maxItems = Miscellaneous.MAX_BATCH_SIZE)
+        @NotEmpty(message = ValidationMessages.BATCH_ITEMS_REQUIRED)
+        @Size(max = Miscellaneous.MAX_BATCH_SIZE, message = ValidationMessages.BATCH_SIZE_INVALID)
+        List<@NotNull(message = ValidationMessages.TRANSACTION_ID_REQUIRED) String> transactionIds,
+
+        @Schema(description = "New status for all of the transactions (APPROVED or DENIED)", example = "APPROVED", required = true)
+        @NotNull(message = ValidationMessages.STATUS_REQUIRED)
+        @Pattern(regexp = "^(APPROVED|DENIED)$", message = ValidationMessages.STATUS_INVALID)
+        String status
+) {
+}
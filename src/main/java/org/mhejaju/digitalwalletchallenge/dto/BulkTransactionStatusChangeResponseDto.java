@@ -0,0 +1,26 @@
+package org.mhejaju.digitalwalletchallenge.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+@Schema(description = "Result of a bulk status change")
+public record BulkTransactionStatusChangeResponseDto(
+        @Schema(description = "Status the transactions were changed to", example = "APPROVED")
+        String status,
+
+        @Schema(description = "Number of pending transactions whose status was changed", example = "4998")
+        int changed,
+
+        @ArraySchema(schema = @Schema(description = "Transaction id", example = "0F4XQ3ZK7H8M2"))
+        @Schema(description = "Transactions that were not changed because they do not exist or are no longer pending")
+        List<String> skippedTransactionIds,
+
+        @ArraySchema(schema = @Schema(description = "Transaction id", example = "0F4XQ3ZK7H8M3"))
+        @Schema(description = "Transactions that were not changed because their chunk failed and was rolled back")
+        List<String> failedTransactionIds
+) {
+}
@@ -3,6 +3,7 @@ package org.mhejaju.digitalwalletchallenge.dto;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import org.mhejaju.digitalwalletchallenge.constants.ValidationMessages;
@@ -21,6 +22,7 @@ public record DepositDto(
         @NotNull(message = ValidationMessages.AMOUNT_REQUIRED)
         @DecimalMin(value = "0.01", message = ValidationMessages.ERR_MIN_AMOUNT)
         @DecimalMax(value = "10000.00", message = ValidationMessages.ERR_MAX_AMOUNT)
+        @Digits(integer = 5, fraction = 2, message = ValidationMessages.ERR_AMOUNT_SCALE)
         BigDecimal amount,
 
         @Schema(
@@ -0,0 +1,32 @@
+package org.mhejaju.digitalwalletchallenge.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Builder
+@Schema(description = "Wallet balance rebuilt from the ledger")
+public record LedgerBalanceDto(
+        @Schema(description = "Unique wallet identifier (UUID)", example = "ebed7406-0593-4e01-bd7b-7f5abee2315f")
+        String walletId,
+
+        @Schema(description = "Point in time the balance was rebuilt for, null for the current balance",
+                example = "2025-11-09T15:00:00Z")
+        Instant at,
+
+        @Schema(description = "Total balance according to the ledger", example = "1900.00")
+        BigDecimal balance,
+
+        @Schema(description = "Usable balance according to the ledger", example = "400.00")
+        BigDecimal usableBalance,
+
+        @Schema(description = "Ledger entries replayed on top of the latest snapshot", example = "12")
+        long replayedEntries,
+
+        @Schema(description = "Whether the rebuilt current balance matches the wallet, null for a past point in time",
+                example = "true")
+        Boolean matchesWallet
+) {
+}
@@ -20,7 +20,11 @@ public record WalletTransactionListResponseDto(
         BigDecimal usableBalance,
 
         @ArraySchema(schema = @Schema(implementation = TransactionResponseDto.class))
-        @Schema(description = "List of transactions associated with the wallet")
-        List<TransactionResponseDto> transactions
+        @Schema(description = "Page of transactions associated with the wallet, newest first")
+        List<TransactionResponseDto> transactions,
+
+        @Schema(description = "Cursor to pass as 'after' to fetch the next page, null when this is the last page",
+                example = "MTI4")
+        String nextCursor
 ) {
 }
\ No newline at end of file
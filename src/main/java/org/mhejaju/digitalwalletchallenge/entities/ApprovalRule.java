@@ -0,0 +1,35 @@
+package org.mhejaju.digitalwalletchallenge.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.entities.enums.CustomerTier;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OppositePartyType;
+
+/**
+ * An approval threshold, see {@code V6__approval_rules.sql}. A null currency, counterparty type or tier matches any
+ * value. Rules are maintained in the database and only read by the application.
+ */
+@Data
+@Entity
+@Immutable
+public class ApprovalRule {
+    @Id
+    private long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private Currency currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private OppositePartyType oppositePartyType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private CustomerTier tier;
+
+    @Column(nullable = false)
+    private Money threshold;
+}
@@ -2,7 +2,9 @@ package org.mhejaju.digitalwalletchallenge.entities;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.mhejaju.digitalwalletchallenge.entities.enums.CustomerTier;
 import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
+import org.mhejaju.digitalwalletchallenge.events.CustomerChangeListener;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,11 +15,13 @@ import java.util.Set;
 
 @Data
 @Entity
+@EntityListeners(CustomerChangeListener.class)
 public class Customer implements UserDetails {
 
     @Id
     @Column(name = "customer_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = 50)
     private long id;
 
     @Column(nullable = false)
@@ -43,6 +47,11 @@ public class Customer implements UserDetails {
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    // selects the approval rules that apply to the customer's transactions
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CustomerTier tier = CustomerTier.STANDARD;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
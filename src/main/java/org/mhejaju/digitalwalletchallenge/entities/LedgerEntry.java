@@ -0,0 +1,43 @@
+package org.mhejaju.digitalwalletchallenge.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+import org.mhejaju.digitalwalletchallenge.entities.enums.LedgerAccount;
+
+import java.time.Instant;
+
+/**
+ * One posting of the wallet ledger, see {@code V3__ledger.sql}. Entries are inserted only by the postings in
+ * {@link org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository} and never change afterwards.
+ */
+@Data
+@Entity
+@Immutable
+public class LedgerEntry {
+    @Id
+    private long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", referencedColumnName = "id", nullable = false)
+    private Wallet wallet;
+
+    // null for the opening entries of wallets that existed before the ledger
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "transaction_id", referencedColumnName = "id")
+    private Transaction transaction;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private LedgerAccount debitAccount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private LedgerAccount creditAccount;
+
+    @Column(nullable = false)
+    private Money amount;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
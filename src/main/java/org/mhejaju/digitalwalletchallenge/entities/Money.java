@@ -0,0 +1,58 @@
+package org.mhejaju.digitalwalletchallenge.entities;
+
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount in minor units (cents, kurus), stored as {@code bigint}. Every {@link Currency} has two fraction digits,
+ * so one {@link #SCALE} serves all wallets; a currency with another number would need the scale per currency here, in
+ * the {@code @Digits} of the amount DTOs and in the outbox payload. Amounts only become {@link BigDecimal} at the API
+ * boundary; arithmetic and comparisons stay on the {@code long}.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    /**
+     * @throws ArithmeticException if the amount has more than {@link #SCALE} fraction digits or does not fit a long
+     */
+    public static Money of(BigDecimal amount) {
+        return new Money(amount.movePointRight(SCALE).longValueExact());
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
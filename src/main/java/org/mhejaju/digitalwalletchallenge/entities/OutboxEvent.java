@@ -0,0 +1,48 @@
+package org.mhejaju.digitalwalletchallenge.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OutboxEventType;
+
+import java.time.Instant;
+
+/**
+ * A pending notification about a transaction, see {@code V4__outbox.sql}. Inserted only by
+ * {@link org.mhejaju.digitalwalletchallenge.repositories.OutboxEventRepository#record} and deleted once relayed, or
+ * moved to {@code outbox_dead_letter} after too many failed attempts, see {@code V9__outbox_dead_letter.sql}.
+ */
+@Data
+@Entity
+public class OutboxEvent {
+    @Id
+    private long id;
+
+    @Column(nullable = false)
+    private long walletId;
+
+    // the transaction id
+    @Column(nullable = false)
+    private String aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private OutboxEventType eventType;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // failed publishes so far, see OutboxRelay
+    @Column(nullable = false)
+    private int attempts;
+
+    private String lastError;
+
+    // neither this event nor any later one of its wallet is relayed before this, empty until the first failure
+    private Instant nextAttemptAt;
+}
@@ -5,17 +5,15 @@ import lombok.Data;
 import org.mhejaju.digitalwalletchallenge.entities.enums.OppositePartyType;
 import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionStatus;
 import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionType;
-
-import java.math.BigDecimal;
-import java.security.SecureRandom;
-
-import static org.mhejaju.digitalwalletchallenge.constants.Miscellaneous.ALPHANUMERIC;
+import org.mhejaju.digitalwalletchallenge.entities.listeners.TransactionIdListener;
 
 @Data
 @Entity
+@EntityListeners(TransactionIdListener.class)
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     private long id;
 
     @Column(unique = true, nullable = false, updatable = false)
@@ -41,28 +39,5 @@ public class Transaction {
     private Wallet wallet;
 
     @Column(nullable = false)
-    private BigDecimal amount;
-
-    @PrePersist
-    private void generateTransactionId() {
-        if (this.transactionId == null) {
-            this.transactionId = generateUniqueTransactionId();
-        }
-    }
-
-
-    private static final SecureRandom RANDOM = new SecureRandom();
-    private static final int TRANSACTION_ID_LENGTH = 12;
-
-    private String generateUniqueTransactionId() {
-        StringBuilder sb = new StringBuilder(TRANSACTION_ID_LENGTH);
-        for (int i = 0; i < TRANSACTION_ID_LENGTH; i++) {
-            sb.append(ALPHANUMERIC.charAt(RANDOM.nextInt(ALPHANUMERIC.length())));
-        }
-        return sb.toString();
-    }
-
-
-
-
+    private Money amount;
 }
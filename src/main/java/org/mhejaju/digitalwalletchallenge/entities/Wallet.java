@@ -2,9 +2,9 @@ package org.mhejaju.digitalwalletchallenge.entities;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
 
-import java.math.BigDecimal;
 import java.util.Set;
 import java.util.UUID;
 
@@ -13,10 +13,11 @@ import java.util.UUID;
 public class Wallet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_seq")
+    @SequenceGenerator(name = "wallet_seq", sequenceName = "wallet_seq", allocationSize = 50)
     private long id;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String walletId;
 
     @Column(unique = true)
@@ -38,9 +39,14 @@ public class Wallet {
 
     private boolean activeForShopping;
 
-    private BigDecimal balance;
+    private Money balance;
+
+    private Money usableBalance;
 
-    private BigDecimal usableBalance;
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
 
     @PrePersist
     private void generateWalletId() {
@@ -1,5 +1,6 @@
 package org.mhejaju.digitalwalletchallenge.entities.enums;
 
+// all have two fraction digits, amounts are stored in minor units at that one scale (see Money)
 public enum Currency {
     USD, EUR, TRY
 }
@@ -0,0 +1,6 @@
+package org.mhejaju.digitalwalletchallenge.entities.enums;
+
+public enum CustomerTier {
+    STANDARD,
+    PREMIUM
+}
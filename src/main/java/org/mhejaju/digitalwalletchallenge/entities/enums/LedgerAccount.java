@@ -0,0 +1,5 @@
+package org.mhejaju.digitalwalletchallenge.entities.enums;
+
+public enum LedgerAccount {
+    AVAILABLE, PENDING, EXTERNAL
+}
@@ -0,0 +1,5 @@
+package org.mhejaju.digitalwalletchallenge.entities.enums;
+
+public enum OutboxEventType {
+    TRANSACTION_CREATED, TRANSACTION_STATUS_CHANGED
+}
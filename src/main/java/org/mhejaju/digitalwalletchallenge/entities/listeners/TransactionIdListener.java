@@ -0,0 +1,25 @@
+package org.mhejaju.digitalwalletchallenge.entities.listeners;
+
+import jakarta.persistence.PrePersist;
+import lombok.RequiredArgsConstructor;
+import org.mhejaju.digitalwalletchallenge.entities.Transaction;
+import org.mhejaju.digitalwalletchallenge.services.TransactionIdGenerator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Assigns the public transaction id right before a transaction is first persisted. Hibernate resolves the
+ * listener through the Spring bean container, so the configured {@link TransactionIdGenerator} is used.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionIdListener {
+
+    private final TransactionIdGenerator transactionIdGenerator;
+
+    @PrePersist
+    void assignTransactionId(Transaction transaction) {
+        if (transaction.getTransactionId() == null) {
+            transaction.setTransactionId(transactionIdGenerator.nextId());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.mhejaju.digitalwalletchallenge.events;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener for {@link Customer}; Hibernate resolves it through the Spring bean container,
+ * so every write path that goes through the persistence context publishes a {@link CustomerChangedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onCustomerChanged(Customer customer) {
+        eventPublisher.publishEvent(new CustomerChangedEvent(customer.getEmail()));
+    }
+}
@@ -0,0 +1,8 @@
+package org.mhejaju.digitalwalletchallenge.events;
+
+/**
+ * Published whenever a customer is created, updated or removed, so that anything caching the customer
+ * by email can drop its copy.
+ */
+public record CustomerChangedEvent(String email) {
+}
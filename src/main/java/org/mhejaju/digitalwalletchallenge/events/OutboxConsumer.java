@@ -0,0 +1,9 @@
+package org.mhejaju.digitalwalletchallenge.events;
+
+/**
+ * In-process receiver of relayed outbox messages, called by the default transport in relay order (per wallet, the
+ * order the transactions were committed in). A consumer that throws makes the whole batch redeliver.
+ */
+public interface OutboxConsumer {
+    void consume(OutboxMessage message);
+}
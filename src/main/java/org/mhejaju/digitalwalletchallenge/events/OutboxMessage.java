@@ -0,0 +1,20 @@
+package org.mhejaju.digitalwalletchallenge.events;
+
+import org.mhejaju.digitalwalletchallenge.entities.OutboxEvent;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OutboxEventType;
+
+import java.time.Instant;
+
+/**
+ * A relayed outbox event. Delivery is at least once: the id is stable across redeliveries, so consumers can use it
+ * to drop duplicates. The payload is a JSON object with the transaction's id, walletId, type, status, amount and
+ * opposite party.
+ */
+public record OutboxMessage(long id, OutboxEventType eventType, String transactionId, String payload,
+                            Instant createdAt) {
+
+    public static OutboxMessage of(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getEventType(), event.getAggregateId(), event.getPayload(),
+                event.getCreatedAt());
+    }
+}
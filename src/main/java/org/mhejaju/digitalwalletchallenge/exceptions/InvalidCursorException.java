@@ -0,0 +1,7 @@
+package org.mhejaju.digitalwalletchallenge.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super(String.format("Invalid pagination cursor: %s", cursor));
+    }
+}
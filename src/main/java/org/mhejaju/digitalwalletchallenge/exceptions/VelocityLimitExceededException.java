@@ -0,0 +1,7 @@
+package org.mhejaju.digitalwalletchallenge.exceptions;
+
+public class VelocityLimitExceededException extends RuntimeException {
+    public VelocityLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -1,13 +1,20 @@
 package org.mhejaju.digitalwalletchallenge.filter;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.mhejaju.digitalwalletchallenge.config.MetricTags;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
 import org.mhejaju.digitalwalletchallenge.services.impl.JwtService;
+import org.mhejaju.digitalwalletchallenge.services.impl.TokenRevocationService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,13 +25,23 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String AUTH_OPERATION = "jwt_authentication";
+    private static final String INVALID_TOKEN = "invalid_token";
+    private static final String REJECTED = "rejected";
+
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean statelessAuthentication;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -32,29 +49,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     @NonNull FilterChain filterChain) throws IOException {
         try {
             final String authHeader = request.getHeader("Authorization");
-            final String jwt;
-            final String userEmail;
 
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            jwt = authHeader.substring(7);
-            userEmail = jwtService.extractUsername(jwt);
-
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+            // only the token check and principal lookup are timed, not the rest of the chain
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = INVALID_TOKEN;
+            try {
+                outcome = authenticate(request, authHeader.substring(7));
+            } finally {
+                sample.stop(MetricTags.operationTimer(meterRegistry, AUTH_OPERATION, outcome, MetricTags.currentRole()));
             }
 
             filterChain.doFilter(request, response);
@@ -64,6 +71,44 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
+    private String authenticate(HttpServletRequest request, String jwt) {
+        // the token is verified and parsed exactly once per request
+        final Claims claims = jwtService.extractAllClaims(jwt);
+        final String userEmail = claims.getSubject();
+
+        if (userEmail == null) {
+            return REJECTED;
+        }
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            return MetricTags.SUCCESS;
+        }
+
+        UserDetails userDetails = resolvePrincipal(userEmail, claims);
+        if (userDetails == null || !jwtService.isTokenValid(claims, userDetails)) {
+            return REJECTED;
+        }
+
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        return MetricTags.SUCCESS;
+    }
+
+    private UserDetails resolvePrincipal(String userEmail, Claims claims) {
+        if (statelessAuthentication) {
+            Optional<Customer> customer = jwtService.extractCustomer(claims);
+            if (customer.isPresent()) {
+                return tokenRevocationService.isRevoked(customer.get()) ? null : customer.get();
+            }
+        }
+
+        return this.userDetailsService.loadUserByUsername(userEmail);
+    }
+
     private void handleJwtException(HttpServletResponse response, String message) throws IOException {
         response.setStatus(HttpStatus.UNAUTHORIZED.value());
         response.setContentType("application/json");
@@ -2,6 +2,7 @@ package org.mhejaju.digitalwalletchallenge.mapper;
 
 import org.mhejaju.digitalwalletchallenge.dto.RegisterDto;
 import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.enums.CustomerTier;
 import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -14,6 +15,7 @@ public class CustomerMapper {
         customer.setPassword(encoder.encode(registerDto.password()));
         customer.setTrIdentityNo(registerDto.trIdentityNo());
         customer.setRole(Role.BASIC);
+        customer.setTier(CustomerTier.STANDARD);
         return customer;
     }
 }
@@ -0,0 +1,30 @@
+package org.mhejaju.digitalwalletchallenge.mapper;
+
+import org.mhejaju.digitalwalletchallenge.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Maps the id of the last transaction on a page to the opaque cursor handed out to clients and back.
+ */
+public class TransactionCursorMapper {
+
+    public static String toCursor(long transactionId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(transactionId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static long fromCursor(String cursor) {
+        try {
+            long transactionId = Long.parseLong(
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+            if (transactionId <= 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            return transactionId;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
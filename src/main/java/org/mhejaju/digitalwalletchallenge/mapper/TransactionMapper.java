@@ -1,15 +1,19 @@
 package org.mhejaju.digitalwalletchallenge.mapper;
 
 import org.mhejaju.digitalwalletchallenge.dto.DepositDto;
+import org.mhejaju.digitalwalletchallenge.dto.TransactionExportDto;
+import org.mhejaju.digitalwalletchallenge.dto.TransactionResponseDto;
 import org.mhejaju.digitalwalletchallenge.dto.WithdrawDto;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
 import org.mhejaju.digitalwalletchallenge.entities.Transaction;
 import org.mhejaju.digitalwalletchallenge.entities.enums.OppositePartyType;
 import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionType;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.TransactionSummary;
 
 public class TransactionMapper {
     public static Transaction mapToTransaction(DepositDto depositDto) {
         Transaction transaction = new Transaction();
-        transaction.setAmount(depositDto.amount());
+        transaction.setAmount(Money.of(depositDto.amount()));
         transaction.setType(TransactionType.DEPOSIT);
         transaction.setOppositeParty(depositDto.source());
         transaction.setOppositePartyType(OppositePartyType.valueOf(depositDto.sourceType()));
@@ -18,10 +22,44 @@ public class TransactionMapper {
 
     public static Transaction mapToTransaction(WithdrawDto withdrawDto) {
         Transaction transaction = new Transaction();
-        transaction.setAmount(withdrawDto.amount());
+        transaction.setAmount(Money.of(withdrawDto.amount()));
         transaction.setType(TransactionType.WITHDRAW);
         transaction.setOppositeParty(withdrawDto.destination());
         transaction.setOppositePartyType(OppositePartyType.valueOf(withdrawDto.destinationType()));
         return transaction;
     }
+
+    public static TransactionResponseDto mapToTransactionResponseDto(Transaction transaction, String walletId) {
+        return TransactionResponseDto.builder()
+                .walletId(walletId)
+                .oppositeParty(transaction.getOppositeParty())
+                .oppositePartyType(transaction.getOppositePartyType().name())
+                .type(transaction.getType().name())
+                .status(transaction.getStatus().name())
+                .amount(transaction.getAmount().toBigDecimal())
+                .build();
+    }
+
+    public static TransactionResponseDto mapToTransactionResponseDto(TransactionSummary transaction, String walletId) {
+        return TransactionResponseDto.builder()
+                .walletId(walletId)
+                .oppositeParty(transaction.oppositeParty())
+                .oppositePartyType(transaction.oppositePartyType().name())
+                .type(transaction.type().name())
+                .status(transaction.status().name())
+                .amount(transaction.amount().toBigDecimal())
+                .build();
+    }
+
+    public static TransactionExportDto mapToTransactionExportDto(TransactionSummary transaction, String walletId) {
+        return TransactionExportDto.builder()
+                .transactionId(transaction.transactionId())
+                .walletId(walletId)
+                .oppositeParty(transaction.oppositeParty())
+                .oppositePartyType(transaction.oppositePartyType().name())
+                .type(transaction.type().name())
+                .status(transaction.status().name())
+                .amount(transaction.amount().toBigDecimal())
+                .build();
+    }
 }
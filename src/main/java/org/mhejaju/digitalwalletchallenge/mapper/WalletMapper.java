@@ -2,10 +2,10 @@ package org.mhejaju.digitalwalletchallenge.mapper;
 
 import org.mhejaju.digitalwalletchallenge.dto.WalletDto;
 import org.mhejaju.digitalwalletchallenge.dto.WalletResponseDto;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
 import org.mhejaju.digitalwalletchallenge.entities.Wallet;
 import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
-
-import java.math.BigDecimal;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.WalletSummary;
 
 public class WalletMapper {
     public static Wallet mapToWallet(WalletDto walletDto) {
@@ -16,8 +16,8 @@ public class WalletMapper {
         wallet.setCurrency(Currency.valueOf(walletDto.currency()));
         wallet.setActiveForShopping(walletDto.activeForShopping());
         wallet.setActiveForWithdraw(walletDto.activeForWithdraw());
-        wallet.setBalance(BigDecimal.ZERO);
-        wallet.setUsableBalance(BigDecimal.ZERO);
+        wallet.setBalance(Money.ZERO);
+        wallet.setUsableBalance(Money.ZERO);
 
         return wallet;
     }
@@ -30,9 +30,22 @@ public class WalletMapper {
                 .currency(wallet.getCurrency().name())
                 .activeForShopping(wallet.isActiveForShopping())
                 .activeForWithdraw(wallet.isActiveForWithdraw())
-                .balance(wallet.getBalance())
-                .usableBalance(wallet.getUsableBalance())
+                .balance(wallet.getBalance().toBigDecimal())
+                .usableBalance(wallet.getUsableBalance().toBigDecimal())
                 .build();
 
     }
+
+    public static WalletResponseDto mapToWalletResponseDto(WalletSummary wallet) {
+        return WalletResponseDto.builder()
+                .walletId(wallet.walletId())
+                .walletName(wallet.walletName())
+                .customer(wallet.customerName() + " " + wallet.customerSurname())
+                .currency(wallet.currency().name())
+                .activeForShopping(wallet.activeForShopping())
+                .activeForWithdraw(wallet.activeForWithdraw())
+                .balance(wallet.balance().toBigDecimal())
+                .usableBalance(wallet.usableBalance().toBigDecimal())
+                .build();
+    }
 }
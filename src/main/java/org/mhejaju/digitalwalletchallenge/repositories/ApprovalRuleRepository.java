@@ -0,0 +1,9 @@
+package org.mhejaju.digitalwalletchallenge.repositories;
+
+import org.mhejaju.digitalwalletchallenge.entities.ApprovalRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ApprovalRuleRepository extends JpaRepository<ApprovalRule, Long> {
+}
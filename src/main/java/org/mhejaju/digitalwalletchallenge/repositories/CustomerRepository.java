@@ -1,7 +1,10 @@
 package org.mhejaju.digitalwalletchallenge.repositories;
 
 import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.CustomerAccess;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +13,11 @@ import java.util.Optional;
 public interface CustomerRepository extends JpaRepository<Customer, Long> { //TODO check if PagingAndSortingRepository suits better
     Optional<Customer> findByEmail(String email);
     Optional<Customer> findByTrIdentityNo(String trIdentityNo);
+
+    @Query("""
+            select new org.mhejaju.digitalwalletchallenge.repositories.projections.CustomerAccess(c.role, c.tier)
+              from Customer c
+             where c.id = :id
+            """)
+    Optional<CustomerAccess> findAccessById(@Param("id") long id);
 }
@@ -0,0 +1,128 @@
+package org.mhejaju.digitalwalletchallenge.repositories;
+
+import org.mhejaju.digitalwalletchallenge.entities.LedgerEntry;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.LedgerBalance;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.RecentWithdrawal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Postings are derived from the transaction rows in SQL, so a whole chunk is posted with one statement. They must run
+ * after the wallet balance update of the same database transaction: the entry ids are drawn at insert time and only
+ * ascend per wallet in commit order while the wallet row is locked. The pending transaction rows are flushed first.
+ */
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    // an approved deposit moves the amount from EXTERNAL to AVAILABLE and an approved withdrawal the other way round,
+    // a pending one holds it in PENDING instead of the account it is headed to
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            insert into ledger_entry (id, wallet_id, transaction_id, debit_account, credit_account, amount, created_at)
+            select nextval('ledger_entry_seq'), t.wallet_id, t.id,
+                   case when t.status <> 'APPROVED' then 'PENDING'
+                        when t.type = 'DEPOSIT' then 'AVAILABLE'
+                        else 'EXTERNAL' end,
+                   case when t.type = 'DEPOSIT' then 'EXTERNAL' else 'AVAILABLE' end,
+                   t.amount, clock_timestamp()
+              from transaction t
+             where t.id in (:transactionIds)
+             order by t.id
+            """, nativeQuery = true)
+    int postCreated(@Param("transactionIds") Collection<Long> transactionIds);
+
+    // settling releases the held amount: to AVAILABLE for an approved deposit or a denied withdrawal,
+    // to EXTERNAL for a denied deposit or an approved withdrawal
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            insert into ledger_entry (id, wallet_id, transaction_id, debit_account, credit_account, amount, created_at)
+            select nextval('ledger_entry_seq'), t.wallet_id, t.id,
+                   case when (t.type = 'DEPOSIT') = (t.status = 'APPROVED') then 'AVAILABLE' else 'EXTERNAL' end,
+                   'PENDING',
+                   t.amount, clock_timestamp()
+              from transaction t
+             where t.id in (:transactionIds)
+             order by t.id
+            """, nativeQuery = true)
+    int postSettled(@Param("transactionIds") Collection<Long> transactionIds);
+
+    // one snapshot per wallet that has at least minEntries entries since its latest snapshot, computed from that
+    // snapshot and the new entries only; a concurrent run that got there first wins
+    @Modifying
+    @Query(value = """
+            insert into balance_snapshot (wallet_id, ledger_entry_id, available, pending, as_of)
+            select w.id, d.last_entry_id,
+                   coalesce(s.available, 0) + d.available,
+                   coalesce(s.pending, 0) + d.pending,
+                   d.as_of
+              from wallet w
+              left join lateral (
+                       select ledger_entry_id, available, pending
+                         from balance_snapshot
+                        where wallet_id = w.id
+                        order by ledger_entry_id desc
+                        fetch first 1 row only) s on true
+              join lateral (
+                       select count(*) as entries,
+                              max(e.id) as last_entry_id,
+                              max(e.created_at) as as_of,
+                              coalesce(sum(case when e.debit_account = 'AVAILABLE' then e.amount
+                                                when e.credit_account = 'AVAILABLE' then -e.amount
+                                                else 0 end), 0) as available,
+                              coalesce(sum(case when e.debit_account = 'PENDING' then e.amount
+                                                when e.credit_account = 'PENDING' then -e.amount
+                                                else 0 end), 0) as pending
+                         from ledger_entry e
+                        where e.wallet_id = w.id
+                          and e.id > coalesce(s.ledger_entry_id, 0)) d on true
+             where d.entries >= :minEntries
+            on conflict do nothing
+            """, nativeQuery = true)
+    int takeSnapshots(@Param("minEntries") int minEntries);
+
+    // sum() over bigint yields numeric, the casts keep the account values in minor units
+    @Query(value = """
+            with snapshot as (
+                select ledger_entry_id, available, pending
+                  from balance_snapshot
+                 where wallet_id = :walletId
+                   and as_of <= :at
+                 order by ledger_entry_id desc
+                 fetch first 1 row only)
+            select (coalesce((select available from snapshot), 0)
+                       + coalesce(sum(case when e.debit_account = 'AVAILABLE' then e.amount
+                                           when e.credit_account = 'AVAILABLE' then -e.amount
+                                           else 0 end), 0))::bigint as available,
+                   (coalesce((select pending from snapshot), 0)
+                       + coalesce(sum(case when e.debit_account = 'PENDING' then e.amount
+                                           when e.credit_account = 'PENDING' then -e.amount
+                                           else 0 end), 0))::bigint as pending,
+                   count(e.id) as replayedEntries
+              from ledger_entry e
+             where e.wallet_id = :walletId
+               and e.id > coalesce((select ledger_entry_id from snapshot), 0)
+               and e.created_at <= :at
+            """, nativeQuery = true)
+    LedgerBalance rebuildBalance(@Param("walletId") long walletId, @Param("at") Instant at);
+
+    // the entry posted when a withdrawal is created is the one taking the amount out of AVAILABLE,
+    // whether the withdrawal was approved right away or is pending
+    @Query(value = """
+            select w.wallet_id as walletId, w.customer_id as customerId, e.amount as amount,
+                   (extract(epoch from e.created_at) * 1000)::bigint as createdAtMillis
+              from ledger_entry e
+              join transaction t on t.id = e.transaction_id
+              join wallet w on w.id = e.wallet_id
+             where e.created_at >= :since
+               and e.credit_account = 'AVAILABLE'
+               and t.type = 'WITHDRAW'
+            """, nativeQuery = true)
+    List<RecentWithdrawal> findWithdrawalsSince(@Param("since") Instant since);
+}
@@ -0,0 +1,83 @@
+package org.mhejaju.digitalwalletchallenge.repositories;
+
+import org.mhejaju.digitalwalletchallenge.entities.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Events are recorded from the transaction rows in SQL, one statement per chunk, and like the ledger postings must
+ * run after the wallet balance update of the same database transaction. The payload amount is in major units, as in
+ * the API.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            insert into outbox_event (id, wallet_id, aggregate_id, event_type, payload, created_at)
+            select nextval('outbox_event_seq'), t.wallet_id, t.transaction_id, :eventType,
+                   jsonb_build_object(
+                           'transactionId', t.transaction_id,
+                           'walletId', w.wallet_id,
+                           'type', t.type,
+                           'status', t.status,
+                           'amount', round(t.amount / 100.0, 2),
+                           'oppositePartyType', t.opposite_party_type,
+                           'oppositeParty', t.opposite_party),
+                   clock_timestamp()
+              from transaction t
+              join wallet w on w.id = t.wallet_id
+             where t.id in (:transactionIds)
+             order by t.id
+            """, nativeQuery = true)
+    int record(@Param("eventType") String eventType, @Param("transactionIds") Collection<Long> transactionIds);
+
+    // skips every event of a wallet whose failed event waits for its retry, so other wallets are not held up
+    @Query(value = """
+            select *
+              from outbox_event e
+             where not exists (select 1
+                                 from outbox_event f
+                                where f.wallet_id = e.wallet_id
+                                  and f.next_attempt_at > now())
+             order by e.id
+             limit :limit
+            """, nativeQuery = true)
+    List<OutboxEvent> findOldestDue(@Param("limit") int limit);
+
+    @Modifying
+    @Query(value = """
+            update outbox_event
+               set attempts = attempts + 1,
+                   last_error = :lastError,
+                   next_attempt_at = :nextAttemptAt
+             where id = :id
+            """, nativeQuery = true)
+    int recordFailure(@Param("id") long id, @Param("lastError") String lastError,
+                      @Param("nextAttemptAt") Instant nextAttemptAt);
+
+    // keeps the id, so a fixed event can be put back into outbox_event with an insert ... select
+    @Modifying
+    @Query(value = """
+            with dead as (
+                delete from outbox_event
+                 where id = :id
+                returning *)
+            insert into outbox_dead_letter (id, wallet_id, aggregate_id, event_type, payload, created_at, attempts,
+                                            last_error, dead_at)
+            select id, wallet_id, aggregate_id, event_type, payload, created_at, attempts, last_error, clock_timestamp()
+              from dead
+            """, nativeQuery = true)
+    int moveToDeadLetter(@Param("id") long id);
+
+    // held until the end of the relaying transaction, so only one instance relays at a time
+    @Query(value = "select pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryRelayLock(@Param("key") long key);
+}
@@ -1,19 +1,69 @@
 package org.mhejaju.digitalwalletchallenge.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.mhejaju.digitalwalletchallenge.constants.Miscellaneous;
 import org.mhejaju.digitalwalletchallenge.entities.Transaction;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.TransactionStatusChange;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.TransactionSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     List<Transaction> findByWalletId(Long id);
 
+    // keyset pagination over (wallet_id, id): newest first, the cursor is the id of the last row of the previous page
+    @Query("""
+            select new org.mhejaju.digitalwalletchallenge.repositories.projections.TransactionSummary(
+                       t.id, t.transactionId, t.type, t.oppositePartyType, t.status, t.oppositeParty, t.amount)
+              from Transaction t
+             where t.wallet.id = :walletId
+             order by t.id desc
+            """)
+    List<TransactionSummary> findByWalletIdOrderByIdDesc(@Param("walletId") Long walletId, Limit limit);
+
+    @Query("""
+            select new org.mhejaju.digitalwalletchallenge.repositories.projections.TransactionSummary(
+                       t.id, t.transactionId, t.type, t.oppositePartyType, t.status, t.oppositeParty, t.amount)
+              from Transaction t
+             where t.wallet.id = :walletId
+               and t.id < :id
+             order by t.id desc
+            """)
+    List<TransactionSummary> findByWalletIdAndIdLessThanOrderByIdDesc(@Param("walletId") Long walletId,
+                                                                     @Param("id") Long id, Limit limit);
+
     Optional<Transaction> findByTransactionId(String transactionId);
 
+    // server-side cursor: PostgreSQL only honours the fetch size inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Miscellaneous.EXPORT_FETCH_SIZE))
+    @Query("""
+            select new org.mhejaju.digitalwalletchallenge.repositories.projections.TransactionSummary(
+                       t.id, t.transactionId, t.type, t.oppositePartyType, t.status, t.oppositeParty, t.amount)
+              from Transaction t
+             where t.wallet.id = :walletId
+             order by t.id
+            """)
+    Stream<TransactionSummary> streamByWalletId(@Param("walletId") Long walletId);
 
+    // only transactions that are still pending switch, so a transaction settled concurrently is never settled twice
+    @Query(value = """
+            update transaction
+               set status = :status
+             where transaction_id in (:transactionIds)
+               and status = 'PENDING'
+            returning id, transaction_id as transactionId, wallet_id as walletId, type, amount
+            """, nativeQuery = true)
+    List<TransactionStatusChange> settlePending(@Param("transactionIds") Collection<String> transactionIds,
+                                                @Param("status") String status);
 }
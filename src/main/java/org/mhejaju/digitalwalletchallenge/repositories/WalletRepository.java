@@ -1,14 +1,88 @@
 package org.mhejaju.digitalwalletchallenge.repositories;
 
 import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.WalletSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
-    List<Wallet> findByCustomerId(Long customerId);
+    // selects only the listed columns, so neither the wallets nor their eagerly fetched customers are loaded
+    @Query("""
+            select new org.mhejaju.digitalwalletchallenge.repositories.projections.WalletSummary(
+                       w.walletId, w.walletName, c.name, c.surname, w.currency,
+                       w.activeForWithdraw, w.activeForShopping, w.balance, w.usableBalance)
+              from Wallet w
+              join w.customer c
+             where c.id = :customerId
+             order by w.id
+            """)
+    List<WalletSummary> findSummariesByCustomerId(@Param("customerId") long customerId);
     Optional<Wallet> findByWalletId(String walletId);
+
+    @Query("select w.currency from Wallet w where w.walletId = :walletId")
+    Optional<Currency> findCurrencyByWalletId(@Param("walletId") String walletId);
+
+    // amounts of the balance updates are in minor units, see Money
+    @Query(value = """
+            update wallet
+               set balance = balance + :amount,
+                   usable_balance = usable_balance + :usableAmount,
+                   version = version + 1
+             where wallet_id = :walletId
+               and customer_id = :customerId
+            returning id
+            """, nativeQuery = true)
+    Optional<Long> creditIfOwned(@Param("walletId") String walletId,
+                                 @Param("customerId") long customerId,
+                                 @Param("amount") long amount,
+                                 @Param("usableAmount") long usableAmount);
+
+    @Query(value = """
+            update wallet
+               set usable_balance = usable_balance - :amount,
+                   balance = balance - :settledAmount,
+                   version = version + 1
+             where wallet_id = :walletId
+               and customer_id = :customerId
+               and active_for_withdraw
+               and active_for_shopping
+               and usable_balance >= :amount
+            returning id
+            """, nativeQuery = true)
+    Optional<Long> debitIfAvailable(@Param("walletId") String walletId,
+                                    @Param("customerId") long customerId,
+                                    @Param("amount") long amount,
+                                    @Param("settledAmount") long settledAmount);
+
+    @Modifying
+    @Query(value = """
+            update wallet
+               set balance = balance + :balanceDelta,
+                   usable_balance = usable_balance + :usableBalanceDelta,
+                   version = version + 1
+             where id = :id
+            """, nativeQuery = true)
+    int applyBalanceDelta(@Param("id") long id,
+                          @Param("balanceDelta") long balanceDelta,
+                          @Param("usableBalanceDelta") long usableBalanceDelta);
+
+    // locks the wallets of the given transactions in id order; the bulk settlement takes these locks before it touches
+    // the transaction rows, the same wallet-then-transaction order as a single status change
+    @Query(value = """
+            select w.id
+              from wallet w
+             where w.id in (select t.wallet_id from transaction t where t.transaction_id in (:transactionIds))
+             order by w.id
+               for update
+            """, nativeQuery = true)
+    List<Long> lockWalletsOfTransactions(@Param("transactionIds") Collection<String> transactionIds);
 }
@@ -0,0 +1,13 @@
+package org.mhejaju.digitalwalletchallenge.repositories.projections;
+
+import org.mhejaju.digitalwalletchallenge.entities.enums.CustomerTier;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
+
+/**
+ * The customer columns a token carries as claims and that decide what the customer may do, read to revalidate them.
+ */
+public record CustomerAccess(
+        Role role,
+        CustomerTier tier
+) {
+}
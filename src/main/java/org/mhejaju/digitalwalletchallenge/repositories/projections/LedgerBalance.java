@@ -0,0 +1,12 @@
+package org.mhejaju.digitalwalletchallenge.repositories.projections;
+
+/**
+ * Account values of a wallet, in minor units, rebuilt from its latest snapshot and the entries posted after it.
+ */
+public interface LedgerBalance {
+    long getAvailable();
+
+    long getPending();
+
+    long getReplayedEntries();
+}
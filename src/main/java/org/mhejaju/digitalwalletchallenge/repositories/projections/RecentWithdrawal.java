@@ -0,0 +1,14 @@
+package org.mhejaju.digitalwalletchallenge.repositories.projections;
+
+/**
+ * A withdrawal as the velocity limits count it: when it was created and its amount in minor units.
+ */
+public interface RecentWithdrawal {
+    String getWalletId();
+
+    long getCustomerId();
+
+    long getAmount();
+
+    long getCreatedAtMillis();
+}
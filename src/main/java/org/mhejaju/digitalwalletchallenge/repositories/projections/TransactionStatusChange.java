@@ -0,0 +1,17 @@
+package org.mhejaju.digitalwalletchallenge.repositories.projections;
+
+/**
+ * A pending transaction whose status was just changed, with what is needed to settle its wallet.
+ */
+public interface TransactionStatusChange {
+    Long getId();
+
+    String getTransactionId();
+
+    Long getWalletId();
+
+    String getType();
+
+    // in minor units, see Money
+    long getAmount();
+}
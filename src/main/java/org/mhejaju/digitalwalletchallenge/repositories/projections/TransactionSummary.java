@@ -0,0 +1,22 @@
+package org.mhejaju.digitalwalletchallenge.repositories.projections;
+
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OppositePartyType;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionStatus;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionType;
+
+
+/**
+ * The transaction columns of the history and the export. Read through a constructor expression, so rows are neither
+ * hydrated into entities nor tracked by the persistence context.
+ */
+public record TransactionSummary(
+        long id,
+        String transactionId,
+        TransactionType type,
+        OppositePartyType oppositePartyType,
+        TransactionStatus status,
+        String oppositeParty,
+        Money amount
+) {
+}
@@ -0,0 +1,21 @@
+package org.mhejaju.digitalwalletchallenge.repositories.projections;
+
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+
+
+/**
+ * The wallet columns shown in a wallet listing together with the owner's name, read without loading any entity.
+ */
+public record WalletSummary(
+        String walletId,
+        String walletName,
+        String customerName,
+        String customerSurname,
+        Currency currency,
+        boolean activeForWithdraw,
+        boolean activeForShopping,
+        Money balance,
+        Money usableBalance
+) {
+}
@@ -0,0 +1,20 @@
+package org.mhejaju.digitalwalletchallenge.services;
+
+import org.mhejaju.digitalwalletchallenge.dto.BatchTransactionResponseDto;
+import org.mhejaju.digitalwalletchallenge.dto.BulkTransactionStatusChangeRequestDto;
+import org.mhejaju.digitalwalletchallenge.dto.BulkTransactionStatusChangeResponseDto;
+import org.mhejaju.digitalwalletchallenge.dto.DepositDto;
+import org.mhejaju.digitalwalletchallenge.dto.WithdrawDto;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+
+import java.util.List;
+
+public interface BatchTransactionService {
+    BatchTransactionResponseDto makeDeposits(List<DepositDto> deposits, Customer customer);
+    BatchTransactionResponseDto makeDeposits(List<DepositDto> deposits, String customerTrIdentityNo);
+
+    BatchTransactionResponseDto withdraw(List<WithdrawDto> withdrawals, Customer customer);
+    BatchTransactionResponseDto withdraw(List<WithdrawDto> withdrawals, String customerTrIdentityNo);
+
+    BulkTransactionStatusChangeResponseDto changeTransactionStatuses(BulkTransactionStatusChangeRequestDto changeRequest);
+}
@@ -0,0 +1,11 @@
+package org.mhejaju.digitalwalletchallenge.services;
+
+import org.mhejaju.digitalwalletchallenge.dto.LedgerBalanceDto;
+
+import java.time.Instant;
+
+public interface LedgerService {
+    LedgerBalanceDto getBalance(String walletId, Instant at);
+
+    int takeSnapshots();
+}
@@ -0,0 +1,13 @@
+package org.mhejaju.digitalwalletchallenge.services;
+
+import org.mhejaju.digitalwalletchallenge.events.OutboxMessage;
+
+import java.util.List;
+
+/**
+ * Hands relayed outbox messages to their destination. Must return only once every message has been accepted, and
+ * throw otherwise: the batch is then kept and relayed again.
+ */
+public interface OutboxTransport {
+    void publish(List<OutboxMessage> messages);
+}
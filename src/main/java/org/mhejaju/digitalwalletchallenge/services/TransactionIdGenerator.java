@@ -0,0 +1,9 @@
+package org.mhejaju.digitalwalletchallenge.services;
+
+/**
+ * Produces the public {@code transactionId} of new transactions. Implementations must be thread-safe and
+ * must never hand out the same id twice, including across application nodes.
+ */
+public interface TransactionIdGenerator {
+    String nextId();
+}
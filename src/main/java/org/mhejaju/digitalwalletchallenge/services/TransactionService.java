@@ -4,6 +4,9 @@ package org.mhejaju.digitalwalletchallenge.services;
 import org.mhejaju.digitalwalletchallenge.dto.*;
 import org.mhejaju.digitalwalletchallenge.entities.Customer;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 public interface TransactionService {
     TransactionResponseDto makeDeposit(DepositDto depositDto, Customer customer);
     TransactionResponseDto makeDeposit(DepositDto depositDto, String customerTrIdentityNo);
@@ -11,8 +14,12 @@ public interface TransactionService {
     TransactionResponseDto withdraw(WithdrawDto withdrawDto, Customer customer);
     TransactionResponseDto withdraw(WithdrawDto withdrawDto, String customerTrIdentityNo);
 
-    WalletTransactionListResponseDto getTransactions(Customer customer, String walletId);
-    WalletTransactionListResponseDto getTransactions(String customerTrIdentityNo, String walletId);
+    WalletTransactionListResponseDto getTransactions(Customer customer, String walletId, int limit, String after);
+    WalletTransactionListResponseDto getTransactions(String customerTrIdentityNo, String walletId, int limit, String after);
+
+    long getOwnedWalletDbId(Customer customer, String walletId);
+    long getOwnedWalletDbId(String customerTrIdentityNo, String walletId);
+    void exportTransactions(long walletDbId, String walletId, OutputStream outputStream) throws IOException;
 
     void changeTransactionStatus(Customer customer, TransactionStatusChangeRequestDto changeRequest);
     void changeTransactionStatus(String customerTrIdentityNo, TransactionStatusChangeRequestDto changeRequest);
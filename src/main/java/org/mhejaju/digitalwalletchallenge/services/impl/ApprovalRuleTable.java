@@ -0,0 +1,91 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.mhejaju.digitalwalletchallenge.entities.ApprovalRule;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.entities.enums.CustomerTier;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OppositePartyType;
+
+import java.util.List;
+
+/**
+ * Immutable lookup table of approval thresholds, compiled from the {@link ApprovalRule}s. The winning rule is resolved
+ * for every combination of currency, counterparty type and tier up front, so a lookup is one array read with no
+ * allocation. Each dimension has an extra slot for an unknown (null) value, which only rules leaving that dimension
+ * open match.
+ * <p>
+ * The most specific matching rule wins. A rule naming the currency beats any rule that does not, then one naming
+ * the tier, then one naming the counterparty type. Combinations no rule matches get the default threshold.
+ */
+public final class ApprovalRuleTable {
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final OppositePartyType[] PARTY_TYPES = OppositePartyType.values();
+    private static final CustomerTier[] TIERS = CustomerTier.values();
+
+    // minor units, indexed by index(currency, oppositePartyType, tier)
+    private final long[] thresholds;
+    private final int ruleCount;
+
+    private ApprovalRuleTable(long[] thresholds, int ruleCount) {
+        this.thresholds = thresholds;
+        this.ruleCount = ruleCount;
+    }
+
+    public static ApprovalRuleTable compile(List<ApprovalRule> rules, Money defaultThreshold) {
+        long[] thresholds = new long[(CURRENCIES.length + 1) * (PARTY_TYPES.length + 1) * (TIERS.length + 1)];
+        for (int currency = 0; currency <= CURRENCIES.length; currency++) {
+            for (int partyType = 0; partyType <= PARTY_TYPES.length; partyType++) {
+                for (int tier = 0; tier <= TIERS.length; tier++) {
+                    ApprovalRule winner = null;
+                    for (ApprovalRule rule : rules) {
+                        if (matches(rule.getCurrency(), currency) && matches(rule.getOppositePartyType(), partyType)
+                                && matches(rule.getTier(), tier)
+                                && (winner == null || specificity(rule) > specificity(winner))) {
+                            winner = rule;
+                        }
+                    }
+                    thresholds[index(currency, partyType, tier)] =
+                            (winner == null ? defaultThreshold : winner.getThreshold()).minorUnits();
+                }
+            }
+        }
+        return new ApprovalRuleTable(thresholds, rules.size());
+    }
+
+    public boolean requiresApproval(Currency currency, OppositePartyType oppositePartyType, CustomerTier tier,
+                                    Money amount) {
+        return amount.minorUnits() >= thresholds[index(currency, oppositePartyType, tier)];
+    }
+
+    public Money threshold(Currency currency, OppositePartyType oppositePartyType, CustomerTier tier) {
+        return Money.ofMinor(thresholds[index(currency, oppositePartyType, tier)]);
+    }
+
+    public int ruleCount() {
+        return ruleCount;
+    }
+
+    private static int index(Currency currency, OppositePartyType oppositePartyType, CustomerTier tier) {
+        return index(slot(currency), slot(oppositePartyType), slot(tier));
+    }
+
+    private static int index(int currencySlot, int partyTypeSlot, int tierSlot) {
+        return (currencySlot * (PARTY_TYPES.length + 1) + partyTypeSlot) * (TIERS.length + 1) + tierSlot;
+    }
+
+    // slot 0 stands for an unknown value
+    private static int slot(Enum<?> value) {
+        return value == null ? 0 : value.ordinal() + 1;
+    }
+
+    private static boolean matches(Enum<?> ruleValue, int slot) {
+        return ruleValue == null || slot(ruleValue) == slot;
+    }
+
+    // the unique constraint on approval_rule leaves no two matching rules with the same specificity
+    private static int specificity(ApprovalRule rule) {
+        return (rule.getCurrency() != null ? 4 : 0) + (rule.getTier() != null ? 2 : 0)
+                + (rule.getOppositePartyType() != null ? 1 : 0);
+    }
+}
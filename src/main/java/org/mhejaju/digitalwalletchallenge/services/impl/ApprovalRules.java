@@ -0,0 +1,48 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.mhejaju.digitalwalletchallenge.constants.Miscellaneous;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.entities.enums.CustomerTier;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OppositePartyType;
+import org.mhejaju.digitalwalletchallenge.repositories.ApprovalRuleRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Decides whether a deposit or withdrawal stays PENDING. Holds the current {@link ApprovalRuleTable} and replaces it
+ * with one compiled from the approval_rule table every {@code wallet.approval-rules.refresh-interval-ms}. Readers see
+ * either the old or the new table as a whole, never a table that is being rebuilt.
+ */
+@Service
+@RequiredArgsConstructor
+public class ApprovalRules {
+
+    private final ApprovalRuleRepository approvalRuleRepository;
+
+    // until the rules are loaded only the default threshold applies
+    private volatile ApprovalRuleTable table = ApprovalRuleTable.compile(List.of(), Miscellaneous.APPROVAL_THRESHOLD);
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${wallet.approval-rules.refresh-interval-ms:30000}",
+            initialDelayString = "${wallet.approval-rules.refresh-interval-ms:30000}")
+    public void reload() {
+        table = ApprovalRuleTable.compile(approvalRuleRepository.findAll(), Miscellaneous.APPROVAL_THRESHOLD);
+    }
+
+    /**
+     * @param currency the wallet's currency, null if it is not known, in which case only rules for any currency apply
+     */
+    public boolean requiresApproval(Currency currency, OppositePartyType oppositePartyType, CustomerTier tier,
+                                    Money amount) {
+        return table.requiresApproval(currency, oppositePartyType, tier, amount);
+    }
+
+    public ApprovalRuleTable table() {
+        return table;
+    }
+}
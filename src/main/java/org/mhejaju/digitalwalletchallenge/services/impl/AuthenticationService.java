@@ -1,6 +1,7 @@
 package org.mhejaju.digitalwalletchallenge.services.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.mhejaju.digitalwalletchallenge.config.TimedOperation;
 import org.mhejaju.digitalwalletchallenge.dto.AuthenticationDto;
 import org.mhejaju.digitalwalletchallenge.dto.LoginDto;
 import org.mhejaju.digitalwalletchallenge.dto.RegisterDto;
@@ -34,6 +35,7 @@ public class AuthenticationService {
         return new AuthenticationDto(jwtToken, refreshToken);
     }
 
+    @TimedOperation("login")
     public AuthenticationDto authenticate(LoginDto loginDto) {
         authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginDto.email(), loginDto.password())
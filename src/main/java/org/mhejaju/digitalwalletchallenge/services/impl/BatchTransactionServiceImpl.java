@@ -0,0 +1,374 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.mhejaju.digitalwalletchallenge.dto.BatchItemResultDto;
+import org.mhejaju.digitalwalletchallenge.dto.BatchTransactionResponseDto;
+import org.mhejaju.digitalwalletchallenge.dto.BulkTransactionStatusChangeRequestDto;
+import org.mhejaju.digitalwalletchallenge.dto.BulkTransactionStatusChangeResponseDto;
+import org.mhejaju.digitalwalletchallenge.dto.DepositDto;
+import org.mhejaju.digitalwalletchallenge.dto.WithdrawDto;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Transaction;
+import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OutboxEventType;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionStatus;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionType;
+import org.mhejaju.digitalwalletchallenge.exceptions.CustomerNotFoundException;
+import org.mhejaju.digitalwalletchallenge.exceptions.InsufficientFundsException;
+import org.mhejaju.digitalwalletchallenge.exceptions.VelocityLimitExceededException;
+import org.mhejaju.digitalwalletchallenge.exceptions.WalletNotAvailableException;
+import org.mhejaju.digitalwalletchallenge.exceptions.WalletNotFoundException;
+import org.mhejaju.digitalwalletchallenge.mapper.TransactionMapper;
+import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.OutboxEventRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.TransactionRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.TransactionStatusChange;
+import org.mhejaju.digitalwalletchallenge.services.BatchTransactionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Applies deposits, withdrawals and status changes in chunks, each chunk in its own database transaction. Within a
+ * chunk the items of a wallet are folded into a single balance UPDATE and new transactions are inserted with one
+ * {@code saveAll}, so that the inserts go out as JDBC batches.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchTransactionServiceImpl implements BatchTransactionService {
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final CustomerRepository customerRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApprovalRules approvalRules;
+    private final WalletCurrencyCache walletCurrencies;
+    private final VelocityLimiter velocityLimiter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${wallet.batch.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Override
+    public BatchTransactionResponseDto makeDeposits(List<DepositDto> deposits, Customer customer) {
+        return processInChunks(deposits, chunk -> depositChunk(chunk, customer));
+    }
+
+    @Override
+    public BatchTransactionResponseDto makeDeposits(List<DepositDto> deposits, String customerTrIdentityNo) {
+        return makeDeposits(deposits, findCustomer(customerTrIdentityNo));
+    }
+
+    @Override
+    public BatchTransactionResponseDto withdraw(List<WithdrawDto> withdrawals, Customer customer) {
+        return processInChunks(withdrawals, chunk -> withdrawChunk(chunk, customer));
+    }
+
+    @Override
+    public BatchTransactionResponseDto withdraw(List<WithdrawDto> withdrawals, String customerTrIdentityNo) {
+        return withdraw(withdrawals, findCustomer(customerTrIdentityNo));
+    }
+
+    @Override
+    public BulkTransactionStatusChangeResponseDto changeTransactionStatuses(BulkTransactionStatusChangeRequestDto changeRequest) {
+        TransactionStatus status = TransactionStatus.valueOf(changeRequest.status());
+        // an id listed twice is settled once, the repeated occurrence is dropped here
+        List<String> transactionIds = List.copyOf(new LinkedHashSet<>(changeRequest.transactionIds()));
+        List<String> skipped = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        int changed = 0;
+
+        for (int offset = 0; offset < transactionIds.size(); offset += chunkSize) {
+            List<String> chunk = transactionIds.subList(offset, Math.min(offset + chunkSize, transactionIds.size()));
+            try {
+                Set<String> settled = transactionTemplate.execute(txStatus -> settleChunk(chunk, status));
+                changed += settled.size();
+                chunk.stream().filter(transactionId -> !settled.contains(transactionId)).forEach(skipped::add);
+            } catch (RuntimeException e) {
+                failed.addAll(chunk);
+            }
+        }
+
+        return BulkTransactionStatusChangeResponseDto.builder()
+                .status(status.name())
+                .changed(changed)
+                .skippedTransactionIds(skipped)
+                .failedTransactionIds(failed)
+                .build();
+    }
+
+    private <T> BatchTransactionResponseDto processInChunks(List<T> items, Function<List<T>, Outcome[]> chunkHandler) {
+        List<BatchItemResultDto> results = new ArrayList<>(items.size());
+        int succeeded = 0;
+
+        for (int offset = 0; offset < items.size(); offset += chunkSize) {
+            List<T> chunk = items.subList(offset, Math.min(offset + chunkSize, items.size()));
+            Outcome[] outcomes;
+            try {
+                outcomes = transactionTemplate.execute(status -> chunkHandler.apply(chunk));
+            } catch (RuntimeException e) {
+                // the chunk was rolled back as a whole, so none of its items were applied
+                outcomes = new Outcome[chunk.size()];
+                for (int i = 0; i < outcomes.length; i++) {
+                    outcomes[i] = Outcome.failed(e);
+                }
+            }
+
+            for (int i = 0; i < outcomes.length; i++) {
+                Outcome outcome = outcomes[i];
+                results.add(BatchItemResultDto.builder()
+                        .index(offset + i)
+                        .succeeded(outcome.transaction() != null)
+                        .transaction(outcome.transaction() == null ? null
+                                : TransactionMapper.mapToTransactionResponseDto(outcome.transaction(), outcome.walletId()))
+                        .error(outcome.error() == null ? null : outcome.error().getMessage())
+                        .build());
+                if (outcome.transaction() != null) {
+                    succeeded++;
+                }
+            }
+        }
+
+        return BatchTransactionResponseDto.builder()
+                .succeeded(succeeded)
+                .failed(items.size() - succeeded)
+                .results(results)
+                .build();
+    }
+
+    // also used by WalletSequencer, runs inside the caller's transaction
+    Outcome[] depositChunk(List<DepositDto> chunk, Customer customer) {
+        Outcome[] outcomes = new Outcome[chunk.size()];
+        Transaction[] mapped = new Transaction[chunk.size()];
+        List<Transaction> transactions = new ArrayList<>(chunk.size());
+
+        groupByWallet(chunk, DepositDto::walletId).forEach((walletId, positions) -> {
+            Currency currency = walletCurrencies.currencyOf(walletId);
+            // folded as long minor units rather than BigDecimal sums
+            long amount = 0;
+            long usableAmount = 0;
+            for (int position : positions) {
+                Transaction transaction = mapped[position] = TransactionMapper.mapToTransaction(chunk.get(position));
+                long itemAmount = transaction.getAmount().minorUnits();
+                amount = Math.addExact(amount, itemAmount);
+                if (decideApproval(transaction, currency, customer)) {
+                    usableAmount = Math.addExact(usableAmount, itemAmount);
+                }
+            }
+
+            Optional<Long> walletPk = walletRepository.creditIfOwned(walletId, customer.getId(), amount, usableAmount);
+            if (walletPk.isEmpty()) {
+                fail(outcomes, positions, new WalletNotFoundException(customer.getTrIdentityNo(), walletId));
+                return;
+            }
+
+            Wallet wallet = walletRepository.getReferenceById(walletPk.get());
+            for (int position : positions) {
+                outcomes[position] = record(mapped[position], wallet, walletId, transactions);
+            }
+        });
+
+        transactionRepository.saveAll(transactions);
+        postCreated(transactions);
+        return outcomes;
+    }
+
+    Outcome[] withdrawChunk(List<WithdrawDto> chunk, Customer customer) {
+        Outcome[] outcomes = new Outcome[chunk.size()];
+        Transaction[] mapped = new Transaction[chunk.size()];
+        VelocityLimiter.Reservation[] reservations = new VelocityLimiter.Reservation[chunk.size()];
+        List<Transaction> transactions = new ArrayList<>(chunk.size());
+
+        groupByWallet(chunk, WithdrawDto::walletId).forEach((walletId, positions) -> {
+            Currency currency = walletCurrencies.currencyOf(walletId);
+            List<Integer> admitted = new ArrayList<>(positions.size());
+            long amount = 0;
+            long settledAmount = 0;
+            for (int position : positions) {
+                Transaction transaction = mapped[position] = TransactionMapper.mapToTransaction(chunk.get(position));
+                // items over the velocity limits fail on their own and are left out of the wallet's UPDATE
+                try {
+                    reservations[position] = velocityLimiter.reserve(walletId, customer.getId(), transaction.getAmount());
+                } catch (VelocityLimitExceededException e) {
+                    outcomes[position] = Outcome.failed(e);
+                    continue;
+                }
+                admitted.add(position);
+                long itemAmount = transaction.getAmount().minorUnits();
+                amount = Math.addExact(amount, itemAmount);
+                if (decideApproval(transaction, currency, customer)) {
+                    settledAmount = Math.addExact(settledAmount, itemAmount);
+                }
+            }
+            if (admitted.isEmpty()) {
+                return;
+            }
+
+            Optional<Long> walletPk = walletRepository.debitIfAvailable(walletId, customer.getId(), amount, settledAmount);
+            if (walletPk.isPresent()) {
+                Wallet wallet = walletRepository.getReferenceById(walletPk.get());
+                for (int position : admitted) {
+                    outcomes[position] = record(mapped[position], wallet, walletId, transactions);
+                }
+                return;
+            }
+
+            RuntimeException rejection = withdrawRejection(walletId, customer);
+            if (!(rejection instanceof InsufficientFundsException)) {
+                for (int position : admitted) {
+                    reservations[position].release();
+                }
+                fail(outcomes, admitted, rejection);
+                return;
+            }
+
+            // the wallet cannot cover the whole group, so apply the withdrawals one by one in request order
+            for (int position : admitted) {
+                Transaction transaction = mapped[position];
+                long itemAmount = transaction.getAmount().minorUnits();
+                Optional<Long> itemWalletPk = walletRepository.debitIfAvailable(walletId, customer.getId(),
+                        itemAmount, transaction.getStatus() == TransactionStatus.APPROVED ? itemAmount : 0);
+                if (itemWalletPk.isEmpty()) {
+                    reservations[position].release();
+                    outcomes[position] = Outcome.failed(rejection);
+                } else {
+                    outcomes[position] = record(transaction, walletRepository.getReferenceById(itemWalletPk.get()),
+                            walletId, transactions);
+                }
+            }
+        });
+
+        transactionRepository.saveAll(transactions);
+        postCreated(transactions);
+        return outcomes;
+    }
+
+    private Set<String> settleChunk(List<String> transactionIds, TransactionStatus status) {
+        // the wallets are locked in id order before the transaction rows, as a single status change does, so bulk and
+        // single settlements of the same wallets cannot deadlock on each other
+        walletRepository.lockWalletsOfTransactions(transactionIds);
+        List<TransactionStatusChange> changes = transactionRepository.settlePending(transactionIds, status.name());
+
+        SortedMap<Long, BalanceDelta> deltas = new TreeMap<>();
+        Set<String> settled = new HashSet<>();
+        List<Long> settledIds = new ArrayList<>(changes.size());
+        for (TransactionStatusChange change : changes) {
+            deltas.merge(change.getWalletId(), BalanceDelta.of(change, status), BalanceDelta::plus);
+            settled.add(change.getTransactionId());
+            settledIds.add(change.getId());
+        }
+
+        deltas.forEach((walletPk, delta) ->
+                walletRepository.applyBalanceDelta(walletPk, delta.balance(), delta.usableBalance()));
+        if (!settledIds.isEmpty()) {
+            ledgerEntryRepository.postSettled(settledIds);
+            outboxEventRepository.record(OutboxEventType.TRANSACTION_STATUS_CHANGED.name(), settledIds);
+        }
+        return settled;
+    }
+
+    // wallets are visited in walletId order so that concurrent batches lock the wallet rows in the same order
+    private <T> SortedMap<String, List<Integer>> groupByWallet(List<T> chunk, Function<T, String> walletId) {
+        SortedMap<String, List<Integer>> positionsByWallet = new TreeMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            positionsByWallet.computeIfAbsent(walletId.apply(chunk.get(i)), key -> new ArrayList<>()).add(i);
+        }
+        return positionsByWallet;
+    }
+
+    private Outcome record(Transaction transaction, Wallet wallet, String walletId, List<Transaction> transactions) {
+        transaction.setWallet(wallet);
+        transactions.add(transaction);
+        return new Outcome(transaction, walletId, null);
+    }
+
+    // posted after the wallets of the chunk have been updated, see LedgerEntryRepository
+    private void postCreated(List<Transaction> transactions) {
+        if (!transactions.isEmpty()) {
+            List<Long> transactionIds = transactions.stream().map(Transaction::getId).toList();
+            ledgerEntryRepository.postCreated(transactionIds);
+            outboxEventRepository.record(OutboxEventType.TRANSACTION_CREATED.name(), transactionIds);
+        }
+    }
+
+    private void fail(Outcome[] outcomes, List<Integer> positions, RuntimeException error) {
+        for (int position : positions) {
+            outcomes[position] = Outcome.failed(error);
+        }
+    }
+
+    // same checks and messages as a single withdrawal, evaluated once per wallet
+    private RuntimeException withdrawRejection(String walletId, Customer customer) {
+        Optional<Wallet> optionalWallet = walletRepository.findByWalletId(walletId);
+        if (optionalWallet.isEmpty() || optionalWallet.get().getCustomer().getId() != customer.getId()) {
+            return new WalletNotFoundException(customer.getTrIdentityNo(), walletId);
+        }
+
+        Wallet targetWallet = optionalWallet.get();
+
+        if (!targetWallet.isActiveForWithdraw()) {
+            return new WalletNotAvailableException(targetWallet.getWalletId(), "Withdraw");
+        }
+
+        if (!targetWallet.isActiveForShopping()) {
+            return new WalletNotAvailableException(targetWallet.getWalletId(), "Shopping");
+        }
+
+        return new InsufficientFundsException("Not enough funds available in the wallet");
+    }
+
+    // sets the status the transaction is created with and tells whether it is approved right away
+    private boolean decideApproval(Transaction transaction, Currency currency, Customer customer) {
+        boolean approved = !approvalRules.requiresApproval(currency, transaction.getOppositePartyType(),
+                customer.getTier(), transaction.getAmount());
+        transaction.setStatus(approved ? TransactionStatus.APPROVED : TransactionStatus.PENDING);
+        return approved;
+    }
+
+    private Customer findCustomer(String customerTrIdentityNo) {
+        return customerRepository.findByTrIdentityNo(customerTrIdentityNo)
+                .orElseThrow(() -> new CustomerNotFoundException(customerTrIdentityNo));
+    }
+
+    // in minor units
+    private record BalanceDelta(long balance, long usableBalance) {
+        // mirrors the single transaction status change: an approved deposit releases the usable balance, an approved
+        // withdrawal settles the balance, and a denial reverts whichever of the two was applied up front
+        static BalanceDelta of(TransactionStatusChange change, TransactionStatus status) {
+            boolean deposit = TransactionType.DEPOSIT.name().equals(change.getType());
+            if (status == TransactionStatus.APPROVED) {
+                return deposit
+                        ? new BalanceDelta(0, change.getAmount())
+                        : new BalanceDelta(-change.getAmount(), 0);
+            }
+            return deposit
+                    ? new BalanceDelta(-change.getAmount(), 0)
+                    : new BalanceDelta(0, change.getAmount());
+        }
+
+        BalanceDelta plus(BalanceDelta other) {
+            return new BalanceDelta(Math.addExact(balance, other.balance),
+                    Math.addExact(usableBalance, other.usableBalance));
+        }
+    }
+
+    record Outcome(Transaction transaction, String walletId, RuntimeException error) {
+        static Outcome failed(RuntimeException error) {
+            return new Outcome(null, null, error);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.events.CustomerChangedEvent;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded (W-TinyLFU) and time-bounded cache in front of the customer lookup done by the auth filter.
+ * Entries are evicted after the transaction that changed the customer commits; failed lookups are not cached.
+ * The lookup runs outside of the cache's compute lock, which is a {@code synchronized} block that would pin the
+ * carrier thread for the whole database round trip when requests run on virtual threads. Every eviction bumps a
+ * generation, and a loaded customer is only cached if no eviction happened since its lookup started, so a snapshot
+ * read before a change cannot be put back after the change evicted it.
+ */
+public class CachingUserDetailsService implements UserDetailsService {
+
+    private final UserDetailsService delegate;
+    private final Cache<String, UserDetails> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public CachingUserDetailsService(UserDetailsService delegate, long maximumSize, Duration ttl) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) {
+        UserDetails cached = cache.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        // concurrent misses for the same customer may both load it, the last one wins
+        long loadGeneration = generation.get();
+        UserDetails loaded = snapshot(delegate.loadUserByUsername(username));
+        // compared under the entry's lock, which evict's invalidate also takes after bumping the generation
+        cache.asMap().compute(username, (key, current) -> generation.get() == loadGeneration ? loaded : current);
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        evict(event.email());
+    }
+
+    public void evict(String username) {
+        generation.incrementAndGet();
+        cache.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public Cache<String, UserDetails> getCache() {
+        return cache;
+    }
+
+    // the cached instance is shared between requests, so it must not hold on to a persistence context
+    private static UserDetails snapshot(UserDetails userDetails) {
+        if (!(userDetails instanceof Customer customer)) {
+            return userDetails;
+        }
+
+        Customer copy = new Customer();
+        copy.setId(customer.getId());
+        copy.setName(customer.getName());
+        copy.setSurname(customer.getSurname());
+        copy.setTrIdentityNo(customer.getTrIdentityNo());
+        copy.setEmail(customer.getEmail());
+        copy.setPassword(customer.getPassword());
+        copy.setRole(customer.getRole());
+        copy.setTier(customer.getTier());
+        return copy;
+    }
+}
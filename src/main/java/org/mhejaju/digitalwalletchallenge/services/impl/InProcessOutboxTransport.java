@@ -0,0 +1,28 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.mhejaju.digitalwalletchallenge.events.OutboxConsumer;
+import org.mhejaju.digitalwalletchallenge.events.OutboxMessage;
+import org.mhejaju.digitalwalletchallenge.services.OutboxTransport;
+
+import java.util.List;
+
+/**
+ * Default transport: passes every message to each {@link OutboxConsumer} bean of this application, in order.
+ */
+public class InProcessOutboxTransport implements OutboxTransport {
+
+    private final List<OutboxConsumer> consumers;
+
+    public InProcessOutboxTransport(List<OutboxConsumer> consumers) {
+        this.consumers = consumers;
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            for (OutboxConsumer consumer : consumers) {
+                consumer.consume(message);
+            }
+        }
+    }
+}
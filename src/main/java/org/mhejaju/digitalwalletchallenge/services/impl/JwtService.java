@@ -1,11 +1,17 @@
 package org.mhejaju.digitalwalletchallenge.services.impl;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.enums.CustomerTier;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
@@ -14,14 +20,22 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Function;
 
 @RequiredArgsConstructor
 @Service
 public class JwtService {
 
+    public static final String ROLES_CLAIM = "roles";
+    public static final String CUSTOMER_ID_CLAIM = "cid";
+    public static final String TR_IDENTITY_NO_CLAIM = "tckn";
+    public static final String TIER_CLAIM = "tier";
+    private static final String ROLE_PREFIX = "ROLE_";
+
     private final UserDetailsService userDetailsService;
 
     @Value("${jwt.secret}")
@@ -30,6 +44,18 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private int expiration;
 
+    // both are immutable and thread-safe, so they are built once instead of on every sign/parse
+    private SecretKey signInKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(JWT_SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signInKey)
+                .build();
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -45,9 +71,16 @@ public class JwtService {
 
     public String generateToken(Map<String, Objects> extraClaims,
                                 UserDetails userDetails) {
-        return Jwts.builder().issuer("Digital Wallet")
+        var builder = Jwts.builder().issuer("Digital Wallet")
                 .subject(userDetails.getUsername())
-                .claim("roles", userDetails.getUsername())
+                .claim(ROLES_CLAIM, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        if (userDetails instanceof Customer customer) {
+            // lets the filter build the principal without a database lookup when stateless authentication is on
+            builder.claim(CUSTOMER_ID_CLAIM, customer.getId())
+                    .claim(TR_IDENTITY_NO_CLAIM, customer.getTrIdentityNo())
+                    .claim(TIER_CLAIM, customer.getTier().name());
+        }
+        return builder
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(getSignInKey())
@@ -57,28 +90,56 @@ public class JwtService {
 
 
     public SecretKey getSignInKey() {
-        return Keys.hmacShaKeyFor(JWT_SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        return signInKey;
     }
 
     public Boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(extractAllClaims(token), userDetails);
+    }
+
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
     public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date(System.currentTimeMillis()));
+        return isTokenExpired(extractAllClaims(token));
+    }
+
+    public boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date(System.currentTimeMillis()));
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Verifies the signature and parses the token once; callers should reuse the returned claims
+     * instead of going through the String based helpers, each of which parses the token again.
+     */
+    public Claims extractAllClaims(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Builds a detached principal from the signed claims alone. Empty for tokens that were issued
+     * before the customer claims were added, in which case the caller has to load the customer.
+     */
+    public Optional<Customer> extractCustomer(Claims claims) {
+        Long customerId = claims.get(CUSTOMER_ID_CLAIM, Long.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (customerId == null || roles == null || roles.size() != 1
+                || !String.valueOf(roles.get(0)).startsWith(ROLE_PREFIX)) {
+            return Optional.empty();
+        }
+
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        customer.setEmail(claims.getSubject());
+        customer.setTrIdentityNo(claims.get(TR_IDENTITY_NO_CLAIM, String.class));
+        customer.setRole(Role.valueOf(String.valueOf(roles.get(0)).substring(ROLE_PREFIX.length())));
+        // tokens issued before the tier claim get the default tier, the revocation check rejects them for other tiers
+        String tier = claims.get(TIER_CLAIM, String.class);
+        if (tier != null) {
+            customer.setTier(CustomerTier.valueOf(tier));
+        }
+        return Optional.of(customer);
     }
 
     public String generateRefresh(Map<String, Objects> extraClaims, UserDetails userDetails) {
@@ -97,10 +158,11 @@ public class JwtService {
     }
 
     public Boolean validateToken(String token) {
-        String userEmail = extractUsername(token);
-        if (userEmail != null && !isTokenExpired(token)) {
+        Claims claims = extractAllClaims(token);
+        String userEmail = claims.getSubject();
+        if (userEmail != null && !isTokenExpired(claims)) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            return isTokenValid(token, userDetails);
+            return isTokenValid(claims, userDetails);
         }
 
         return false;
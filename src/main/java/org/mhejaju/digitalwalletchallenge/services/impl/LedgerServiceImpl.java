@@ -0,0 +1,66 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.mhejaju.digitalwalletchallenge.dto.LedgerBalanceDto;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.exceptions.ResourceNotFoundException;
+import org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.LedgerBalance;
+import org.mhejaju.digitalwalletchallenge.services.LedgerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Rebuilds wallet balances from the ledger and takes the periodic snapshots that bound the rebuild to the entries
+ * posted since the latest snapshot.
+ */
+@Service
+@RequiredArgsConstructor
+public class LedgerServiceImpl implements LedgerService {
+
+    // upper bound for the current balance, every entry visible to the transaction is replayed
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T23:59:59Z");
+
+    private final WalletRepository walletRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+
+    @Value("${wallet.ledger.snapshot-min-entries:1000}")
+    private int snapshotMinEntries = 1000;
+
+    // repeatable read, so the wallet row and the ledger entries are read from the same database snapshot
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public LedgerBalanceDto getBalance(String walletId, Instant at) {
+        Wallet wallet = walletRepository.findByWalletId(walletId).orElseThrow(() ->
+                new ResourceNotFoundException(String.format("No wallet with id: %s found", walletId)));
+
+        LedgerBalance rebuilt = ledgerEntryRepository.rebuildBalance(wallet.getId(), at == null ? END_OF_TIME : at);
+        Money balance = Money.ofMinor(rebuilt.getAvailable() + rebuilt.getPending());
+        Money usableBalance = Money.ofMinor(rebuilt.getAvailable());
+
+        return LedgerBalanceDto.builder()
+                .walletId(walletId)
+                .at(at)
+                .balance(balance.toBigDecimal())
+                .usableBalance(usableBalance.toBigDecimal())
+                .replayedEntries(rebuilt.getReplayedEntries())
+                .matchesWallet(at != null ? null
+                        : balance.equals(wallet.getBalance()) && usableBalance.equals(wallet.getUsableBalance()))
+                .build();
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${wallet.ledger.snapshot-interval-ms:60000}",
+            initialDelayString = "${wallet.ledger.snapshot-interval-ms:60000}")
+    public int takeSnapshots() {
+        return ledgerEntryRepository.takeSnapshots(snapshotMinEntries);
+    }
+}
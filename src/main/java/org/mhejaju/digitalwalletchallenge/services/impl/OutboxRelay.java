@@ -0,0 +1,119 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.mhejaju.digitalwalletchallenge.entities.OutboxEvent;
+import org.mhejaju.digitalwalletchallenge.events.OutboxMessage;
+import org.mhejaju.digitalwalletchallenge.repositories.OutboxEventRepository;
+import org.mhejaju.digitalwalletchallenge.services.OutboxTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Polls the outbox and publishes the oldest events in batches through the {@link OutboxTransport}. Each batch is read,
+ * published and deleted in one database transaction, so a failed publish leaves the batch in place. The events of a
+ * failed batch are then published one at a time up to the one that fails, which gets the failure recorded and is
+ * retried with a doubling delay. Until then its wallet's events are skipped while the other wallets' events go on;
+ * after {@code wallet.outbox.max-attempts} failures it is moved to {@code outbox_dead_letter} so the events of its
+ * wallet behind it can go out. Only one instance relays at a time, which keeps the per-wallet order across instances,
+ * dead-lettered events aside.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+    static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxTransport outboxTransport;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${wallet.outbox.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${wallet.outbox.max-attempts:10}")
+    private int maxAttempts = 10;
+
+    @Value("${wallet.outbox.retry-backoff:1s}")
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    @Value("${wallet.outbox.max-backoff:5m}")
+    private Duration maxBackoff = Duration.ofMinutes(5);
+
+    @Scheduled(fixedDelayString = "${wallet.outbox.poll-interval-ms:200}")
+    public void relay() {
+        // keeps going while the outbox returns full batches, so a backlog drains without waiting for the next poll
+        Integer published;
+        do {
+            try {
+                published = transactionTemplate.execute(status -> relayBatch(batchSize, new AtomicReference<>()));
+            } catch (RuntimeException e) {
+                relayOneByOne();
+                return;
+            }
+        } while (published != null && published == batchSize);
+    }
+
+    // the failing event is among the first batchSize, everything before it still goes out
+    private void relayOneByOne() {
+        AtomicReference<OutboxEvent> head = new AtomicReference<>();
+        try {
+            for (int i = 0; i < batchSize; i++) {
+                head.set(null);
+                Integer published = transactionTemplate.execute(status -> relayBatch(1, head));
+                if (published == null || published == 0) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            OutboxEvent failed = head.get();
+            if (failed != null) {
+                transactionTemplate.executeWithoutResult(status -> recordFailure(failed, e));
+            }
+        }
+    }
+
+    private int relayBatch(int limit, AtomicReference<OutboxEvent> head) {
+        if (!outboxEventRepository.tryRelayLock(RELAY_LOCK_KEY)) {
+            return 0;
+        }
+
+        List<OutboxEvent> events = outboxEventRepository.findOldestDue(limit);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        head.set(events.getFirst());
+        outboxTransport.publish(events.stream().map(OutboxMessage::of).toList());
+        outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+        return events.size();
+    }
+
+    private void recordFailure(OutboxEvent event, RuntimeException failure) {
+        if (!outboxEventRepository.tryRelayLock(RELAY_LOCK_KEY)) {
+            return;
+        }
+
+        int attempts = event.getAttempts() + 1;
+        String lastError = String.valueOf(failure);
+        if (lastError.length() > MAX_ERROR_LENGTH) {
+            lastError = lastError.substring(0, MAX_ERROR_LENGTH);
+        }
+        outboxEventRepository.recordFailure(event.getId(), lastError, Instant.now().plus(backoff(attempts)));
+        if (attempts >= maxAttempts) {
+            outboxEventRepository.moveToDeadLetter(event.getId());
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
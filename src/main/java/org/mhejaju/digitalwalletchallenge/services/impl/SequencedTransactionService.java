@@ -0,0 +1,95 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.mhejaju.digitalwalletchallenge.config.TimedOperation;
+import org.mhejaju.digitalwalletchallenge.dto.*;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.exceptions.CustomerNotFoundException;
+import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.services.TransactionService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Replaces {@link TransactionServiceImpl} when {@code wallet.sequencer.enabled} is set: deposits and withdrawals are
+ * handed to the {@link WalletSequencer} and the caller waits for its lane, everything else is delegated unchanged.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "wallet.sequencer.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class SequencedTransactionService implements TransactionService {
+
+    private final TransactionServiceImpl transactionService;
+    private final WalletSequencer walletSequencer;
+    private final CustomerRepository customerRepository;
+
+    @Override
+    @TimedOperation("deposit")
+    public TransactionResponseDto makeDeposit(DepositDto depositDto, Customer customer) {
+        return walletSequencer.await(walletSequencer.deposit(depositDto, customer));
+    }
+
+    @Override
+    @TimedOperation("deposit")
+    public TransactionResponseDto makeDeposit(DepositDto depositDto, String customerTrIdentityNo) {
+        return makeDeposit(depositDto, findCustomer(customerTrIdentityNo));
+    }
+
+    @Override
+    @TimedOperation("withdraw")
+    public TransactionResponseDto withdraw(WithdrawDto withdrawDto, Customer customer) {
+        return walletSequencer.await(walletSequencer.withdraw(withdrawDto, customer));
+    }
+
+    @Override
+    @TimedOperation("withdraw")
+    public TransactionResponseDto withdraw(WithdrawDto withdrawDto, String customerTrIdentityNo) {
+        return withdraw(withdrawDto, findCustomer(customerTrIdentityNo));
+    }
+
+    @Override
+    public WalletTransactionListResponseDto getTransactions(Customer customer, String walletId, int limit, String after) {
+        return transactionService.getTransactions(customer, walletId, limit, after);
+    }
+
+    @Override
+    public WalletTransactionListResponseDto getTransactions(String customerTrIdentityNo, String walletId,
+                                                            int limit, String after) {
+        return transactionService.getTransactions(customerTrIdentityNo, walletId, limit, after);
+    }
+
+    @Override
+    public long getOwnedWalletDbId(Customer customer, String walletId) {
+        return transactionService.getOwnedWalletDbId(customer, walletId);
+    }
+
+    @Override
+    public long getOwnedWalletDbId(String customerTrIdentityNo, String walletId) {
+        return transactionService.getOwnedWalletDbId(customerTrIdentityNo, walletId);
+    }
+
+    @Override
+    public void exportTransactions(long walletDbId, String walletId, OutputStream outputStream) throws IOException {
+        transactionService.exportTransactions(walletDbId, walletId, outputStream);
+    }
+
+    @Override
+    public void changeTransactionStatus(Customer customer, TransactionStatusChangeRequestDto changeRequest) {
+        transactionService.changeTransactionStatus(customer, changeRequest);
+    }
+
+    @Override
+    public void changeTransactionStatus(String customerTrIdentityNo, TransactionStatusChangeRequestDto changeRequest) {
+        transactionService.changeTransactionStatus(customerTrIdentityNo, changeRequest);
+    }
+
+    private Customer findCustomer(String customerTrIdentityNo) {
+        return customerRepository.findByTrIdentityNo(customerTrIdentityNo)
+                .orElseThrow(() -> new CustomerNotFoundException(customerTrIdentityNo));
+    }
+}
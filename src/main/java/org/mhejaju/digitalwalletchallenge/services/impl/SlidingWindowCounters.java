@@ -0,0 +1,230 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Event count and amount per key over a sliding window, kept in memory. The window is split into a ring of time
+ * buckets, so it slides one bucket at a time and expired buckets are reused rather than cleaned up. Keys are spread
+ * over lock stripes. Once a stripe holds {@code maxKeys / stripes} keys, adding a key first drops the least recently
+ * used keys that have no event left in the window, so memory stays around {@code maxKeys * buckets * 20} bytes. A key
+ * with events in the window is never dropped, as that would hand it its full allowance back: a stripe full of active
+ * keys grows past its share instead. The stripes use {@link ReentrantLock} rather than {@code synchronized}, which
+ * would pin the carrier thread of a virtual thread.
+ */
+public final class SlidingWindowCounters<K> {
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final Stripe<K>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public SlidingWindowCounters(Duration window, int buckets, int stripes, int maxKeys) {
+        this.buckets = buckets;
+        this.bucketMillis = Math.max(1, window.toMillis() / buckets);
+        this.stripes = new Stripe[stripes];
+        int maxKeysPerStripe = Math.max(1, maxKeys / stripes);
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe<>(maxKeysPerStripe);
+        }
+    }
+
+    /**
+     * Records one event of {@code amount} at {@code nowMillis}, unless the key would then have more than
+     * {@code maxCount} events or more than {@code maxAmount} in total within the window. A cap of 0 is not checked.
+     *
+     * @return whether the event was recorded
+     */
+    public boolean tryAdd(K key, long amount, long nowMillis, long maxCount, long maxAmount) {
+        Stripe<K> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            long epoch = nowMillis / bucketMillis;
+            Window window = stripe.windowFor(key, epoch, buckets);
+            if (maxCount > 0 && window.count(epoch) + 1 > maxCount
+                    || maxAmount > 0 && window.amount(epoch) + amount > maxAmount) {
+                return false;
+            }
+            window.add(epoch, 1, amount);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Records an event that already happened without checking any cap, as when rebuilding the counters. Events that
+     * are already outside the window are ignored.
+     */
+    public void add(K key, long amount, long atMillis, long nowMillis) {
+        long epoch = atMillis / bucketMillis;
+        long nowEpoch = nowMillis / bucketMillis;
+        if (epoch <= nowEpoch - buckets) {
+            return;
+        }
+        Stripe<K> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            stripe.windowFor(key, nowEpoch, buckets).add(epoch, 1, amount);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Takes back an event recorded at {@code atMillis}. Nothing is taken back once its bucket has been reused.
+     */
+    public void remove(K key, long amount, long atMillis) {
+        Stripe<K> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Window window = stripe.windows.get(key);
+            if (window != null) {
+                window.remove(atMillis / bucketMillis, amount);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public long count(K key, long nowMillis) {
+        Stripe<K> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Window window = stripe.windows.get(key);
+            return window == null ? 0 : window.count(nowMillis / bucketMillis);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public long amount(K key, long nowMillis) {
+        Stripe<K> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Window window = stripe.windows.get(key);
+            return window == null ? 0 : window.amount(nowMillis / bucketMillis);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<K> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.windows.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Stripe<K> stripe(K key) {
+        int hash = key.hashCode();
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+
+    private static final class Stripe<K> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        // access order, so the keys checked for eviction first are the ones that have been idle the longest
+        private final Map<K, Window> windows = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maxKeys;
+
+        Stripe(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        Window windowFor(K key, long nowEpoch, int buckets) {
+            Window window = windows.get(key);
+            if (window == null) {
+                evictExpired(nowEpoch);
+                window = new Window(buckets);
+                windows.put(key, window);
+            }
+            return window;
+        }
+
+        // stops at the first key still active: every key after it was used more recently
+        private void evictExpired(long nowEpoch) {
+            Iterator<Window> iterator = windows.values().iterator();
+            while (windows.size() >= maxKeys && iterator.hasNext() && iterator.next().isExpired(nowEpoch)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // bucket i holds the events of epochs[i], a bucket whose epoch left the window counts as empty
+    private static final class Window {
+
+        private final long[] epochs;
+        private final int[] counts;
+        private final long[] amounts;
+
+        Window(int buckets) {
+            this.epochs = new long[buckets];
+            this.counts = new int[buckets];
+            this.amounts = new long[buckets];
+            Arrays.fill(epochs, Long.MIN_VALUE);
+        }
+
+        void add(long epoch, int count, long amount) {
+            int bucket = (int) Math.floorMod(epoch, (long) epochs.length);
+            if (epochs[bucket] != epoch) {
+                if (epochs[bucket] > epoch) {
+                    // older than what the bucket holds now, so already outside the window
+                    return;
+                }
+                epochs[bucket] = epoch;
+                counts[bucket] = 0;
+                amounts[bucket] = 0;
+            }
+            counts[bucket] += count;
+            amounts[bucket] = Math.addExact(amounts[bucket], amount);
+        }
+
+        void remove(long epoch, long amount) {
+            int bucket = (int) Math.floorMod(epoch, (long) epochs.length);
+            if (epochs[bucket] == epoch) {
+                counts[bucket] = Math.max(0, counts[bucket] - 1);
+                amounts[bucket] = Math.max(0, amounts[bucket] - amount);
+            }
+        }
+
+        boolean isExpired(long nowEpoch) {
+            for (long epoch : epochs) {
+                if (epoch > nowEpoch - epochs.length) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long count(long nowEpoch) {
+            long count = 0;
+            for (int i = 0; i < epochs.length; i++) {
+                if (epochs[i] > nowEpoch - epochs.length) {
+                    count += counts[i];
+                }
+            }
+            return count;
+        }
+
+        long amount(long nowEpoch) {
+            long amount = 0;
+            for (int i = 0; i < epochs.length; i++) {
+                if (epochs[i] > nowEpoch - epochs.length) {
+                    amount += amounts[i];
+                }
+            }
+            return amount;
+        }
+    }
+}
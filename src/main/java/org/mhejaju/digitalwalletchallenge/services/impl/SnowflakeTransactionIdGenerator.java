@@ -0,0 +1,68 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.mhejaju.digitalwalletchallenge.services.TransactionIdGenerator;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free, time-ordered id generator. Each id packs 41 bits of milliseconds since 2024-01-01, a 10 bit node id
+ * and a 12 bit per-millisecond sequence into a positive long, rendered as 13 fixed-width Crockford base32
+ * characters, so ids sort lexicographically in generation order and append to the right of the unique index.
+ * <p>
+ * Ids are unique as long as every node runs with its own node id. When more than 4096 ids are requested within
+ * one millisecond, or the wall clock moves backwards, the generator keeps counting from the last issued id
+ * instead of blocking.
+ */
+public class SnowflakeTransactionIdGenerator implements TransactionIdGenerator {
+
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    static final int ID_LENGTH = 13;
+    private static final char[] CROCKFORD_BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+
+    // (milliseconds since epoch << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong lastState = new AtomicLong();
+
+    public SnowflakeTransactionIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeTransactionIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException(
+                    String.format("Transaction id node id must be between 0 and %d, was %d", MAX_NODE_ID, nodeId));
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    @Override
+    public String nextId() {
+        return encode(nextLongId());
+    }
+
+    long nextLongId() {
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        // a sequence overflow carries into the timestamp, i.e. borrows the next millisecond
+        long state = lastState.updateAndGet(last -> Math.max(last + 1, now));
+        long timestamp = state >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (state & SEQUENCE_MASK);
+    }
+
+    static String encode(long id) {
+        char[] chars = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD_BASE32[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
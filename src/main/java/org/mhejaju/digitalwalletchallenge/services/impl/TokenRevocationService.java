@@ -0,0 +1,57 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.CustomerAccess;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation check for principals built from token claims: a token is rejected once its customer has been
+ * removed or its role or tier no longer matches, the tier deciding which approval rules apply to its transactions.
+ * Both are looked up at most once per customer per {@code jwt.stateless.revocation-check-ttl}; a zero TTL disables
+ * the check.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    // upper bound on remembered customers, the map is simply dropped when it is exceeded
+    private static final int MAX_TRACKED_CUSTOMERS = 100_000;
+
+    private final CustomerRepository customerRepository;
+
+    private final Map<Long, AccessCheck> accessChecks = new ConcurrentHashMap<>();
+
+    @Value("${jwt.stateless.revocation-check-ttl:30s}")
+    private Duration revocationCheckTtl = Duration.ofSeconds(30);
+
+    public boolean isRevoked(Customer principal) {
+        if (revocationCheckTtl.isZero() || revocationCheckTtl.isNegative()) {
+            return false;
+        }
+
+        long now = System.nanoTime();
+        AccessCheck check = accessChecks.get(principal.getId());
+        if (check == null || now - check.checkedAt() > revocationCheckTtl.toNanos()) {
+            if (accessChecks.size() >= MAX_TRACKED_CUSTOMERS) {
+                accessChecks.clear();
+            }
+            check = new AccessCheck(customerRepository.findAccessById(principal.getId()).orElse(null), now);
+            accessChecks.put(principal.getId(), check);
+        }
+
+        // a token issued before the tier claim carries the default tier and is rejected once the customer has another
+        return check.access() == null
+                || check.access().role() != principal.getRole()
+                || check.access().tier() != principal.getTier();
+    }
+
+    private record AccessCheck(CustomerAccess access, long checkedAt) {
+    }
+}
@@ -1,24 +1,43 @@
 package org.mhejaju.digitalwalletchallenge.services.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
+import org.mhejaju.digitalwalletchallenge.config.RetryOnConcurrencyFailure;
+import org.mhejaju.digitalwalletchallenge.config.TimedOperation;
+import org.mhejaju.digitalwalletchallenge.config.WalletConcurrencyMode;
 import org.mhejaju.digitalwalletchallenge.dto.*;
 import org.mhejaju.digitalwalletchallenge.entities.Customer;
 import org.mhejaju.digitalwalletchallenge.entities.Transaction;
 import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OutboxEventType;
 import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionStatus;
 import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionType;
 import org.mhejaju.digitalwalletchallenge.exceptions.*;
+import org.mhejaju.digitalwalletchallenge.mapper.TransactionCursorMapper;
 import org.mhejaju.digitalwalletchallenge.mapper.TransactionMapper;
 import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.OutboxEventRepository;
 import org.mhejaju.digitalwalletchallenge.repositories.TransactionRepository;
 import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.TransactionSummary;
 import org.mhejaju.digitalwalletchallenge.services.TransactionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -27,40 +46,50 @@ public class TransactionServiceImpl implements TransactionService {
     private final WalletRepository walletRepository;
     private final TransactionRepository transactionRepository;
     private final CustomerRepository customerRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApprovalRules approvalRules;
+    private final WalletCurrencyCache walletCurrencies;
+    private final VelocityLimiter velocityLimiter;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${wallet.concurrency.mode:PESSIMISTIC}")
+    private WalletConcurrencyMode concurrencyMode = WalletConcurrencyMode.PESSIMISTIC;
 
     @Override
     @Transactional
+    @TimedOperation("deposit")
     public TransactionResponseDto makeDeposit(DepositDto depositDto, Customer customer) {
-        Optional<Wallet> optionalWallet = walletRepository.findByWalletId(depositDto.walletId());
+        Transaction transaction = TransactionMapper.mapToTransaction(depositDto);
+        long amount = transaction.getAmount().minorUnits();
+        boolean approved = isAutoApproved(transaction, depositDto.walletId(), customer);
 
-        if (optionalWallet.isEmpty() || optionalWallet.get().getCustomer().getId() != customer.getId()) {
-            throw new WalletNotFoundException(customer.getTrIdentityNo(), depositDto.walletId());
-        }
-        Wallet targetWallet = optionalWallet.get();
+        // balance, usable balance and ownership are handled by a single conditional UPDATE, so concurrent
+        // deposits never read-modify-write the wallet and the wallet entity is never loaded
+        Long walletPk = walletRepository.creditIfOwned(depositDto.walletId(), customer.getId(),
+                        amount, approved ? amount : 0)
+                .orElseThrow(() -> new WalletNotFoundException(customer.getTrIdentityNo(), depositDto.walletId()));
 
-        targetWallet.setBalance(targetWallet.getBalance().add(depositDto.amount()));
-        Transaction transaction = TransactionMapper.mapToTransaction(depositDto);
-        transaction.setWallet(targetWallet);
-        if (depositDto.amount().compareTo(BigDecimal.valueOf(1000.0)) < 0) {
-            targetWallet.setUsableBalance(targetWallet.getUsableBalance().add(depositDto.amount()));
-            transaction.setStatus(TransactionStatus.APPROVED);
-        } else {
-            transaction.setStatus(TransactionStatus.PENDING);
-        }
+        transaction.setWallet(walletRepository.getReferenceById(walletPk));
+        transaction.setStatus(approved ? TransactionStatus.APPROVED : TransactionStatus.PENDING);
 
         transactionRepository.save(transaction);
+        ledgerEntryRepository.postCreated(List.of(transaction.getId()));
+        outboxEventRepository.record(OutboxEventType.TRANSACTION_CREATED.name(), List.of(transaction.getId()));
         return TransactionResponseDto.builder()
-                .walletId(targetWallet.getWalletId())
+                .walletId(depositDto.walletId())
                 .oppositeParty(transaction.getOppositeParty())
                 .oppositePartyType(transaction.getOppositePartyType().name())
                 .type(transaction.getType().name())
                 .status(transaction.getStatus().name())
-                .amount(transaction.getAmount())
+                .amount(transaction.getAmount().toBigDecimal())
                 .build();
     }
 
     @Transactional
     @Override
+    @TimedOperation("deposit")
     public TransactionResponseDto makeDeposit(DepositDto depositDto, String customerTrIdentityNo) {
         Optional<Customer> optionalCustomer = customerRepository.findByTrIdentityNo(customerTrIdentityNo);
         Customer customer = optionalCustomer.orElseThrow(() ->
@@ -71,46 +100,35 @@ public class TransactionServiceImpl implements TransactionService {
 
     @Override
     @Transactional
+    @TimedOperation("withdraw")
     public TransactionResponseDto withdraw(WithdrawDto withdrawDto, Customer customer) {
-
-        Optional<Wallet> optionalWallet = walletRepository.findByWalletId(withdrawDto.walletId());
-        if (optionalWallet.isEmpty() || optionalWallet.get().getCustomer().getId() != customer.getId()) {
-            throw new WalletNotFoundException(customer.getTrIdentityNo(), withdrawDto.walletId());
-        }
-
-        Wallet targetWallet = optionalWallet.get();
-
-        if (!targetWallet.isActiveForWithdraw()) {
-            throw new WalletNotAvailableException(targetWallet.getWalletId(), "Withdraw");
-        }
-
-        if (!targetWallet.isActiveForShopping()) {
-            throw new WalletNotAvailableException(targetWallet.getWalletId(), "Shopping");
-        }
-
-        if (targetWallet.getUsableBalance().compareTo(withdrawDto.amount()) < 0) {
-            throw new InsufficientFundsException("Not enough funds available in the wallet");
-        }
-
-        targetWallet.setUsableBalance(targetWallet.getUsableBalance().subtract(withdrawDto.amount()));
         Transaction transaction = TransactionMapper.mapToTransaction(withdrawDto);
-        transaction.setWallet(targetWallet);
-
-        if (withdrawDto.amount().compareTo(BigDecimal.valueOf(1000.0)) < 0) {
-            targetWallet.setBalance(targetWallet.getBalance().subtract(withdrawDto.amount()));
-            transaction.setStatus(TransactionStatus.APPROVED);
-        } else {
-            transaction.setStatus(TransactionStatus.PENDING);
+        long amount = transaction.getAmount().minorUnits();
+        boolean approved = isAutoApproved(transaction, withdrawDto.walletId(), customer);
+        // checked in memory before the wallet row is touched, the count is taken back if this transaction rolls back
+        velocityLimiter.reserve(withdrawDto.walletId(), customer.getId(), transaction.getAmount());
+
+        // ownership, the wallet flags and the funds check are all part of the UPDATE predicate,
+        // so two concurrent withdrawals can never both pass the usable balance check
+        Optional<Long> walletPk = walletRepository.debitIfAvailable(withdrawDto.walletId(), customer.getId(),
+                amount, approved ? amount : 0);
+        if (walletPk.isEmpty()) {
+            throw withdrawRejection(withdrawDto, customer);
         }
 
+        transaction.setWallet(walletRepository.getReferenceById(walletPk.get()));
+        transaction.setStatus(approved ? TransactionStatus.APPROVED : TransactionStatus.PENDING);
+
         transactionRepository.save(transaction);
+        ledgerEntryRepository.postCreated(List.of(transaction.getId()));
+        outboxEventRepository.record(OutboxEventType.TRANSACTION_CREATED.name(), List.of(transaction.getId()));
         return TransactionResponseDto.builder()
-                .walletId(targetWallet.getWalletId())
+                .walletId(withdrawDto.walletId())
                 .oppositeParty(transaction.getOppositeParty())
-                .oppositePartyType(transaction.getOppositeParty())
+                .oppositePartyType(transaction.getOppositePartyType().name())
                 .type(transaction.getType().name())
                 .status(transaction.getStatus().name())
-                .amount(transaction.getAmount())
+                .amount(transaction.getAmount().toBigDecimal())
                 .build();
 
     }
@@ -118,6 +136,7 @@ public class TransactionServiceImpl implements TransactionService {
 
     @Override
     @Transactional
+    @TimedOperation("withdraw")
     public TransactionResponseDto withdraw(WithdrawDto withdrawDto, String customerTrIdentityNo) {
         Optional<Customer> optionalCustomer = customerRepository.findByTrIdentityNo(customerTrIdentityNo);
         Customer customer = optionalCustomer.orElseThrow(() ->
@@ -127,16 +146,21 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    public WalletTransactionListResponseDto getTransactions(String customerTrIdentityNo, String walletId) {
+    @Transactional(readOnly = true)
+    @TimedOperation("history")
+    public WalletTransactionListResponseDto getTransactions(String customerTrIdentityNo, String walletId,
+                                                            int limit, String after) {
         Optional<Customer> optionalCustomer = customerRepository.findByTrIdentityNo(customerTrIdentityNo);
         Customer customer = optionalCustomer.orElseThrow(() ->
                 new CustomerNotFoundException(customerTrIdentityNo));
 
-        return getTransactions(customer, walletId);
+        return getTransactions(customer, walletId, limit, after);
     }
 
     @Override
-    public WalletTransactionListResponseDto getTransactions(Customer customer, String walletId) {
+    @Transactional(readOnly = true)
+    @TimedOperation("history")
+    public WalletTransactionListResponseDto getTransactions(Customer customer, String walletId, int limit, String after) {
         Optional<Wallet> optionalWallet = walletRepository.findByWalletId(walletId);
         if (optionalWallet.isEmpty() || optionalWallet.get().getCustomer().getId() != customer.getId()) {
             throw new WalletNotFoundException(customer.getTrIdentityNo(), walletId);
@@ -144,27 +168,77 @@ public class TransactionServiceImpl implements TransactionService {
 
         Wallet targetWallet = optionalWallet.get();
 
-        List<TransactionResponseDto> transactions = transactionRepository.findByWalletId(targetWallet.getId())
-                .stream().map(transaction -> TransactionResponseDto.builder()
-                        .walletId(transaction.getWallet().getWalletId())
-                        .oppositeParty(transaction.getOppositeParty())
-                        .oppositePartyType(transaction.getOppositePartyType().name())
-                        .type(transaction.getType().name())
-                        .status(transaction.getStatus().name())
-                        .amount(transaction.getAmount())
-                        .build()).toList();
+        // one extra row is fetched to find out whether there is a next page without a count query
+        Limit fetchLimit = Limit.of(limit + 1);
+        // rows are projected straight into TransactionSummary, no Transaction entity is hydrated or tracked
+        List<TransactionSummary> page = after == null
+                ? transactionRepository.findByWalletIdOrderByIdDesc(targetWallet.getId(), fetchLimit)
+                : transactionRepository.findByWalletIdAndIdLessThanOrderByIdDesc(
+                        targetWallet.getId(), TransactionCursorMapper.fromCursor(after), fetchLimit);
+
+        boolean hasNext = page.size() > limit;
+        if (hasNext) {
+            page = page.subList(0, limit);
+        }
+
+        List<TransactionResponseDto> transactions = page.stream()
+                .map(transaction -> TransactionMapper.mapToTransactionResponseDto(transaction, targetWallet.getWalletId()))
+                .toList();
 
         return WalletTransactionListResponseDto.builder()
-                .balance(targetWallet.getBalance())
-                .usableBalance(targetWallet.getUsableBalance())
+                .balance(targetWallet.getBalance().toBigDecimal())
+                .usableBalance(targetWallet.getUsableBalance().toBigDecimal())
                 .walletName(targetWallet.getWalletName())
                 .transactions(transactions)
+                .nextCursor(hasNext ? TransactionCursorMapper.toCursor(page.get(page.size() - 1).id()) : null)
                 .build();
 
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public long getOwnedWalletDbId(String customerTrIdentityNo, String walletId) {
+        Optional<Customer> optionalCustomer = customerRepository.findByTrIdentityNo(customerTrIdentityNo);
+        Customer customer = optionalCustomer.orElseThrow(() ->
+                new CustomerNotFoundException(customerTrIdentityNo));
+
+        return getOwnedWalletDbId(customer, walletId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getOwnedWalletDbId(Customer customer, String walletId) {
+        Optional<Wallet> optionalWallet = walletRepository.findByWalletId(walletId);
+        if (optionalWallet.isEmpty() || optionalWallet.get().getCustomer().getId() != customer.getId()) {
+            throw new WalletNotFoundException(customer.getTrIdentityNo(), walletId);
+        }
+
+        return optionalWallet.get().getId();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @TimedOperation("export")
+    public void exportTransactions(long walletDbId, String walletId, OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(TransactionExportDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        // rows are projections rather than entities, so the persistence context does not grow with the history
+        try (Stream<TransactionSummary> transactions = transactionRepository.streamByWalletId(walletDbId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            Iterator<TransactionSummary> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, TransactionMapper.mapToTransactionExportDto(iterator.next(), walletId));
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    @RetryOnConcurrencyFailure
     @Transactional
     @Override
+    @TimedOperation("status_change")
     public void changeTransactionStatus(String customerTrIdentityNo, TransactionStatusChangeRequestDto changeRequest) {
         Optional<Customer> optionalCustomer = customerRepository.findByTrIdentityNo(customerTrIdentityNo);
         Customer customer = optionalCustomer.orElseThrow(() ->
@@ -173,8 +247,10 @@ public class TransactionServiceImpl implements TransactionService {
         changeTransactionStatus(customer, changeRequest);
     }
 
+    @RetryOnConcurrencyFailure
     @Transactional
     @Override
+    @TimedOperation("status_change")
     public void changeTransactionStatus(Customer customer, TransactionStatusChangeRequestDto changeRequest) {
 
         Optional<Transaction> optionalTransaction = transactionRepository.findByTransactionId(changeRequest.transactionId());
@@ -187,6 +263,8 @@ public class TransactionServiceImpl implements TransactionService {
             throw new TransactionNotFoundException(customer.getTrIdentityNo(), changeRequest.transactionId());
         }
 
+        lockForUpdate(targetWallet, transaction);
+
         if (transaction.getStatus().equals(TransactionStatus.APPROVED)) {
             throw new RuntimeException("Transaction is already approved");
         }
@@ -198,24 +276,63 @@ public class TransactionServiceImpl implements TransactionService {
         if (changeRequest.status().equals(TransactionStatus.APPROVED.name())) { // if an approve request comes
             if (transaction.getType().equals(TransactionType.DEPOSIT)) {
                 // if a deposit is approved then the amount of transaction must be added to the usable balance of the wallet
-                targetWallet.setUsableBalance(targetWallet.getUsableBalance().add(transaction.getAmount()));
+                targetWallet.setUsableBalance(targetWallet.getUsableBalance().plus(transaction.getAmount()));
             } else {
                 // if a withdraw is approved then the amount of transaction must be deducted from the balance of the wallet
-                targetWallet.setBalance(targetWallet.getBalance().subtract(transaction.getAmount()));
+                targetWallet.setBalance(targetWallet.getBalance().minus(transaction.getAmount()));
             }
         } else { // if a deny request comes
             if (transaction.getType().equals(TransactionType.DEPOSIT)) {
                 // if a deposit is denied then the amount of transaction must be deducted from the balance of the wallet
-                targetWallet.setBalance(targetWallet.getBalance().subtract(transaction.getAmount()));
+                targetWallet.setBalance(targetWallet.getBalance().minus(transaction.getAmount()));
             } else {
                 // if a withdraw is denied then the amount of transaction must be added to the usable balance of the wallet
-                targetWallet.setUsableBalance(targetWallet.getUsableBalance().add(transaction.getAmount()));
+                targetWallet.setUsableBalance(targetWallet.getUsableBalance().plus(transaction.getAmount()));
             }
         }
 
+        // the wallet row is written before the transaction row, so in either mode the wallet is locked first, in the
+        // same order as the bulk settlement (order_updates would otherwise flush the transaction first)
+        walletRepository.saveAndFlush(targetWallet);
         transaction.setStatus(TransactionStatus.valueOf(changeRequest.status()));
         transactionRepository.save(transaction);
-        walletRepository.save(targetWallet);
+        ledgerEntryRepository.postSettled(List.of(transaction.getId()));
+        outboxEventRepository.record(OutboxEventType.TRANSACTION_STATUS_CHANGED.name(), List.of(transaction.getId()));
+    }
+
+    // the currency is looked up before the wallet is updated, an unknown wallet fails in the UPDATE afterwards
+    private boolean isAutoApproved(Transaction transaction, String walletId, Customer customer) {
+        return !approvalRules.requiresApproval(walletCurrencies.currencyOf(walletId),
+                transaction.getOppositePartyType(), customer.getTier(), transaction.getAmount());
+    }
+
+    // only runs once the conditional UPDATE matched no row, to report why the withdrawal was rejected
+    private RuntimeException withdrawRejection(WithdrawDto withdrawDto, Customer customer) {
+        Optional<Wallet> optionalWallet = walletRepository.findByWalletId(withdrawDto.walletId());
+        if (optionalWallet.isEmpty() || optionalWallet.get().getCustomer().getId() != customer.getId()) {
+            return new WalletNotFoundException(customer.getTrIdentityNo(), withdrawDto.walletId());
+        }
+
+        Wallet targetWallet = optionalWallet.get();
+
+        if (!targetWallet.isActiveForWithdraw()) {
+            return new WalletNotAvailableException(targetWallet.getWalletId(), "Withdraw");
+        }
+
+        if (!targetWallet.isActiveForShopping()) {
+            return new WalletNotAvailableException(targetWallet.getWalletId(), "Shopping");
+        }
+
+        return new InsufficientFundsException("Not enough funds available in the wallet");
+    }
+
+    private void lockForUpdate(Wallet wallet, Transaction transaction) {
+        if (concurrencyMode == WalletConcurrencyMode.PESSIMISTIC) {
+            // the wallet row lock serializes every mutation of the wallet, so re-reading the transaction
+            // afterwards guarantees that a concurrent approve/deny of the same transaction is observed
+            entityManager.refresh(wallet, LockModeType.PESSIMISTIC_WRITE);
+            entityManager.refresh(transaction);
+        }
     }
 
 
@@ -0,0 +1,148 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import jakarta.annotation.PostConstruct;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.exceptions.VelocityLimitExceededException;
+import org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.RecentWithdrawal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Caps how many withdrawals, and how much in total, a wallet and a customer can make within a sliding window. The
+ * counters live in memory, see {@link SlidingWindowCounters}, so the check costs no query; they are rebuilt from the
+ * ledger on startup. Each instance counts the withdrawals it processed since then, so with several instances a limit
+ * applies per instance. A cap of 0 is not enforced, and with all caps at 0 nothing is counted.
+ */
+@Service
+public class VelocityLimiter {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final Duration window;
+    private final long walletMaxCount;
+    private final long walletMaxAmount;
+    private final long customerMaxCount;
+    private final long customerMaxAmount;
+    private final SlidingWindowCounters<String> walletCounters;
+    private final SlidingWindowCounters<Long> customerCounters;
+
+    public VelocityLimiter(LedgerEntryRepository ledgerEntryRepository,
+                           @Value("${wallet.velocity.window:1h}") Duration window,
+                           @Value("${wallet.velocity.buckets:12}") int buckets,
+                           @Value("${wallet.velocity.stripes:64}") int stripes,
+                           @Value("${wallet.velocity.max-keys:50000}") int maxKeys,
+                           @Value("${wallet.velocity.wallet.max-count:0}") long walletMaxCount,
+                           @Value("${wallet.velocity.wallet.max-amount:0}") BigDecimal walletMaxAmount,
+                           @Value("${wallet.velocity.customer.max-count:0}") long customerMaxCount,
+                           @Value("${wallet.velocity.customer.max-amount:0}") BigDecimal customerMaxAmount) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.window = window;
+        this.walletMaxCount = walletMaxCount;
+        this.walletMaxAmount = Money.of(walletMaxAmount).minorUnits();
+        this.customerMaxCount = customerMaxCount;
+        this.customerMaxAmount = Money.of(customerMaxAmount).minorUnits();
+        this.walletCounters = new SlidingWindowCounters<>(window, buckets, stripes, maxKeys);
+        this.customerCounters = new SlidingWindowCounters<>(window, buckets, stripes, maxKeys);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (RecentWithdrawal withdrawal : ledgerEntryRepository.findWithdrawalsSince(Instant.ofEpochMilli(now).minus(window))) {
+            walletCounters.add(withdrawal.getWalletId(), withdrawal.getAmount(), withdrawal.getCreatedAtMillis(), now);
+            customerCounters.add(withdrawal.getCustomerId(), withdrawal.getAmount(), withdrawal.getCreatedAtMillis(), now);
+        }
+    }
+
+    /**
+     * Counts a withdrawal against the wallet's and the customer's limits. Inside a database transaction the withdrawal
+     * is taken back out of the counters again if that transaction rolls back.
+     *
+     * @throws VelocityLimitExceededException if either limit would be exceeded, in which case nothing is counted
+     */
+    public Reservation reserve(String walletId, long customerId, Money amount) {
+        if (!isEnabled()) {
+            return Reservation.NONE;
+        }
+
+        long now = System.currentTimeMillis();
+        long minorUnits = amount.minorUnits();
+        if (!walletCounters.tryAdd(walletId, minorUnits, now, walletMaxCount, walletMaxAmount)) {
+            throw new VelocityLimitExceededException(
+                    String.format("Wallet ID: %s has reached its withdrawal limit, try again later", walletId));
+        }
+        if (!customerCounters.tryAdd(customerId, minorUnits, now, customerMaxCount, customerMaxAmount)) {
+            walletCounters.remove(walletId, minorUnits, now);
+            throw new VelocityLimitExceededException("Withdrawal limit of the customer reached, try again later");
+        }
+
+        Reservation reservation = new Reservation(this, walletId, customerId, minorUnits, now);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        reservation.release();
+                    }
+                }
+            });
+        }
+        return reservation;
+    }
+
+    public boolean isEnabled() {
+        return walletMaxCount > 0 || walletMaxAmount > 0 || customerMaxCount > 0 || customerMaxAmount > 0;
+    }
+
+    SlidingWindowCounters<String> walletCounters() {
+        return walletCounters;
+    }
+
+    SlidingWindowCounters<Long> customerCounters() {
+        return customerCounters;
+    }
+
+    /**
+     * A withdrawal counted by {@link #reserve}. Releasing it takes it back out of the counters, at most once.
+     */
+    public static final class Reservation {
+
+        static final Reservation NONE = new Reservation(null, null, 0, 0, 0);
+
+        private final VelocityLimiter limiter;
+        private final String walletId;
+        private final long customerId;
+        private final long amount;
+        private final long reservedAtMillis;
+        private boolean released;
+
+        private Reservation(VelocityLimiter limiter, String walletId, long customerId, long amount,
+                            long reservedAtMillis) {
+            this.limiter = limiter;
+            this.walletId = walletId;
+            this.customerId = customerId;
+            this.amount = amount;
+            this.reservedAtMillis = reservedAtMillis;
+            this.released = limiter == null;
+        }
+
+        public void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            limiter.walletCounters.remove(walletId, amount, reservedAtMillis);
+            limiter.customerCounters.remove(customerId, amount, reservedAtMillis);
+        }
+    }
+}
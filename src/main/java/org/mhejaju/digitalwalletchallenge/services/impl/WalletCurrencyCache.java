@@ -0,0 +1,43 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Currency of a wallet by walletId, needed to pick the approval rule before the balance UPDATE without loading the
+ * wallet. A wallet's currency never changes, so entries are only evicted by size. Unknown wallets are not cached.
+ */
+@Service
+public class WalletCurrencyCache {
+
+    private final WalletRepository walletRepository;
+    private final Cache<String, Currency> cache;
+
+    public WalletCurrencyCache(WalletRepository walletRepository,
+                               @Value("${wallet.approval-rules.currency-cache-size:100000}") long maximumSize) {
+        this.walletRepository = walletRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * @return the currency, or null if there is no such wallet
+     */
+    public Currency currencyOf(String walletId) {
+        Currency cached = cache.getIfPresent(walletId);
+        if (cached != null) {
+            return cached;
+        }
+
+        Currency loaded = walletRepository.findCurrencyByWalletId(walletId).orElse(null);
+        if (loaded != null) {
+            cache.put(walletId, loaded);
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,250 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.mhejaju.digitalwalletchallenge.dto.DepositDto;
+import org.mhejaju.digitalwalletchallenge.dto.TransactionResponseDto;
+import org.mhejaju.digitalwalletchallenge.dto.WithdrawDto;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.mapper.TransactionMapper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Single writer per wallet: deposits and withdrawals are hashed by walletId onto a fixed set of lanes, each drained
+ * by one thread. A lane applies whatever is queued, up to {@code wallet.sequencer.max-batch} commands, in arrival
+ * order in one database transaction, with the commands of a wallet folded into one balance UPDATE. Since no two lanes
+ * touch the same wallet, the lanes never wait on each other's row locks.
+ * <p>
+ * With a {@code wallet.sequencer.max-wait} window a lane holds its first command for up to that long while more
+ * arrive, trading that much latency for fewer, larger commits.
+ * <p>
+ * A caller waits at most {@code wallet.sequencer.await-timeout} for its command. A lane survives any failure of the
+ * commands it applies, failing their callers instead, and once the sequencer is shut down new commands are rejected.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.sequencer.enabled", havingValue = "true")
+public class WalletSequencer implements DisposableBean {
+
+    private final BatchTransactionServiceImpl batchTransactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final Lane[] lanes;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final long awaitTimeoutNanos;
+
+    public WalletSequencer(BatchTransactionServiceImpl batchTransactionService,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${wallet.sequencer.lanes:0}") int lanes,
+                           @Value("${wallet.sequencer.queue-capacity:1024}") int queueCapacity,
+                           @Value("${wallet.sequencer.max-batch:256}") int maxBatch,
+                           @Value("${wallet.sequencer.max-wait:0ms}") Duration maxWait,
+                           @Value("${wallet.sequencer.await-timeout:30s}") Duration awaitTimeout) {
+        this.batchTransactionService = batchTransactionService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.awaitTimeoutNanos = awaitTimeout.toNanos();
+        // 0 sizes the lanes to the cores, every lane keeps one connection busy while it commits
+        this.lanes = new Lane[lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors()];
+        for (int i = 0; i < this.lanes.length; i++) {
+            this.lanes[i] = new Lane(queueCapacity);
+            this.lanes[i].thread = Thread.ofPlatform().name("wallet-lane-" + i).daemon().start(this.lanes[i]);
+        }
+    }
+
+    public CompletableFuture<TransactionResponseDto> deposit(DepositDto depositDto, Customer customer) {
+        return submit(new Command(depositDto, null, customer), depositDto.walletId());
+    }
+
+    public CompletableFuture<TransactionResponseDto> withdraw(WithdrawDto withdrawDto, Customer customer) {
+        return submit(new Command(null, withdrawDto, customer), withdrawDto.walletId());
+    }
+
+    /**
+     * Waits for a command, unwrapping its failure so that callers see the same exceptions as with
+     * {@link TransactionServiceImpl}.
+     *
+     * @throws IllegalStateException if the command did not complete within the await timeout, in which case it may
+     *                               still be applied later
+     */
+    public TransactionResponseDto await(CompletableFuture<TransactionResponseDto> result) {
+        try {
+            return result.get(awaitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for the transaction, it may still be applied");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the transaction, it may still be applied");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (Lane lane : lanes) {
+            lane.stopped = true;
+            lane.thread.interrupt();
+            lane.failQueued();
+        }
+    }
+
+    private CompletableFuture<TransactionResponseDto> submit(Command command, String walletId) {
+        Lane lane = lanes[Math.floorMod(walletId.hashCode(), lanes.length)];
+        if (lane.stopped) {
+            command.result.completeExceptionally(shuttingDown());
+            return command.result;
+        }
+        try {
+            // a full lane blocks the caller, which pushes back on the request threads instead of queueing unboundedly
+            lane.queue.put(command);
+            // queued while the lane stopped, so nothing would ever take it; removing it also frees the slot
+            if (lane.stopped && lane.queue.remove(command)) {
+                command.result.completeExceptionally(shuttingDown());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            command.result.completeExceptionally(new IllegalStateException("Interrupted while queueing the transaction"));
+        }
+        return command.result;
+    }
+
+    private static IllegalStateException shuttingDown() {
+        return new IllegalStateException("The application is shutting down");
+    }
+
+    private void apply(List<Command> commands) {
+        List<BatchTransactionServiceImpl.Outcome> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> applyInOrder(commands));
+        } catch (RuntimeException e) {
+            // the whole group was rolled back, replay the commands one by one so only the failing one fails
+            for (Command command : commands) {
+                try {
+                    command.complete(transactionTemplate.execute(status -> applyInOrder(List.of(command))).getFirst());
+                } catch (RuntimeException commandFailure) {
+                    command.result.completeExceptionally(commandFailure);
+                }
+            }
+            return;
+        }
+
+        for (int i = 0; i < commands.size(); i++) {
+            commands.get(i).complete(outcomes.get(i));
+        }
+    }
+
+    // consecutive commands of the same kind and customer go through one chunk, so the order of a wallet is kept
+    private List<BatchTransactionServiceImpl.Outcome> applyInOrder(List<Command> commands) {
+        List<BatchTransactionServiceImpl.Outcome> outcomes = new ArrayList<>(commands.size());
+        int start = 0;
+        while (start < commands.size()) {
+            Command first = commands.get(start);
+            int end = start + 1;
+            while (end < commands.size() && commands.get(end).sameRunAs(first)) {
+                end++;
+            }
+
+            List<Command> run = commands.subList(start, end);
+            BatchTransactionServiceImpl.Outcome[] runOutcomes = first.deposit() != null
+                    ? batchTransactionService.depositChunk(run.stream().map(Command::deposit).toList(), first.customer())
+                    : batchTransactionService.withdrawChunk(run.stream().map(Command::withdrawal).toList(), first.customer());
+            outcomes.addAll(List.of(runOutcomes));
+            start = end;
+        }
+        return outcomes;
+    }
+
+    private record Command(DepositDto deposit, WithdrawDto withdrawal, Customer customer,
+                           CompletableFuture<TransactionResponseDto> result) {
+
+        Command(DepositDto deposit, WithdrawDto withdrawal, Customer customer) {
+            this(deposit, withdrawal, customer, new CompletableFuture<>());
+        }
+
+        boolean sameRunAs(Command other) {
+            return (deposit == null) == (other.deposit == null) && customer.getId() == other.customer.getId();
+        }
+
+        void complete(BatchTransactionServiceImpl.Outcome outcome) {
+            if (outcome.error() != null) {
+                result.completeExceptionally(outcome.error());
+            } else {
+                result.complete(TransactionMapper.mapToTransactionResponseDto(outcome.transaction(), outcome.walletId()));
+            }
+        }
+    }
+
+    private final class Lane implements Runnable {
+
+        private final BlockingQueue<Command> queue;
+        private volatile boolean stopped;
+        private Thread thread;
+
+        Lane(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void run() {
+            List<Command> batch = new ArrayList<>(maxBatch);
+            while (!stopped) {
+                try {
+                    batch.add(queue.take());
+                    collect(batch);
+                } catch (InterruptedException e) {
+                    // the commands taken so far are still applied, shutdown fails the ones left in the queue
+                    stopped = true;
+                }
+                if (!batch.isEmpty()) {
+                    try {
+                        apply(batch);
+                    } catch (Throwable failure) {
+                        // anything apply did not handle, an Error included, fails this batch but must not end the
+                        // lane: every later command of its wallets would wait for it forever
+                        batch.forEach(command -> command.result.completeExceptionally(failure));
+                    }
+                    batch.clear();
+                }
+            }
+            failQueued();
+        }
+
+        void failQueued() {
+            List<Command> queued = new ArrayList<>();
+            queue.drainTo(queued);
+            queued.forEach(command -> command.result.completeExceptionally(shuttingDown()));
+        }
+
+        // the batch is closed by whichever comes first: max-batch commands or max-wait after the first one
+        private void collect(List<Command> batch) throws InterruptedException {
+            queue.drainTo(batch, maxBatch - batch.size());
+            long deadline = System.nanoTime() + maxWaitNanos;
+            while (batch.size() < maxBatch) {
+                long remaining = deadline - System.nanoTime();
+                Command next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (next == null) {
+                    return;
+                }
+                batch.add(next);
+                queue.drainTo(batch, maxBatch - batch.size());
+            }
+        }
+    }
+}
@@ -42,14 +42,15 @@ public class WalletServiceImpl implements WalletService {
 
 
     @Override
+    @Transactional(readOnly = true)
     public List<WalletResponseDto> listWallets(Customer customer) {
-        List<Wallet> wallets = walletRepository.findByCustomerId(customer.getId());
-        return wallets.stream()
+        return walletRepository.findSummariesByCustomerId(customer.getId()).stream()
                 .map(WalletMapper::mapToWalletResponseDto)
                 .toList();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<WalletResponseDto> listWallets(String customerTrIdentityNo) {
         Optional<Customer> optionalCustomer = customerRepository.findByTrIdentityNo(customerTrIdentityNo);
         Customer customer = optionalCustomer.orElseThrow(() ->
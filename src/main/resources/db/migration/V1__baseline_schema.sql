@@ -0,0 +1,61 @@
+-- Schema as previously generated by ddl-auto: update. Every statement is idempotent so that databases created
+-- before migrations were introduced are brought under Flyway (baseline-version 0) without being recreated.
+
+create sequence if not exists customer_seq start with 1 increment by 50;
+create sequence if not exists wallet_seq start with 1 increment by 50;
+create sequence if not exists transaction_seq start with 1 increment by 50;
+
+create table if not exists customer (
+    customer_id bigint       not null,
+    name        varchar(255) not null,
+    surname     varchar(255) not null,
+    tckn        varchar(255) not null,
+    email       varchar(255) not null,
+    password    varchar(255) not null,
+    role        varchar(255),
+    constraint customer_pkey primary key (customer_id),
+    constraint customer_tckn_uk unique (tckn),
+    constraint customer_email_uk unique (email)
+);
+
+create table if not exists wallet (
+    id                  bigint       not null,
+    wallet_id           varchar(255) not null,
+    wallet_name         varchar(255),
+    customer_id         bigint,
+    currency            varchar(10)  not null,
+    active_for_withdraw boolean      not null,
+    active_for_shopping boolean      not null,
+    balance             numeric(38, 2),
+    usable_balance      numeric(38, 2),
+    version             bigint default 0 not null,
+    constraint wallet_pkey primary key (id),
+    constraint wallet_wallet_name_uk unique (wallet_name),
+    constraint wallet_customer_fk foreign key (customer_id) references customer (customer_id)
+);
+
+-- added after the first deployments, ddl-auto only created it on databases that were started since
+alter table wallet add column if not exists version bigint default 0 not null;
+
+create table if not exists transaction (
+    id                  bigint         not null,
+    transaction_id      varchar(255)   not null,
+    type                varchar(10)    not null,
+    opposite_party_type varchar(10)    not null,
+    status              varchar(10)    not null,
+    opposite_party      varchar(255)   not null,
+    wallet_id           bigint,
+    amount              numeric(38, 2) not null,
+    constraint transaction_pkey primary key (id),
+    constraint transaction_transaction_id_uk unique (transaction_id),
+    constraint transaction_wallet_fk foreign key (wallet_id) references wallet (id)
+);
+
+-- ids used to be identity columns: move each sequence past the highest id, the pooled optimizer hands out
+-- the block of 50 ending at the value returned by nextval
+select setval('customer_seq', (select max(customer_id) from customer) + 50)
+ where (select max(customer_id) from customer) >= (select last_value from customer_seq);
+select setval('wallet_seq', (select max(id) from wallet) + 50)
+ where (select max(id) from wallet) >= (select last_value from wallet_seq);
+select setval('transaction_seq', (select max(id) from transaction) + 50)
+ where (select max(id) from transaction) >= (select last_value from transaction_seq);
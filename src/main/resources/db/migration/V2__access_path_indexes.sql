@@ -0,0 +1,12 @@
+-- WalletRepository.findByWalletId runs on every wallet operation, and the conditional balance updates filter on it
+create unique index if not exists wallet_wallet_id_uk on wallet (wallet_id);
+
+-- WalletRepository.findByCustomerId (wallet listing)
+create index if not exists wallet_customer_id_idx on wallet (customer_id);
+
+-- TransactionRepository.findByWalletId, the keyset pages (wallet_id = ? and id < ? order by id desc) and the export
+-- stream. status, amount and type are included so that balance and status scans over a wallet stay in the index.
+create index if not exists transaction_wallet_id_id_idx on transaction (wallet_id, id desc) include (status, amount, type);
+
+analyze wallet;
+analyze transaction;
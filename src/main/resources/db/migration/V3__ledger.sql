@@ -0,0 +1,56 @@
+-- Append-only double-entry ledger. Every change of a wallet's balance or usable balance is posted as one entry that
+-- debits one account of the wallet and credits another by the same amount. An account holds its debits minus its
+-- credits:
+--   AVAILABLE  the usable balance
+--   PENDING    funds held by pending transactions (balance - usable balance)
+--   EXTERNAL   the IBAN/payment counterparty
+-- so balance = AVAILABLE + PENDING and usable balance = AVAILABLE.
+--
+-- Entry ids are drawn one at a time while the wallet row is locked, which makes them ascend in commit order per
+-- wallet. A snapshot is therefore identified by the last entry it covers.
+create sequence ledger_entry_seq start with 1 increment by 1;
+
+create table ledger_entry (
+    id             bigint                      not null,
+    wallet_id      bigint                      not null,
+    transaction_id bigint,
+    debit_account  varchar(10)                 not null,
+    credit_account varchar(10)                 not null,
+    amount         numeric(38, 2)              not null,
+    created_at     timestamp(6) with time zone not null,
+    constraint ledger_entry_pkey primary key (id),
+    constraint ledger_entry_wallet_fk foreign key (wallet_id) references wallet (id),
+    constraint ledger_entry_transaction_fk foreign key (transaction_id) references transaction (id),
+    constraint ledger_entry_accounts_ck check (debit_account <> credit_account)
+);
+
+-- replaying a wallet from a snapshot (wallet_id = ? and id > ?) stays in the index
+create index ledger_entry_wallet_id_id_idx on ledger_entry (wallet_id, id)
+    include (debit_account, credit_account, amount, created_at);
+
+create table balance_snapshot (
+    wallet_id       bigint                      not null,
+    ledger_entry_id bigint                      not null,
+    available       numeric(38, 2)              not null,
+    pending         numeric(38, 2)              not null,
+    as_of           timestamp(6) with time zone not null,
+    constraint balance_snapshot_pkey primary key (wallet_id, ledger_entry_id),
+    constraint balance_snapshot_wallet_fk foreign key (wallet_id) references wallet (id)
+);
+
+-- opening entries (no transaction) carry over the balances of wallets that existed before the ledger
+insert into ledger_entry (id, wallet_id, transaction_id, debit_account, credit_account, amount, created_at)
+select nextval('ledger_entry_seq'), id, null,
+       case when usable_balance > 0 then 'AVAILABLE' else 'EXTERNAL' end,
+       case when usable_balance > 0 then 'EXTERNAL' else 'AVAILABLE' end,
+       abs(usable_balance), now()
+  from wallet
+ where coalesce(usable_balance, 0) <> 0;
+
+insert into ledger_entry (id, wallet_id, transaction_id, debit_account, credit_account, amount, created_at)
+select nextval('ledger_entry_seq'), id, null,
+       case when balance > usable_balance then 'PENDING' else 'EXTERNAL' end,
+       case when balance > usable_balance then 'EXTERNAL' else 'PENDING' end,
+       abs(balance - usable_balance), now()
+  from wallet
+ where coalesce(balance, 0) <> coalesce(usable_balance, 0);
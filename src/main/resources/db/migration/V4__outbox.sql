@@ -0,0 +1,14 @@
+-- Transactional outbox: one row per transaction created or settled, written in the same database transaction and
+-- removed once the relay has handed it to the transport. Like the ledger entries, ids are drawn while the wallet row
+-- is locked, so per wallet they ascend in commit order and the relay publishes them in that order.
+create sequence outbox_event_seq start with 1 increment by 1;
+
+create table outbox_event (
+    id           bigint                      not null,
+    wallet_id    bigint                      not null,
+    aggregate_id varchar(255)                not null,
+    event_type   varchar(30)                 not null,
+    payload      jsonb                       not null,
+    created_at   timestamp(6) with time zone not null,
+    constraint outbox_event_pkey primary key (id)
+);
@@ -0,0 +1,15 @@
+-- Amounts are stored as bigint minor units (cents, kurus) instead of numeric(38, 2). Every currency has two fraction
+-- digits, so the conversion is exact. Columns whose indexes include them are rewritten together with the index.
+alter table wallet
+    alter column balance type bigint using (balance * 100)::bigint,
+    alter column usable_balance type bigint using (usable_balance * 100)::bigint;
+
+alter table transaction
+    alter column amount type bigint using (amount * 100)::bigint;
+
+alter table ledger_entry
+    alter column amount type bigint using (amount * 100)::bigint;
+
+alter table balance_snapshot
+    alter column available type bigint using (available * 100)::bigint,
+    alter column pending type bigint using (pending * 100)::bigint;
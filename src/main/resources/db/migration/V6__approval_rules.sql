@@ -0,0 +1,19 @@
+-- Approval thresholds by currency, counterparty type and customer tier. A null column matches any value and the most
+-- specific matching rule wins, see ApprovalRuleTable. The rules are read into memory and reloaded periodically, so
+-- changes made here take effect within wallet.approval-rules.refresh-interval-ms.
+alter table customer add column tier varchar(20) default 'STANDARD' not null;
+
+create table approval_rule (
+    id                  bigint generated always as identity,
+    currency            varchar(10),
+    opposite_party_type varchar(10),
+    tier                varchar(20),
+    -- deposits and withdrawals of at least this amount (minor units) stay PENDING until they are approved
+    threshold           bigint not null,
+    constraint approval_rule_pkey primary key (id),
+    constraint approval_rule_match_uk unique nulls not distinct (currency, opposite_party_type, tier),
+    constraint approval_rule_threshold_ck check (threshold >= 0)
+);
+
+-- the rule that was hardcoded before: everything from 1000.00 on needs approval
+insert into approval_rule (currency, opposite_party_type, tier, threshold) values (null, null, null, 100000);
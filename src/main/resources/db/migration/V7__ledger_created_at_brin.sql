@@ -0,0 +1,3 @@
+-- The velocity limits are rebuilt on startup from the withdrawals posted within their window. Entries are appended in
+-- created_at order, so a BRIN index finds that tail of the ledger while costing next to nothing on insert.
+create index ledger_entry_created_at_brin on ledger_entry using brin (created_at);
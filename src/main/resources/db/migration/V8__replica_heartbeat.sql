@@ -0,0 +1,11 @@
+-- Written on the primary by ReplicaLagMonitor on every lag check and read back on the replica: how far the replicated
+-- beat trails the one just written is the replica's lag, measured on the primary's clock alone. Unlike comparing
+-- received and replayed WAL positions this also grows while the replica is cut off from the primary.
+create table replica_heartbeat (
+    id      int         not null,
+    beat_at timestamptz not null,
+    constraint replica_heartbeat_pkey primary key (id),
+    constraint replica_heartbeat_single_row_ck check (id = 1)
+);
+
+insert into replica_heartbeat (id, beat_at) values (1, clock_timestamp());
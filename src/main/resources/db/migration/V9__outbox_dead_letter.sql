@@ -0,0 +1,23 @@
+-- A failed publish is recorded against the event, which is retried with a growing delay while the events of its wallet
+-- wait and those of other wallets go on. After wallet.outbox.max-attempts failures it is moved to outbox_dead_letter,
+-- so a single event that can never be published no longer holds back its wallet. Dead letters keep the original id.
+alter table outbox_event
+    add column attempts        int default 0 not null,
+    add column last_error      varchar(1000),
+    add column next_attempt_at timestamp(6) with time zone;
+
+-- the relay looks up the wallets with an event waiting for its retry on every poll, there are rarely any
+create index outbox_event_backoff_idx on outbox_event (wallet_id) where next_attempt_at is not null;
+
+create table outbox_dead_letter (
+    id           bigint                      not null,
+    wallet_id    bigint                      not null,
+    aggregate_id varchar(255)                not null,
+    event_type   varchar(30)                 not null,
+    payload      jsonb                       not null,
+    created_at   timestamp(6) with time zone not null,
+    attempts     int                         not null,
+    last_error   varchar(1000),
+    dead_at      timestamp(6) with time zone not null,
+    constraint outbox_dead_letter_pkey primary key (id)
+);
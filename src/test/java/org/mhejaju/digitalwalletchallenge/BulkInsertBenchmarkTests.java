@@ -0,0 +1,115 @@
+package org.mhejaju.digitalwalletchallenge;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.Transaction;
+import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OppositePartyType;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionStatus;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionType;
+import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.TransactionRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Inserts transactions in chunks the way bulk deposits and imports do, once with JDBC batching effectively off
+ * (batch size 1, which is what IDENTITY ids forced) and once with the configured batch size, and prints the
+ * insert throughput of both. Run with {@code ./gradlew benchmark}; the default test task skips it.
+ */
+@Tag("benchmark")
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class BulkInsertBenchmarkTests {
+
+    private static final int ROWS = 20_000;
+    private static final int ROWS_PER_TRANSACTION = 1_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50})
+    void bulkTransactionInserts_shouldReportThroughput(int jdbcBatchSize) {
+        Wallet wallet = saveWallet(jdbcBatchSize);
+
+        long startedAt = System.nanoTime();
+        for (int chunk = 0; chunk < ROWS / ROWS_PER_TRANSACTION; chunk++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+                Wallet reference = entityManager.getReference(Wallet.class, wallet.getId());
+                for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+                    entityManager.persist(transaction(reference));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        System.out.printf("[jdbc batch size %d] rows=%d elapsed=%dms throughput=%.1f rows/s%n",
+                jdbcBatchSize, ROWS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                ROWS / (elapsedNanos / 1_000_000_000.0));
+
+        assertEquals(ROWS, transactionRepository.findByWalletId(wallet.getId()).size());
+    }
+
+    private Transaction transaction(Wallet wallet) {
+        Transaction transaction = new Transaction();
+        transaction.setWallet(wallet);
+        transaction.setType(TransactionType.DEPOSIT);
+        transaction.setStatus(TransactionStatus.APPROVED);
+        transaction.setOppositePartyType(OppositePartyType.IBAN);
+        transaction.setOppositeParty("TR330006100519786457841326");
+        transaction.setAmount(Money.of("10.00"));
+        return transaction;
+    }
+
+    private Wallet saveWallet(int jdbcBatchSize) {
+        Customer customer = new Customer();
+        customer.setName("Bulk");
+        customer.setSurname("Insert");
+        customer.setTrIdentityNo(String.format("%011d", System.nanoTime() % 100_000_000_000L));
+        customer.setEmail("bulk" + jdbcBatchSize + "-" + System.nanoTime() + "@benchmark.local");
+        customer.setPassword("not-used");
+        customer.setRole(Role.BASIC);
+        customerRepository.save(customer);
+
+        Wallet wallet = new Wallet();
+        wallet.setWalletName("bulk-" + jdbcBatchSize + "-" + System.nanoTime());
+        wallet.setCurrency(Currency.TRY);
+        wallet.setActiveForShopping(true);
+        wallet.setActiveForWithdraw(true);
+        wallet.setBalance(Money.ZERO);
+        wallet.setUsableBalance(Money.ZERO);
+        wallet.setCustomer(customer);
+        return walletRepository.save(wallet);
+    }
+}
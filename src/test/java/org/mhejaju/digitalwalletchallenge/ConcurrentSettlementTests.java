@@ -0,0 +1,199 @@
+package org.mhejaju.digitalwalletchallenge;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mhejaju.digitalwalletchallenge.config.WalletConcurrencyMode;
+import org.mhejaju.digitalwalletchallenge.dto.BulkTransactionStatusChangeRequestDto;
+import org.mhejaju.digitalwalletchallenge.dto.BulkTransactionStatusChangeResponseDto;
+import org.mhejaju.digitalwalletchallenge.dto.TransactionStatusChangeRequestDto;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.Transaction;
+import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OppositePartyType;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionStatus;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionType;
+import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.TransactionRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.services.BatchTransactionService;
+import org.mhejaju.digitalwalletchallenge.services.TransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Settles the pending deposits of two wallets through the bulk endpoint and through single status changes at the same
+ * time, each side walking the transactions in a different order, once per {@link WalletConcurrencyMode}. Both take
+ * the wallet locks before the transaction rows, so no bulk chunk may fail on a deadlock and every deposit must be
+ * applied exactly once. In optimistic mode a single change may still give up after losing the version check too
+ * often, which leaves its deposit to the bulk side.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class ConcurrentSettlementTests {
+
+    private static final int PENDING_PER_WALLET = 200;
+    private static final int CHUNK = 20;
+    private static final int SINGLE_WRITERS = 8;
+    private static final BigDecimal AMOUNT = new BigDecimal("1500.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BatchTransactionService batchTransactionService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    // the service is a singleton of the cached context shared with the other test classes
+    private Object transactionServiceTarget;
+    private Object configuredMode;
+
+    @BeforeEach
+    void rememberConcurrencyMode() {
+        transactionServiceTarget = AopTestUtils.getUltimateTargetObject(transactionService);
+        configuredMode = ReflectionTestUtils.getField(transactionServiceTarget, "concurrencyMode");
+    }
+
+    @AfterEach
+    void restoreConcurrencyMode() {
+        ReflectionTestUtils.setField(transactionServiceTarget, "concurrencyMode", configuredMode);
+    }
+
+    @ParameterizedTest
+    @EnumSource(WalletConcurrencyMode.class)
+    void bulkAndSingleSettlementsOfSameWallets_shouldNotDeadlock(WalletConcurrencyMode mode) throws Exception {
+        ReflectionTestUtils.setField(transactionServiceTarget, "concurrencyMode", mode);
+        Customer customer = saveCustomer();
+        Wallet first = saveWallet(customer);
+        Wallet second = saveWallet(customer);
+        List<String> transactionIds = new ArrayList<>();
+        for (int i = 0; i < PENDING_PER_WALLET; i++) {
+            // interleaved, so every chunk touches both wallets
+            transactionIds.add(savePendingDeposit(first));
+            transactionIds.add(savePendingDeposit(second));
+        }
+        List<String> reversed = new ArrayList<>(transactionIds);
+        Collections.reverse(reversed);
+        Queue<String> singles = new ConcurrentLinkedQueue<>(reversed);
+
+        AtomicInteger bulkChanged = new AtomicInteger();
+        AtomicInteger bulkFailed = new AtomicInteger();
+        AtomicInteger singleChanged = new AtomicInteger();
+        AtomicInteger singleFailed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(SINGLE_WRITERS + 1);
+        List<Future<?>> writers = new ArrayList<>();
+
+        writers.add(pool.submit(() -> {
+            start.await();
+            for (int offset = 0; offset < transactionIds.size(); offset += CHUNK) {
+                BulkTransactionStatusChangeResponseDto response = batchTransactionService.changeTransactionStatuses(
+                        new BulkTransactionStatusChangeRequestDto(
+                                transactionIds.subList(offset, Math.min(offset + CHUNK, transactionIds.size())),
+                                TransactionStatus.APPROVED.name()));
+                bulkChanged.addAndGet(response.changed());
+                bulkFailed.addAndGet(response.failedTransactionIds().size());
+            }
+            return null;
+        }));
+        for (int w = 0; w < SINGLE_WRITERS; w++) {
+            writers.add(pool.submit(() -> {
+                start.await();
+                String transactionId;
+                while ((transactionId = singles.poll()) != null) {
+                    try {
+                        transactionService.changeTransactionStatus(customer, new TransactionStatusChangeRequestDto(
+                                transactionId, TransactionStatus.APPROVED.name()));
+                        singleChanged.incrementAndGet();
+                    } catch (OptimisticLockingFailureException e) {
+                        if (mode != WalletConcurrencyMode.OPTIMISTIC) {
+                            singleFailed.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        if (!"Transaction is already approved".equals(e.getMessage())) {
+                            singleFailed.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(5, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertEquals(0, bulkFailed.get(), "a bulk chunk was rolled back");
+        assertEquals(0, singleFailed.get(), "a single status change failed");
+        assertEquals(transactionIds.size(), bulkChanged.get() + singleChanged.get());
+        BigDecimal expectedUsable = AMOUNT.multiply(BigDecimal.valueOf(PENDING_PER_WALLET));
+        for (Wallet wallet : List.of(first, second)) {
+            Wallet reloaded = walletRepository.findByWalletId(wallet.getWalletId()).orElseThrow();
+            assertEquals(0, expectedUsable.compareTo(reloaded.getUsableBalance().toBigDecimal()),
+                    "usable balance of " + wallet.getWalletId());
+        }
+    }
+
+    private String savePendingDeposit(Wallet wallet) {
+        Transaction transaction = new Transaction();
+        transaction.setWallet(wallet);
+        transaction.setType(TransactionType.DEPOSIT);
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setOppositePartyType(OppositePartyType.IBAN);
+        transaction.setOppositeParty("TR330006100519786457841326");
+        transaction.setAmount(Money.of(AMOUNT));
+        return transactionRepository.save(transaction).getTransactionId();
+    }
+
+    private Customer saveCustomer() {
+        Customer customer = new Customer();
+        customer.setName("Settlement");
+        customer.setSurname("Test");
+        customer.setTrIdentityNo(String.format("%011d", System.nanoTime() % 100_000_000_000L));
+        customer.setEmail("settlement" + System.nanoTime() + "@test.local");
+        customer.setPassword("not-used");
+        customer.setRole(Role.BASIC);
+        return customerRepository.save(customer);
+    }
+
+    // the pending deposits are already in the balance, approving them releases them to the usable balance
+    private Wallet saveWallet(Customer customer) {
+        Wallet wallet = new Wallet();
+        wallet.setWalletName("settlement-" + System.nanoTime());
+        wallet.setCurrency(Currency.TRY);
+        wallet.setActiveForShopping(true);
+        wallet.setActiveForWithdraw(true);
+        wallet.setBalance(Money.of(AMOUNT.multiply(BigDecimal.valueOf(PENDING_PER_WALLET))));
+        wallet.setUsableBalance(Money.of(BigDecimal.ZERO));
+        wallet.setCustomer(customer);
+        return walletRepository.save(wallet);
+    }
+}
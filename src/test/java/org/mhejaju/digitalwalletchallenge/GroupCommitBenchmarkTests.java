@@ -0,0 +1,154 @@
+package org.mhejaju.digitalwalletchallenge;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mhejaju.digitalwalletchallenge.dto.DepositDto;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
+import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.services.impl.BatchTransactionServiceImpl;
+import org.mhejaju.digitalwalletchallenge.services.impl.TransactionServiceImpl;
+import org.mhejaju.digitalwalletchallenge.services.impl.WalletSequencer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput/latency trade-off of the group commit window: 64 writers deposit into 8 hot wallets, once with one
+ * commit per deposit ({@link TransactionServiceImpl}) and then through a sequencer of 4 lanes built for each
+ * {@code wallet.sequencer.max-wait} window. Each run prints the throughput and the p50/p99 latency of a deposit.
+ * Run with {@code ./gradlew benchmark}; the default test task skips it.
+ */
+@Tag("benchmark")
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class GroupCommitBenchmarkTests {
+
+    private static final int WRITERS = 64;
+    private static final int DEPOSITS_PER_WRITER = 200;
+    private static final int WALLETS = 8;
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+    private static final int LANES = 4;
+
+    @Autowired
+    private TransactionServiceImpl directTransactionService;
+
+    @Autowired
+    private BatchTransactionServiceImpl batchTransactionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Test
+    void commitPerDeposit() throws Exception {
+        run("commit per deposit", directTransactionService::makeDeposit);
+    }
+
+    @ParameterizedTest(name = "max-wait={0}ms")
+    @ValueSource(ints = {0, 1, 2, 5, 10, 20})
+    void groupCommit(int maxWaitMillis) throws Exception {
+        // a sequencer of its own per window, the window is fixed for the life of its lanes
+        WalletSequencer walletSequencer = new WalletSequencer(batchTransactionService, transactionTemplate, LANES, 1024,
+                256, Duration.ofMillis(maxWaitMillis), Duration.ofMinutes(1));
+        try {
+            run("group commit, max-wait=" + maxWaitMillis + "ms",
+                    (deposit, customer) -> walletSequencer.await(walletSequencer.deposit(deposit, customer)));
+        } finally {
+            walletSequencer.destroy();
+        }
+    }
+
+    private void run(String label, BiConsumer<DepositDto, Customer> makeDeposit) throws Exception {
+        Customer customer = saveCustomer();
+        List<Wallet> wallets = new ArrayList<>();
+        for (int i = 0; i < WALLETS; i++) {
+            wallets.add(saveWallet(customer));
+        }
+
+        long[] latencies = new long[WRITERS * DEPOSITS_PER_WRITER];
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        List<Future<?>> writers = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < DEPOSITS_PER_WRITER; i++) {
+                    String walletId = wallets.get((writer + i) % WALLETS).getWalletId();
+                    long startedAt = System.nanoTime();
+                    makeDeposit.accept(new DepositDto(AMOUNT, walletId, "IBAN", "TR330006100519786457841326"), customer);
+                    latencies[writer * DEPOSITS_PER_WRITER + i] = System.nanoTime() - startedAt;
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        pool.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("[%s] writers=%d deposits=%d elapsed=%dms throughput=%.1f ops/s p50=%.2fms p99=%.2fms%n",
+                label, WRITERS, latencies.length, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                latencies.length / (elapsedNanos / 1_000_000_000.0),
+                latencies[latencies.length / 2] / 1_000_000.0, latencies[latencies.length * 99 / 100] / 1_000_000.0);
+
+        BigDecimal expected = AMOUNT.multiply(BigDecimal.valueOf(WRITERS * DEPOSITS_PER_WRITER / WALLETS));
+        for (Wallet wallet : wallets) {
+            Wallet reloaded = walletRepository.findByWalletId(wallet.getWalletId()).orElseThrow();
+            assertEquals(0, expected.compareTo(reloaded.getBalance().toBigDecimal()), "balance lost an update");
+            assertEquals(0, expected.compareTo(reloaded.getUsableBalance().toBigDecimal()), "usable balance lost an update");
+        }
+    }
+
+    private Customer saveCustomer() {
+        Customer customer = new Customer();
+        customer.setName("Group");
+        customer.setSurname("Commit");
+        customer.setTrIdentityNo(String.format("%011d", System.nanoTime() % 100_000_000_000L));
+        customer.setEmail("group-commit" + System.nanoTime() + "@benchmark.local");
+        customer.setPassword("not-used");
+        customer.setRole(Role.BASIC);
+        return customerRepository.save(customer);
+    }
+
+    private Wallet saveWallet(Customer customer) {
+        Wallet wallet = new Wallet();
+        wallet.setWalletName("group-commit-" + System.nanoTime());
+        wallet.setCurrency(Currency.TRY);
+        wallet.setActiveForShopping(true);
+        wallet.setActiveForWithdraw(true);
+        wallet.setBalance(Money.ZERO);
+        wallet.setUsableBalance(Money.ZERO);
+        wallet.setCustomer(customer);
+        return walletRepository.save(wallet);
+    }
+}
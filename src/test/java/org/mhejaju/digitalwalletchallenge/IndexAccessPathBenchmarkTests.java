@@ -0,0 +1,127 @@
+package org.mhejaju.digitalwalletchallenge;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Loads 1M and 10M transactions (1000 per wallet, 10 wallets per customer) and times the repository lookups once
+ * with the planner free to use the migration indexes and once with index scans disabled, which is the plan the
+ * schema had before the indexes existed. Run with {@code ./gradlew benchmark}; the default test task skips it.
+ */
+@Tag("benchmark")
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class IndexAccessPathBenchmarkTests {
+
+    private static final int TRANSACTIONS_PER_WALLET = 1_000;
+    private static final int WALLETS_PER_CUSTOMER = 10;
+    private static final int INDEXED_RUNS = 50;
+    private static final int SEQUENTIAL_RUNS = 3;
+
+    private static final String WALLET_BY_WALLET_ID = "select * from wallet where wallet_id = ?";
+    private static final String WALLETS_BY_CUSTOMER = "select * from wallet where customer_id = ?";
+    private static final String TRANSACTIONS_BY_WALLET = "select * from transaction where wallet_id = ?";
+    private static final String LATEST_TRANSACTION_PAGE =
+            "select * from transaction where wallet_id = ? order by id desc fetch first 51 rows only";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000_000, 10_000_000})
+    void repositoryLookups_shouldUseIndexes(int transactions) {
+        String prefix = "idx" + transactions + "-";
+        load(prefix, transactions);
+
+        Long customerId = jdbcTemplate.queryForObject(
+                "select customer_id from customer where email = ?", Long.class, prefix + "1@benchmark.local");
+        Long walletDbId = jdbcTemplate.queryForObject(
+                "select id from wallet where wallet_name = ?", Long.class, prefix + "1");
+        String walletId = jdbcTemplate.queryForObject(
+                "select wallet_id from wallet where id = ?", String.class, walletDbId);
+        Long tableRows = jdbcTemplate.queryForObject("select count(*) from transaction", Long.class);
+        System.out.printf("[%d transactions] transaction table rows=%d%n", transactions, tableRows);
+
+        measure(transactions, "findByWalletId (wallet)", WALLET_BY_WALLET_ID, walletId);
+        measure(transactions, "findSummariesByCustomerId", WALLETS_BY_CUSTOMER, customerId);
+        measure(transactions, "findByWalletId (transaction)", TRANSACTIONS_BY_WALLET, walletDbId);
+        measure(transactions, "findByWalletIdOrderByIdDesc", LATEST_TRANSACTION_PAGE, walletDbId);
+
+        for (String query : List.of(TRANSACTIONS_BY_WALLET, LATEST_TRANSACTION_PAGE)) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("explain " + query, String.class, walletDbId));
+            assertTrue(plan.contains("transaction_wallet_id_id_idx"), plan);
+            assertFalse(plan.contains("Seq Scan"), plan);
+        }
+    }
+
+    private void measure(int transactions, String name, String sql, Object parameter) {
+        double indexedMillis = averageMillis(sql, parameter, INDEXED_RUNS, false);
+        double sequentialMillis = averageMillis(sql, parameter, SEQUENTIAL_RUNS, true);
+        System.out.printf("[%d transactions] %-30s indexed=%.3fms without indexes=%.3fms%n",
+                transactions, name, indexedMillis, sequentialMillis);
+    }
+
+    private double averageMillis(String sql, Object parameter, int runs, boolean disableIndexes) {
+        Long elapsedNanos = transactionTemplate.execute(status -> {
+            if (disableIndexes) {
+                jdbcTemplate.execute("set local enable_indexscan = off");
+                jdbcTemplate.execute("set local enable_indexonlyscan = off");
+                jdbcTemplate.execute("set local enable_bitmapscan = off");
+            }
+            // warm up the buffer cache and the plan
+            jdbcTemplate.queryForList(sql, parameter);
+            long startedAt = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                jdbcTemplate.queryForList(sql, parameter);
+            }
+            return System.nanoTime() - startedAt;
+        });
+        return elapsedNanos / (double) runs / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private void load(String prefix, int transactions) {
+        int wallets = transactions / TRANSACTIONS_PER_WALLET;
+        int customers = wallets / WALLETS_PER_CUSTOMER;
+
+        // ids are taken straight from the sequences so that they never overlap a block handed out to the application
+        jdbcTemplate.update("""
+                insert into customer (customer_id, name, surname, tckn, email, password, role)
+                select nextval('customer_seq'), 'Index', 'Benchmark', ? || g, ? || g || '@benchmark.local', 'not-used', 'BASIC'
+                  from generate_series(1, ?) g
+                """, prefix, prefix, customers);
+        jdbcTemplate.update("""
+                insert into wallet (id, wallet_id, wallet_name, customer_id, currency, active_for_withdraw,
+                                    active_for_shopping, balance, usable_balance, version)
+                select nextval('wallet_seq'), gen_random_uuid()::text, ? || g,
+                       (select customer_id from customer where email = ? || (1 + (g - 1) / ?) || '@benchmark.local'),
+                       'TRY', true, true, 0, 0, 0
+                  from generate_series(1, ?) g
+                """, prefix, prefix, WALLETS_PER_CUSTOMER, wallets);
+        jdbcTemplate.update("""
+                insert into transaction (id, transaction_id, type, opposite_party_type, status, opposite_party,
+                                         wallet_id, amount)
+                select nextval('transaction_seq'), ? || g, 'DEPOSIT', 'IBAN', 'APPROVED', 'TR330006100519786457841326',
+                       w.ids[1 + g % ?], 10.00
+                  from generate_series(1, ?) g,
+                       (select array_agg(id order by id) ids from wallet where wallet_name like ? || '%') w
+                """, prefix, wallets, transactions, prefix);
+        jdbcTemplate.execute("analyze customer");
+        jdbcTemplate.execute("analyze wallet");
+        jdbcTemplate.execute("analyze transaction");
+    }
+}
@@ -0,0 +1,67 @@
+package org.mhejaju.digitalwalletchallenge;
+
+import org.junit.jupiter.api.Test;
+import org.mhejaju.digitalwalletchallenge.entities.OutboxEvent;
+import org.mhejaju.digitalwalletchallenge.repositories.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks which events the relay picks up while one of them waits for its retry: only the events of that wallet wait,
+ * the other wallets' events are still relayed in order. The events are inserted and read in one transaction that is
+ * rolled back, so the scheduled relay never sees them.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class OutboxBackoffTests {
+
+    private static final long BACKING_OFF_WALLET = -1L;
+    private static final long OTHER_WALLET = -2L;
+    private static final long RETRY_DUE_WALLET = -3L;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void eventWaitingForRetry_shouldHoldBackOnlyItsOwnWallet() {
+        List<String> relayed = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            insert(BACKING_OFF_WALLET, "backing-off", "now() + interval '1 minute'");
+            insert(OTHER_WALLET, "other-1", null);
+            insert(BACKING_OFF_WALLET, "behind-backing-off", null);
+            insert(RETRY_DUE_WALLET, "retry-due", "now() - interval '1 second'");
+            insert(OTHER_WALLET, "other-2", null);
+
+            Set<Long> wallets = Set.of(BACKING_OFF_WALLET, OTHER_WALLET, RETRY_DUE_WALLET);
+            return outboxEventRepository.findOldestDue(10_000).stream()
+                    .filter(event -> wallets.contains(event.getWalletId()))
+                    .map(OutboxEvent::getAggregateId)
+                    .toList();
+        });
+
+        assertEquals(List.of("other-1", "retry-due", "other-2"), relayed);
+    }
+
+    private void insert(long walletId, String aggregateId, String nextAttemptAt) {
+        jdbcTemplate.update("""
+                insert into outbox_event (id, wallet_id, aggregate_id, event_type, payload, created_at, attempts,
+                                          next_attempt_at)
+                values (nextval('outbox_event_seq'), ?, ?, 'TRANSACTION_CREATED', '{}', now(), ?, %s)
+                """.formatted(nextAttemptAt == null ? "null" : nextAttemptAt),
+                walletId, aggregateId, nextAttemptAt == null ? 0 : 1);
+    }
+}
@@ -0,0 +1,99 @@
+package org.mhejaju.digitalwalletchallenge;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mhejaju.digitalwalletchallenge.config.ReplicaLagMonitor;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.services.WalletService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes a wallet on the primary only and checks which database the read paths see it in: read-only service methods
+ * go to the replica unless it is considered stale, everything else stays on the primary.
+ */
+@Import(ReplicaTestcontainersConfiguration.class)
+@SpringBootTest(properties = "wallet.replica.enabled=true")
+class ReplicaRoutingTests {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    @Qualifier("replicaContainer")
+    private PostgreSQLContainer<?> replicaContainer;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        // through a connection of its own: the replica pool is read-only, so DDL on it would fail
+        Flyway.configure()
+                .dataSource(replicaContainer.getJdbcUrl(), replicaContainer.getUsername(), replicaContainer.getPassword())
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+        replicaLagMonitor.check();
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Long customerId = jdbcTemplate.queryForObject("select nextval('customer_seq')", Long.class);
+        jdbcTemplate.update("""
+                insert into customer (customer_id, name, surname, tckn, email, password, role)
+                values (?, 'Replica', 'Test', ?, ?, 'secret', 'BASIC')
+                """, customerId, suffix, suffix + "@replica.local");
+        jdbcTemplate.update("""
+                insert into wallet (id, wallet_id, wallet_name, customer_id, currency, active_for_withdraw,
+                                    active_for_shopping, balance, usable_balance, version)
+                values (nextval('wallet_seq'), ?, ?, ?, 'TRY', true, true, 0, 0, 0)
+                """, UUID.randomUUID().toString(), "replica-" + suffix, customerId);
+
+        customer = new Customer();
+        customer.setId(customerId);
+    }
+
+    @Test
+    void readOnlyTransaction_shouldReadFromReplica() {
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+
+        // the wallet only exists on the primary
+        assertTrue(walletService.listWallets(customer).isEmpty());
+    }
+
+    @Test
+    void queryOutsideReadOnlyTransaction_shouldReadFromPrimary() {
+        assertEquals(1, walletRepository.findSummariesByCustomerId(customer.getId()).size());
+    }
+
+    @Test
+    void staleReplica_shouldFallBackToPrimary() {
+        ReflectionTestUtils.setField(replicaLagMonitor, "replicaUsable", false);
+
+        assertEquals(1, walletService.listWallets(customer).size());
+
+        replicaLagMonitor.check();
+        assertTrue(walletService.listWallets(customer).isEmpty());
+    }
+
+}
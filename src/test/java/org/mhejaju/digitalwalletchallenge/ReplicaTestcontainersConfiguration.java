@@ -0,0 +1,37 @@
+package org.mhejaju.digitalwalletchallenge;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistrar;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * A primary and a second, independent PostgreSQL standing in for the replica. Nothing is replicated between them,
+ * which is what lets the routing test tell from the result set which one served a query.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+class ReplicaTestcontainersConfiguration {
+
+    @Bean
+    @ServiceConnection
+    PostgreSQLContainer<?> postgresContainer() {
+        return new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+    }
+
+    @Bean
+    PostgreSQLContainer<?> replicaContainer() {
+        return new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+    }
+
+    @Bean
+    DynamicPropertyRegistrar replicaProperties(PostgreSQLContainer<?> replicaContainer) {
+        return registry -> {
+            registry.add("wallet.replica.datasource.url", replicaContainer::getJdbcUrl);
+            registry.add("wallet.replica.datasource.username", replicaContainer::getUsername);
+            registry.add("wallet.replica.datasource.password", replicaContainer::getPassword);
+        };
+    }
+
+}
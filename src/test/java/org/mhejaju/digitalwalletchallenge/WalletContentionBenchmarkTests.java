@@ -0,0 +1,220 @@
+package org.mhejaju.digitalwalletchallenge;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mhejaju.digitalwalletchallenge.config.WalletConcurrencyMode;
+import org.mhejaju.digitalwalletchallenge.dto.DepositDto;
+import org.mhejaju.digitalwalletchallenge.dto.TransactionStatusChangeRequestDto;
+import org.mhejaju.digitalwalletchallenge.dto.WithdrawDto;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.Transaction;
+import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OppositePartyType;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionStatus;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionType;
+import org.mhejaju.digitalwalletchallenge.exceptions.InsufficientFundsException;
+import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.TransactionRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.services.TransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hammers a single wallet with concurrent deposits, withdrawals and approvals of pending deposits and
+ * checks that no update is lost. Deposits and withdrawals are conditional UPDATEs; approvals go through
+ * the read-modify-write path governed by {@link WalletConcurrencyMode}, and every pending transaction is
+ * offered to two writers to make sure it is only applied once.
+ * Run with {@code ./gradlew benchmark}; the default test task skips it.
+ */
+@Tag("benchmark")
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class WalletContentionBenchmarkTests {
+
+    private static final int WRITERS = 64;
+    private static final int OPERATIONS_PER_WRITER = 50;
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+    private static final BigDecimal PENDING_AMOUNT = new BigDecimal("1000.00");
+    private static final int PENDING_DEPOSITS = 100;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    // the service is a singleton of the cached context shared with the other test classes
+    private Object transactionServiceTarget;
+    private Object configuredMode;
+
+    @BeforeEach
+    void rememberConcurrencyMode() {
+        transactionServiceTarget = AopTestUtils.getUltimateTargetObject(transactionService);
+        configuredMode = ReflectionTestUtils.getField(transactionServiceTarget, "concurrencyMode");
+    }
+
+    @AfterEach
+    void restoreConcurrencyMode() {
+        ReflectionTestUtils.setField(transactionServiceTarget, "concurrencyMode", configuredMode);
+    }
+
+    @ParameterizedTest
+    @EnumSource(WalletConcurrencyMode.class)
+    void concurrentWritersOnOneWallet_shouldNotLoseUpdates(WalletConcurrencyMode mode) throws Exception {
+        ReflectionTestUtils.setField(transactionServiceTarget, "concurrencyMode", mode);
+        Customer customer = saveCustomer(mode);
+        Wallet wallet = saveWallet(customer, mode);
+        Queue<String> pendingApprovals = savePendingDeposits(wallet);
+
+        AtomicInteger deposits = new AtomicInteger();
+        AtomicInteger withdrawals = new AtomicInteger();
+        AtomicInteger approvals = new AtomicInteger();
+        AtomicInteger duplicateApprovals = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        List<Future<?>> writers = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                    try {
+                        switch ((writer + i) % 3) {
+                            case 0 -> {
+                                transactionService.makeDeposit(
+                                        new DepositDto(AMOUNT, wallet.getWalletId(), "IBAN", "TR330006100519786457841326"), customer);
+                                deposits.incrementAndGet();
+                            }
+                            case 1 -> {
+                                transactionService.withdraw(
+                                        new WithdrawDto(AMOUNT, wallet.getWalletId(), "IBAN", "TR330006100519786457841326"), customer);
+                                withdrawals.incrementAndGet();
+                            }
+                            default -> {
+                                String transactionId = pendingApprovals.poll();
+                                if (transactionId != null) {
+                                    approve(customer, transactionId, approvals, duplicateApprovals);
+                                }
+                            }
+                        }
+                    } catch (InsufficientFundsException e) {
+                        rejected.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        pool.shutdown();
+
+        Wallet reloaded = walletRepository.findByWalletId(wallet.getWalletId()).orElseThrow();
+        BigDecimal net = AMOUNT.multiply(BigDecimal.valueOf(deposits.get() - withdrawals.get()));
+        BigDecimal pendingTotal = PENDING_AMOUNT.multiply(BigDecimal.valueOf(PENDING_DEPOSITS));
+        BigDecimal approvedTotal = PENDING_AMOUNT.multiply(BigDecimal.valueOf(approvals.get()));
+        int committed = deposits.get() + withdrawals.get() + approvals.get();
+
+        System.out.printf("[%s] writers=%d committed=%d (deposits=%d withdrawals=%d approvals=%d) rejected=%d "
+                        + "duplicateApprovals=%d failed=%d elapsed=%dms throughput=%.1f ops/s%n",
+                mode, WRITERS, committed, deposits.get(), withdrawals.get(), approvals.get(), rejected.get(),
+                duplicateApprovals.get(), failed.get(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                committed / (elapsedNanos / 1_000_000_000.0));
+
+        assertEquals(0, INITIAL_BALANCE.add(pendingTotal).add(net).compareTo(reloaded.getBalance().toBigDecimal()),
+                "balance lost an update");
+        assertEquals(0, INITIAL_BALANCE.add(approvedTotal).add(net).compareTo(reloaded.getUsableBalance().toBigDecimal()),
+                "usable balance lost an update");
+        assertEquals(PENDING_DEPOSITS + deposits.get() + withdrawals.get(),
+                transactionRepository.findByWalletId(reloaded.getId()).size());
+    }
+
+    private void approve(Customer customer, String transactionId, AtomicInteger approvals, AtomicInteger duplicates) {
+        try {
+            transactionService.changeTransactionStatus(customer,
+                    new TransactionStatusChangeRequestDto(transactionId, TransactionStatus.APPROVED.name()));
+            approvals.incrementAndGet();
+        } catch (RuntimeException e) {
+            if (!"Transaction is already approved".equals(e.getMessage())) {
+                throw e;
+            }
+            duplicates.incrementAndGet();
+        }
+    }
+
+    private Queue<String> savePendingDeposits(Wallet wallet) {
+        Queue<String> transactionIds = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < PENDING_DEPOSITS; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setWallet(wallet);
+            transaction.setType(TransactionType.DEPOSIT);
+            transaction.setStatus(TransactionStatus.PENDING);
+            transaction.setOppositePartyType(OppositePartyType.IBAN);
+            transaction.setOppositeParty("TR330006100519786457841326");
+            transaction.setAmount(Money.of(PENDING_AMOUNT));
+            String transactionId = transactionRepository.save(transaction).getTransactionId();
+            // offered twice so that two writers race to approve the same transaction
+            transactionIds.add(transactionId);
+            transactionIds.add(transactionId);
+        }
+        return transactionIds;
+    }
+
+    private Customer saveCustomer(WalletConcurrencyMode mode) {
+        Customer customer = new Customer();
+        customer.setName("Contention");
+        customer.setSurname(mode.name());
+        customer.setTrIdentityNo(String.format("%011d", System.nanoTime() % 100_000_000_000L));
+        customer.setEmail(mode.name().toLowerCase() + System.nanoTime() + "@benchmark.local");
+        customer.setPassword("not-used");
+        customer.setRole(Role.BASIC);
+        return customerRepository.save(customer);
+    }
+
+    private Wallet saveWallet(Customer customer, WalletConcurrencyMode mode) {
+        Wallet wallet = new Wallet();
+        wallet.setWalletName("contention-" + mode.name() + "-" + System.nanoTime());
+        wallet.setCurrency(Currency.TRY);
+        wallet.setActiveForShopping(true);
+        wallet.setActiveForWithdraw(true);
+        wallet.setBalance(Money.of(INITIAL_BALANCE.add(PENDING_AMOUNT.multiply(BigDecimal.valueOf(PENDING_DEPOSITS)))));
+        wallet.setUsableBalance(Money.of(INITIAL_BALANCE));
+        wallet.setCustomer(customer);
+        return walletRepository.save(wallet);
+    }
+}
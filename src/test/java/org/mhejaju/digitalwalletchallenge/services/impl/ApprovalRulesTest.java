@@ -0,0 +1,114 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mhejaju.digitalwalletchallenge.entities.ApprovalRule;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
+import org.mhejaju.digitalwalletchallenge.entities.enums.CustomerTier;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OppositePartyType;
+import org.mhejaju.digitalwalletchallenge.repositories.ApprovalRuleRepository;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(MockitoExtension.class)
+class ApprovalRulesTest {
+
+    @Mock
+    private ApprovalRuleRepository approvalRuleRepository;
+
+    @InjectMocks
+    private ApprovalRules approvalRules;
+
+    @Test
+    @Order(1)
+    @DisplayName("Before the rules are loaded amounts from 1000 on should require approval")
+    void testRequiresApproval_whenNoRulesLoaded_shouldUseDefaultThreshold() {
+        // Act & Assert
+        assertFalse(approvalRules.requiresApproval(Currency.TRY, OppositePartyType.IBAN, CustomerTier.STANDARD,
+                Money.of("999.99")));
+        assertTrue(approvalRules.requiresApproval(Currency.TRY, OppositePartyType.IBAN, CustomerTier.STANDARD,
+                Money.of("1000.00")));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("The most specific matching rule should win, currency before tier before counterparty type")
+    void testRequiresApproval_whenSeveralRulesMatch_shouldApplyMostSpecific() {
+        // Arrange
+        when(approvalRuleRepository.findAll()).thenReturn(List.of(
+                rule(null, null, null, "1000.00"),
+                rule(null, OppositePartyType.PAYMENT, null, "200.00"),
+                rule(null, null, CustomerTier.PREMIUM, "5000.00"),
+                rule(Currency.USD, null, null, "300.00"),
+                rule(Currency.USD, OppositePartyType.PAYMENT, CustomerTier.PREMIUM, "50.00")));
+
+        // Act
+        approvalRules.reload();
+        ApprovalRuleTable table = approvalRules.table();
+
+        // Assert
+        assertEquals(Money.of("1000.00"), table.threshold(Currency.TRY, OppositePartyType.IBAN, CustomerTier.STANDARD));
+        assertEquals(Money.of("200.00"), table.threshold(Currency.TRY, OppositePartyType.PAYMENT, CustomerTier.STANDARD));
+        assertEquals(Money.of("5000.00"), table.threshold(Currency.TRY, OppositePartyType.PAYMENT, CustomerTier.PREMIUM));
+        assertEquals(Money.of("300.00"), table.threshold(Currency.USD, OppositePartyType.IBAN, CustomerTier.PREMIUM));
+        assertEquals(Money.of("50.00"), table.threshold(Currency.USD, OppositePartyType.PAYMENT, CustomerTier.PREMIUM));
+        assertEquals(5, table.ruleCount());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("An unknown currency should only match rules that apply to any currency")
+    void testRequiresApproval_whenCurrencyUnknown_shouldSkipCurrencyRules() {
+        // Arrange
+        when(approvalRuleRepository.findAll()).thenReturn(List.of(
+                rule(null, null, null, "1000.00"),
+                rule(Currency.USD, null, null, "100.00")));
+
+        // Act
+        approvalRules.reload();
+
+        // Assert
+        assertFalse(approvalRules.requiresApproval(null, OppositePartyType.IBAN, CustomerTier.STANDARD,
+                Money.of("500.00")));
+        assertTrue(approvalRules.requiresApproval(Currency.USD, OppositePartyType.IBAN, CustomerTier.STANDARD,
+                Money.of("500.00")));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("A reload should replace the whole table, dropping rules that were removed")
+    void testReload_whenRuleRemoved_shouldFallBackToDefault() {
+        // Arrange
+        when(approvalRuleRepository.findAll())
+                .thenReturn(List.of(rule(Currency.EUR, null, null, "100.00")))
+                .thenReturn(List.of());
+        approvalRules.reload();
+        ApprovalRuleTable before = approvalRules.table();
+
+        // Act
+        approvalRules.reload();
+
+        // Assert
+        assertEquals(Money.of("100.00"), before.threshold(Currency.EUR, OppositePartyType.IBAN, CustomerTier.STANDARD));
+        assertEquals(Money.of("1000.00"),
+                approvalRules.table().threshold(Currency.EUR, OppositePartyType.IBAN, CustomerTier.STANDARD));
+    }
+
+    private ApprovalRule rule(Currency currency, OppositePartyType oppositePartyType, CustomerTier tier,
+                              String threshold) {
+        ApprovalRule rule = new ApprovalRule();
+        rule.setCurrency(currency);
+        rule.setOppositePartyType(oppositePartyType);
+        rule.setTier(tier);
+        rule.setThreshold(Money.of(threshold));
+        return rule;
+    }
+}
@@ -0,0 +1,450 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mhejaju.digitalwalletchallenge.dto.BatchItemResultDto;
+import org.mhejaju.digitalwalletchallenge.dto.BatchTransactionResponseDto;
+import org.mhejaju.digitalwalletchallenge.dto.BulkTransactionStatusChangeRequestDto;
+import org.mhejaju.digitalwalletchallenge.dto.BulkTransactionStatusChangeResponseDto;
+import org.mhejaju.digitalwalletchallenge.dto.DepositDto;
+import org.mhejaju.digitalwalletchallenge.dto.WithdrawDto;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.Transaction;
+import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionStatus;
+import org.mhejaju.digitalwalletchallenge.exceptions.CustomerNotFoundException;
+import org.mhejaju.digitalwalletchallenge.exceptions.VelocityLimitExceededException;
+import org.mhejaju.digitalwalletchallenge.repositories.ApprovalRuleRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.OutboxEventRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.TransactionRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.TransactionStatusChange;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(MockitoExtension.class)
+class BatchTransactionServiceImplTest {
+
+    private static final String TR_IDENTITY_NO = "12345678901";
+    private static final String WALLET_ID = "test-wallet-123";
+    private static final String OTHER_WALLET_ID = "test-wallet-456";
+    private static final String NON_EXISTENT_WALLET_ID = "non-existent-wallet";
+    private static final String IBAN = "TR330006100519786457841326";
+    private static final String IBAN_TYPE = "IBAN";
+
+    private static final BigDecimal AMOUNT_UNDER_1000 = new BigDecimal("500.00");
+    private static final BigDecimal AMOUNT_OVER_1000 = new BigDecimal("2500.00");
+    private static final BigDecimal SMALL_AMOUNT = new BigDecimal("300.00");
+
+    private static final long CUSTOMER_ID = 1L;
+    private static final long WALLET_PK = 10L;
+    private static final long OTHER_WALLET_PK = 11L;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private WalletCurrencyCache walletCurrencies;
+
+    private final ApprovalRuleRepository approvalRuleRepository = mock(ApprovalRuleRepository.class);
+
+    // the real rules, holding only the default threshold until a test reloads them from approvalRuleRepository
+    @Spy
+    private ApprovalRules approvalRules = new ApprovalRules(approvalRuleRepository);
+
+    // a real limiter with every cap at 0, so it counts nothing unless a test stubs it
+    @Spy
+    private VelocityLimiter velocityLimiter = new VelocityLimiter(mock(LedgerEntryRepository.class),
+            Duration.ofHours(1), 12, 4, 1000, 0, BigDecimal.ZERO, 0, BigDecimal.ZERO);
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private BatchTransactionServiceImpl batchTransactionService;
+
+    private Customer customer;
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setId(CUSTOMER_ID);
+        customer.setTrIdentityNo(TR_IDENTITY_NO);
+
+        wallet = new Wallet();
+        wallet.setId(WALLET_PK);
+        wallet.setWalletId(WALLET_ID);
+        wallet.setActiveForWithdraw(true);
+        wallet.setActiveForShopping(true);
+        wallet.setCustomer(customer);
+
+        // run every chunk inline, as if it were committed
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Deposits of a wallet should be applied with one balance update and inserted with one saveAll")
+    void testMakeDeposits_shouldApplyOneUpdatePerWalletAndSaveAllTransactions() {
+        // Arrange
+        List<DepositDto> deposits = List.of(
+                deposit(AMOUNT_UNDER_1000, WALLET_ID),
+                deposit(AMOUNT_UNDER_1000, OTHER_WALLET_ID),
+                deposit(AMOUNT_OVER_1000, WALLET_ID));
+
+        when(walletRepository.creditIfOwned(WALLET_ID, CUSTOMER_ID, 300_000L, minor(AMOUNT_UNDER_1000)))
+                .thenReturn(Optional.of(WALLET_PK));
+        when(walletRepository.creditIfOwned(OTHER_WALLET_ID, CUSTOMER_ID, minor(AMOUNT_UNDER_1000), minor(AMOUNT_UNDER_1000)))
+                .thenReturn(Optional.of(OTHER_WALLET_PK));
+
+        // Act
+        BatchTransactionResponseDto response = batchTransactionService.makeDeposits(deposits, customer);
+
+        // Assert
+        assertEquals(3, response.succeeded());
+        assertEquals(0, response.failed());
+        assertEquals(List.of(0, 1, 2), response.results().stream().map(BatchItemResultDto::index).toList());
+        assertEquals(WALLET_ID, response.results().get(0).transaction().walletId());
+        assertEquals(OTHER_WALLET_ID, response.results().get(1).transaction().walletId());
+        assertEquals("APPROVED", response.results().get(0).transaction().status());
+        assertEquals("PENDING", response.results().get(2).transaction().status());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> saved = ArgumentCaptor.forClass(List.class);
+        verify(walletRepository, times(2)).creditIfOwned(anyString(), eq(CUSTOMER_ID), anyLong(), anyLong());
+        verify(transactionRepository, times(1)).saveAll(saved.capture());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        assertEquals(3, saved.getValue().size());
+        verify(ledgerEntryRepository, times(1)).postCreated(anyList());
+        verify(outboxEventRepository, times(1)).record(eq("TRANSACTION_CREATED"), anyList());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Deposits into an unknown wallet should fail without affecting the other items")
+    void testMakeDeposits_whenWalletNotFound_shouldOnlyFailItsItems() {
+        // Arrange
+        List<DepositDto> deposits = List.of(
+                deposit(AMOUNT_UNDER_1000, NON_EXISTENT_WALLET_ID),
+                deposit(AMOUNT_UNDER_1000, WALLET_ID));
+
+        when(walletRepository.creditIfOwned(NON_EXISTENT_WALLET_ID, CUSTOMER_ID, minor(AMOUNT_UNDER_1000), minor(AMOUNT_UNDER_1000)))
+                .thenReturn(Optional.empty());
+        when(walletRepository.creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(AMOUNT_UNDER_1000), minor(AMOUNT_UNDER_1000)))
+                .thenReturn(Optional.of(WALLET_PK));
+
+        // Act
+        BatchTransactionResponseDto response = batchTransactionService.makeDeposits(deposits, customer);
+
+        // Assert
+        assertEquals(1, response.succeeded());
+        assertEquals(1, response.failed());
+        assertFalse(response.results().get(0).succeeded());
+        assertNull(response.results().get(0).transaction());
+        assertTrue(response.results().get(0).error().contains(NON_EXISTENT_WALLET_ID));
+        assertTrue(response.results().get(1).succeeded());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Withdrawals covered by the usable balance should be applied with one balance update")
+    void testWithdraw_whenWalletCoversGroup_shouldApplyOneUpdate() {
+        // Arrange
+        List<WithdrawDto> withdrawals = List.of(
+                withdraw(AMOUNT_UNDER_1000, WALLET_ID),
+                withdraw(AMOUNT_OVER_1000, WALLET_ID));
+
+        when(walletRepository.debitIfAvailable(WALLET_ID, CUSTOMER_ID, 300_000L, minor(AMOUNT_UNDER_1000)))
+                .thenReturn(Optional.of(WALLET_PK));
+
+        // Act
+        BatchTransactionResponseDto response = batchTransactionService.withdraw(withdrawals, customer);
+
+        // Assert
+        assertEquals(2, response.succeeded());
+        assertEquals("APPROVED", response.results().get(0).transaction().status());
+        assertEquals("PENDING", response.results().get(1).transaction().status());
+        verify(walletRepository, times(1)).debitIfAvailable(anyString(), anyLong(), anyLong(), anyLong());
+        verify(walletRepository, never()).findByWalletId(anyString());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Withdrawals exceeding the usable balance together should be applied one by one in request order")
+    void testWithdraw_whenGroupExceedsUsableBalance_shouldApplyItemsInOrder() {
+        // Arrange
+        List<WithdrawDto> withdrawals = List.of(
+                withdraw(SMALL_AMOUNT, WALLET_ID),
+                withdraw(SMALL_AMOUNT, WALLET_ID));
+
+        when(walletRepository.debitIfAvailable(WALLET_ID, CUSTOMER_ID, 60_000L, 60_000L))
+                .thenReturn(Optional.empty());
+        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.debitIfAvailable(WALLET_ID, CUSTOMER_ID, minor(SMALL_AMOUNT), minor(SMALL_AMOUNT)))
+                .thenReturn(Optional.of(WALLET_PK))
+                .thenReturn(Optional.empty());
+
+        // Act
+        BatchTransactionResponseDto response = batchTransactionService.withdraw(withdrawals, customer);
+
+        // Assert
+        assertEquals(1, response.succeeded());
+        assertEquals(1, response.failed());
+        assertTrue(response.results().get(0).succeeded());
+        assertFalse(response.results().get(1).succeeded());
+        assertEquals("Not enough funds available in the wallet", response.results().get(1).error());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> saved = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository, times(1)).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals(TransactionStatus.APPROVED, saved.getValue().get(0).getStatus());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Withdrawals from a wallet that is not active for withdraw should all fail without retrying per item")
+    void testWithdraw_whenWalletNotActive_shouldFailAllItemsOfWallet() {
+        // Arrange
+        wallet.setActiveForWithdraw(false);
+        List<WithdrawDto> withdrawals = List.of(
+                withdraw(SMALL_AMOUNT, WALLET_ID),
+                withdraw(SMALL_AMOUNT, WALLET_ID));
+
+        when(walletRepository.debitIfAvailable(eq(WALLET_ID), eq(CUSTOMER_ID), anyLong(), anyLong())).thenReturn(Optional.empty());
+        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+
+        // Act
+        BatchTransactionResponseDto response = batchTransactionService.withdraw(withdrawals, customer);
+
+        // Assert
+        assertEquals(0, response.succeeded());
+        assertEquals(2, response.failed());
+        assertEquals(response.results().get(0).error(), response.results().get(1).error());
+        verify(walletRepository, times(1)).debitIfAvailable(anyString(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("A chunk that fails should be reported as failed while the other chunks are kept")
+    void testMakeDeposits_whenChunkFails_shouldFailOnlyThatChunk() {
+        // Arrange
+        ReflectionTestUtils.setField(batchTransactionService, "chunkSize", 2);
+        List<DepositDto> deposits = List.of(
+                deposit(AMOUNT_UNDER_1000, WALLET_ID),
+                deposit(AMOUNT_UNDER_1000, WALLET_ID),
+                deposit(AMOUNT_UNDER_1000, OTHER_WALLET_ID));
+
+        when(walletRepository.creditIfOwned(WALLET_ID, CUSTOMER_ID, 100_000L, 100_000L))
+                .thenReturn(Optional.of(WALLET_PK));
+        when(walletRepository.creditIfOwned(OTHER_WALLET_ID, CUSTOMER_ID, minor(AMOUNT_UNDER_1000), minor(AMOUNT_UNDER_1000)))
+                .thenThrow(new IllegalStateException("connection reset"));
+
+        // Act
+        BatchTransactionResponseDto response = batchTransactionService.makeDeposits(deposits, customer);
+
+        // Assert
+        assertEquals(2, response.succeeded());
+        assertEquals(1, response.failed());
+        assertEquals(2, response.results().get(2).index());
+        assertEquals("connection reset", response.results().get(2).error());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(transactionRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("Batch for an unknown customer should throw exception")
+    void testMakeDeposits_whenCustomerNotFound_shouldThrowException() {
+        // Arrange
+        when(customerRepository.findByTrIdentityNo(TR_IDENTITY_NO)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(CustomerNotFoundException.class, () ->
+                batchTransactionService.makeDeposits(List.of(deposit(AMOUNT_UNDER_1000, WALLET_ID)), TR_IDENTITY_NO));
+
+        verifyNoInteractions(walletRepository, transactionRepository, transactionTemplate);
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Approving pending transactions should apply one aggregated balance update per wallet")
+    void testChangeTransactionStatuses_whenApproved_shouldApplyOneDeltaPerWallet() {
+        // Arrange
+        BulkTransactionStatusChangeRequestDto request = new BulkTransactionStatusChangeRequestDto(
+                List.of("TX1", "TX2", "TX3", "TX4"), "APPROVED");
+
+        when(transactionRepository.settlePending(List.of("TX1", "TX2", "TX3", "TX4"), "APPROVED")).thenReturn(List.of(
+                statusChange("TX1", WALLET_PK, "DEPOSIT", AMOUNT_OVER_1000),
+                statusChange("TX2", WALLET_PK, "DEPOSIT", new BigDecimal("1500.00")),
+                statusChange("TX3", OTHER_WALLET_PK, "WITHDRAW", new BigDecimal("2000.00"))));
+
+        // Act
+        BulkTransactionStatusChangeResponseDto response = batchTransactionService.changeTransactionStatuses(request);
+
+        // Assert
+        assertEquals("APPROVED", response.status());
+        assertEquals(3, response.changed());
+        assertEquals(List.of("TX4"), response.skippedTransactionIds());
+        assertTrue(response.failedTransactionIds().isEmpty());
+
+        // the wallets are locked before the transaction rows are settled
+        InOrder lockOrder = inOrder(walletRepository, transactionRepository);
+        lockOrder.verify(walletRepository).lockWalletsOfTransactions(List.of("TX1", "TX2", "TX3", "TX4"));
+        lockOrder.verify(transactionRepository).settlePending(List.of("TX1", "TX2", "TX3", "TX4"), "APPROVED");
+
+        // approved deposits release the usable balance, approved withdrawals settle the balance
+        verify(walletRepository, times(1)).applyBalanceDelta(WALLET_PK, 0L, 400_000L);
+        verify(walletRepository, times(1)).applyBalanceDelta(OTHER_WALLET_PK, -200_000L, 0L);
+        verifyNoMoreInteractions(walletRepository);
+        verify(ledgerEntryRepository, times(1)).postSettled(List.of(1L, 2L, 3L));
+        verify(outboxEventRepository, times(1)).record("TRANSACTION_STATUS_CHANGED", List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("Denying pending transactions should revert what was applied when they were created")
+    void testChangeTransactionStatuses_whenDenied_shouldRevertBalances() {
+        // Arrange
+        BulkTransactionStatusChangeRequestDto request = new BulkTransactionStatusChangeRequestDto(
+                List.of("TX1", "TX2", "TX1"), "DENIED");
+
+        when(transactionRepository.settlePending(List.of("TX1", "TX2"), "DENIED")).thenReturn(List.of(
+                statusChange("TX1", WALLET_PK, "DEPOSIT", AMOUNT_OVER_1000),
+                statusChange("TX2", OTHER_WALLET_PK, "WITHDRAW", AMOUNT_OVER_1000)));
+
+        // Act
+        BulkTransactionStatusChangeResponseDto response = batchTransactionService.changeTransactionStatuses(request);
+
+        // Assert
+        assertEquals(2, response.changed());
+        assertTrue(response.skippedTransactionIds().isEmpty());
+        verify(walletRepository, times(1)).applyBalanceDelta(WALLET_PK, -250_000L, 0L);
+        verify(walletRepository, times(1)).applyBalanceDelta(OTHER_WALLET_PK, 0L, minor(AMOUNT_OVER_1000));
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("Transactions of a failed chunk should be reported as failed")
+    void testChangeTransactionStatuses_whenChunkFails_shouldReportChunkAsFailed() {
+        // Arrange
+        ReflectionTestUtils.setField(batchTransactionService, "chunkSize", 1);
+        BulkTransactionStatusChangeRequestDto request = new BulkTransactionStatusChangeRequestDto(
+                List.of("TX1", "TX2"), "APPROVED");
+
+        when(transactionRepository.settlePending(List.of("TX1"), "APPROVED"))
+                .thenReturn(List.of(statusChange("TX1", WALLET_PK, "DEPOSIT", AMOUNT_OVER_1000)));
+        when(transactionRepository.settlePending(List.of("TX2"), "APPROVED"))
+                .thenThrow(new IllegalStateException("deadlock detected"));
+
+        // Act
+        BulkTransactionStatusChangeResponseDto response = batchTransactionService.changeTransactionStatuses(request);
+
+        // Assert
+        assertEquals(1, response.changed());
+        assertEquals(List.of("TX2"), response.failedTransactionIds());
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("A withdrawal over the velocity limit should fail on its own and be left out of the balance update")
+    void testWithdraw_whenItemExceedsVelocityLimit_shouldFailOnlyThatItem() {
+        // Arrange
+        List<WithdrawDto> withdrawals = List.of(
+                withdraw(AMOUNT_UNDER_1000, WALLET_ID),
+                withdraw(AMOUNT_OVER_1000, WALLET_ID));
+
+        doThrow(new VelocityLimitExceededException("limit reached"))
+                .when(velocityLimiter).reserve(WALLET_ID, CUSTOMER_ID, Money.of(AMOUNT_OVER_1000));
+        when(walletRepository.debitIfAvailable(WALLET_ID, CUSTOMER_ID, minor(AMOUNT_UNDER_1000), minor(AMOUNT_UNDER_1000)))
+                .thenReturn(Optional.of(WALLET_PK));
+
+        // Act
+        BatchTransactionResponseDto response = batchTransactionService.withdraw(withdrawals, customer);
+
+        // Assert
+        assertEquals(1, response.succeeded());
+        assertTrue(response.results().get(0).succeeded());
+        assertEquals("limit reached", response.results().get(1).error());
+        verify(walletRepository, times(1)).debitIfAvailable(anyString(), anyLong(), anyLong(), anyLong());
+    }
+
+    private TransactionStatusChange statusChange(String transactionId, long walletPk, String type, BigDecimal amount) {
+        return new TransactionStatusChange() {
+            @Override
+            public Long getId() {
+                return Long.valueOf(transactionId.substring(2));
+            }
+
+            @Override
+            public String getTransactionId() {
+                return transactionId;
+            }
+
+            @Override
+            public Long getWalletId() {
+                return walletPk;
+            }
+
+            @Override
+            public String getType() {
+                return type;
+            }
+
+            @Override
+            public long getAmount() {
+                return minor(amount);
+            }
+        };
+    }
+
+    private DepositDto deposit(BigDecimal amount, String walletId) {
+        return new DepositDto(amount, walletId, IBAN_TYPE, IBAN);
+    }
+
+    private WithdrawDto withdraw(BigDecimal amount, String walletId) {
+        return new WithdrawDto(amount, walletId, IBAN_TYPE, IBAN);
+    }
+
+    // repository amounts are minor units
+    private long minor(BigDecimal amount) {
+        return Money.of(amount).minorUnits();
+    }
+}
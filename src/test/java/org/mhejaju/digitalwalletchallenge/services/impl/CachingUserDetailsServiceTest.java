@@ -0,0 +1,140 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
+import org.mhejaju.digitalwalletchallenge.events.CustomerChangedEvent;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(MockitoExtension.class)
+class CachingUserDetailsServiceTest {
+
+    private static final String EMAIL = "john.doe@example.com";
+
+    @Mock
+    private UserDetailsService delegate;
+
+    private CachingUserDetailsService cachingUserDetailsService;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        cachingUserDetailsService = new CachingUserDetailsService(delegate, 100, Duration.ofMinutes(5));
+
+        customer = new Customer();
+        customer.setId(1L);
+        customer.setEmail(EMAIL);
+        customer.setTrIdentityNo("12345678901");
+        customer.setPassword("hashed");
+        customer.setRole(Role.BASIC);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Customer is loaded once and served from the cache afterwards")
+    void testLoadUserByUsername_whenCalledTwice_shouldHitDelegateOnce() {
+        // arrange
+        when(delegate.loadUserByUsername(EMAIL)).thenReturn(customer);
+
+        // act
+        UserDetails first = cachingUserDetailsService.loadUserByUsername(EMAIL);
+        UserDetails second = cachingUserDetailsService.loadUserByUsername(EMAIL);
+
+        // assert
+        assertSame(first, second);
+        verify(delegate, times(1)).loadUserByUsername(EMAIL);
+        assertEquals(1, cachingUserDetailsService.stats().hitCount());
+        assertEquals(1, cachingUserDetailsService.stats().missCount());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Cached customer is a detached copy of the loaded entity")
+    void testLoadUserByUsername_shouldCacheCopyOfCustomer() {
+        // arrange
+        when(delegate.loadUserByUsername(EMAIL)).thenReturn(customer);
+
+        // act
+        Customer cached = (Customer) cachingUserDetailsService.loadUserByUsername(EMAIL);
+
+        // assert
+        assertNotSame(customer, cached);
+        assertEquals(customer.getId(), cached.getId());
+        assertEquals(customer.getTrIdentityNo(), cached.getTrIdentityNo());
+        assertEquals(customer.getPassword(), cached.getPassword());
+        assertEquals(customer.getRole(), cached.getRole());
+        assertNull(cached.getWallets());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Customer change event evicts the cached entry")
+    void testOnCustomerChanged_shouldReloadOnNextLookup() {
+        // arrange
+        when(delegate.loadUserByUsername(EMAIL)).thenReturn(customer);
+        cachingUserDetailsService.loadUserByUsername(EMAIL);
+
+        // act
+        cachingUserDetailsService.onCustomerChanged(new CustomerChangedEvent(EMAIL));
+        cachingUserDetailsService.loadUserByUsername(EMAIL);
+
+        // assert
+        verify(delegate, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Failed lookups are not cached")
+    void testLoadUserByUsername_whenDelegateThrows_shouldNotCacheFailure() {
+        // arrange
+        when(delegate.loadUserByUsername(EMAIL))
+                .thenThrow(new BadCredentialsException("Email address or password is incorrect"))
+                .thenReturn(customer);
+
+        // act & assert
+        assertThrows(BadCredentialsException.class, () -> cachingUserDetailsService.loadUserByUsername(EMAIL));
+        assertEquals(customer.getId(), ((Customer) cachingUserDetailsService.loadUserByUsername(EMAIL)).getId());
+        verify(delegate, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("A customer evicted while its lookup is in flight is not put back into the cache")
+    void testLoadUserByUsername_whenEvictedDuringLoad_shouldNotCacheStaleCustomer() {
+        // arrange
+        Customer changed = new Customer();
+        changed.setId(1L);
+        changed.setEmail(EMAIL);
+        changed.setPassword("rehashed");
+        changed.setRole(Role.ADMIN);
+        when(delegate.loadUserByUsername(EMAIL))
+                .thenAnswer(invocation -> {
+                    // the customer is changed and evicted after the old row was read
+                    cachingUserDetailsService.onCustomerChanged(new CustomerChangedEvent(EMAIL));
+                    return customer;
+                })
+                .thenReturn(changed);
+
+        // act
+        UserDetails stale = cachingUserDetailsService.loadUserByUsername(EMAIL);
+        UserDetails fresh = cachingUserDetailsService.loadUserByUsername(EMAIL);
+
+        // assert
+        assertEquals("hashed", stale.getPassword());
+        assertEquals("rehashed", fresh.getPassword());
+        assertEquals(Role.ADMIN, ((Customer) fresh).getRole());
+        verify(delegate, times(2)).loadUserByUsername(EMAIL);
+    }
+}
@@ -0,0 +1,149 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.enums.CustomerTier;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(MockitoExtension.class)
+class JwtServiceTest {
+
+    private static final String SECRET = "59b99a3fd4233fcee4f9d2defa0ab23f2df6f065f9faf7d4514291e01288bb61";
+    private static final String OTHER_SECRET = "0f1e2d3c4b5a69788796a5b4c3d2e1f00f1e2d3c4b5a69788796a5b4c3d2e1f0";
+    private static final String EMAIL = "john.doe@example.com";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @InjectMocks
+    private JwtService jwtService;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtService, "JWT_SECRET_KEY", SECRET);
+        ReflectionTestUtils.setField(jwtService, "expiration", 3600000);
+        jwtService.init();
+
+        customer = new Customer();
+        customer.setId(1L);
+        customer.setEmail(EMAIL);
+        customer.setTrIdentityNo("12345678901");
+        customer.setRole(Role.BASIC);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Signing key is built once and reused")
+    void testGetSignInKey_shouldReturnSameInstance() {
+        assertSame(jwtService.getSignInKey(), jwtService.getSignInKey());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Claims parsed once can be reused for subject and validity checks")
+    void testExtractAllClaims_whenTokenValid_shouldReturnReusableClaims() {
+        // arrange
+        String token = jwtService.generateToken(customer);
+
+        // act
+        Claims claims = jwtService.extractAllClaims(token);
+
+        // assert
+        assertEquals(EMAIL, claims.getSubject());
+        assertFalse(jwtService.isTokenExpired(claims));
+        assertTrue(jwtService.isTokenValid(claims, customer));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Claims issued for another user are not valid for the given user")
+    void testIsTokenValid_whenSubjectDiffers_shouldReturnFalse() {
+        // arrange
+        Customer other = new Customer();
+        other.setEmail("jane.doe@example.com");
+        other.setRole(Role.BASIC);
+        Claims claims = jwtService.extractAllClaims(jwtService.generateToken(other));
+
+        // act & assert
+        assertFalse(jwtService.isTokenValid(claims, customer));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Token signed with a different key is rejected")
+    void testExtractAllClaims_whenSignedWithDifferentKey_shouldThrowException() {
+        // arrange
+        JwtService otherService = new JwtService(userDetailsService);
+        ReflectionTestUtils.setField(otherService, "JWT_SECRET_KEY", OTHER_SECRET);
+        ReflectionTestUtils.setField(otherService, "expiration", 3600000);
+        otherService.init();
+        String token = otherService.generateToken(customer);
+
+        // act & assert
+        assertThrows(SignatureException.class, () -> jwtService.extractAllClaims(token));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Expired token is rejected while parsing")
+    void testExtractAllClaims_whenTokenExpired_shouldThrowException() {
+        // arrange
+        ReflectionTestUtils.setField(jwtService, "expiration", -1000);
+        String token = jwtService.generateToken(customer);
+
+        // act & assert
+        assertThrows(ExpiredJwtException.class, () -> jwtService.extractAllClaims(token));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Principal is rebuilt from the customer claims without a lookup")
+    void testExtractCustomer_whenCustomerClaimsPresent_shouldBuildPrincipal() {
+        // arrange
+        customer.setRole(Role.ADMIN);
+        customer.setTier(CustomerTier.PREMIUM);
+        Claims claims = jwtService.extractAllClaims(jwtService.generateToken(customer));
+
+        // act
+        Optional<Customer> principal = jwtService.extractCustomer(claims);
+
+        // assert
+        assertTrue(principal.isPresent());
+        assertEquals(1L, principal.get().getId());
+        assertEquals(EMAIL, principal.get().getUsername());
+        assertEquals("12345678901", principal.get().getTrIdentityNo());
+        assertEquals(Role.ADMIN, principal.get().getRole());
+        assertEquals(CustomerTier.PREMIUM, principal.get().getTier());
+        assertTrue(jwtService.isTokenValid(claims, principal.get()));
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("No principal is built from tokens without customer claims")
+    void testExtractCustomer_whenCustomerClaimsMissing_shouldReturnEmpty() {
+        // arrange
+        Claims claims = jwtService.extractAllClaims(jwtService.generateRefresh(new HashMap<>(), customer));
+
+        // act & assert
+        assertTrue(jwtService.extractCustomer(claims).isEmpty());
+        verifyNoInteractions(userDetailsService);
+    }
+}
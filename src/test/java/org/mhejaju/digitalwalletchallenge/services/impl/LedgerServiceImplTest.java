@@ -0,0 +1,137 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mhejaju.digitalwalletchallenge.dto.LedgerBalanceDto;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.exceptions.ResourceNotFoundException;
+import org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.LedgerBalance;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(MockitoExtension.class)
+class LedgerServiceImplTest {
+
+    private static final String WALLET_ID = "ebed7406-0593-4e01-bd7b-7f5abee2315f";
+    private static final long WALLET_PK = 7L;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @InjectMocks
+    private LedgerServiceImpl ledgerService;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        wallet = new Wallet();
+        wallet.setId(WALLET_PK);
+        wallet.setWalletId(WALLET_ID);
+        wallet.setBalance(Money.of("1900.00"));
+        wallet.setUsableBalance(Money.of("400.00"));
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Current balance is rebuilt as AVAILABLE + PENDING and compared with the wallet")
+    void testGetBalance_whenNoPointInTime_shouldCompareWithWallet() {
+        // Arrange
+        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(ledgerEntryRepository.rebuildBalance(eq(WALLET_PK), any(Instant.class)))
+                .thenReturn(ledgerBalance("400.00", "1500.00", 12));
+
+        // Act
+        LedgerBalanceDto response = ledgerService.getBalance(WALLET_ID, null);
+
+        // Assert
+        assertNull(response.at());
+        assertEquals(new BigDecimal("1900.00"), response.balance());
+        assertEquals(new BigDecimal("400.00"), response.usableBalance());
+        assertEquals(12, response.replayedEntries());
+        assertTrue(response.matchesWallet());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Current balance that differs from the wallet is reported as a mismatch")
+    void testGetBalance_whenLedgerDiffersFromWallet_shouldReportMismatch() {
+        // Arrange
+        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(ledgerEntryRepository.rebuildBalance(eq(WALLET_PK), any(Instant.class)))
+                .thenReturn(ledgerBalance("400.00", "1000.00", 3));
+
+        // Act
+        LedgerBalanceDto response = ledgerService.getBalance(WALLET_ID, null);
+
+        // Assert
+        assertEquals(new BigDecimal("1400.00"), response.balance());
+        assertFalse(response.matchesWallet());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Balance at a past point in time is rebuilt up to that instant and not compared")
+    void testGetBalance_whenPointInTimeGiven_shouldRebuildUpToIt() {
+        // Arrange
+        Instant at = Instant.parse("2025-11-09T15:00:00Z");
+        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(ledgerEntryRepository.rebuildBalance(WALLET_PK, at)).thenReturn(ledgerBalance("100.00", "0.00", 1));
+
+        // Act
+        LedgerBalanceDto response = ledgerService.getBalance(WALLET_ID, at);
+
+        // Assert
+        assertEquals(at, response.at());
+        assertEquals(new BigDecimal("100.00"), response.balance());
+        assertNull(response.matchesWallet());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Rebuilding the balance of an unknown wallet should throw exception")
+    void testGetBalance_whenWalletNotFound_shouldThrowException() {
+        // Arrange
+        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> ledgerService.getBalance(WALLET_ID, null));
+        verify(ledgerEntryRepository, never()).rebuildBalance(anyLong(), any());
+    }
+
+    private LedgerBalance ledgerBalance(String available, String pending, long replayedEntries) {
+        return new LedgerBalance() {
+            @Override
+            public long getAvailable() {
+                return Money.of(available).minorUnits();
+            }
+
+            @Override
+            public long getPending() {
+                return Money.of(pending).minorUnits();
+            }
+
+            @Override
+            public long getReplayedEntries() {
+                return replayedEntries;
+            }
+        };
+    }
+}
@@ -0,0 +1,208 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mhejaju.digitalwalletchallenge.entities.OutboxEvent;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OutboxEventType;
+import org.mhejaju.digitalwalletchallenge.events.OutboxMessage;
+import org.mhejaju.digitalwalletchallenge.repositories.OutboxEventRepository;
+import org.mhejaju.digitalwalletchallenge.services.OutboxTransport;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxTransport outboxTransport;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 2);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Relayed events should be published oldest first and then deleted")
+    void testRelay_whenEventsPending_shouldPublishThenDelete() {
+        // Arrange
+        when(outboxEventRepository.tryRelayLock(OutboxRelay.RELAY_LOCK_KEY)).thenReturn(true);
+        when(outboxEventRepository.findOldestDue(2)).thenReturn(List.of(event(1L)));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OutboxMessage>> published = ArgumentCaptor.forClass(List.class);
+        var inOrder = inOrder(outboxTransport, outboxEventRepository);
+        inOrder.verify(outboxTransport).publish(published.capture());
+        inOrder.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+        assertEquals(1, published.getValue().size());
+        assertEquals(1L, published.getValue().getFirst().id());
+        assertEquals(OutboxEventType.TRANSACTION_CREATED, published.getValue().getFirst().eventType());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("A full batch should be followed by another poll until the outbox is drained")
+    void testRelay_whenBatchFull_shouldKeepRelaying() {
+        // Arrange
+        when(outboxEventRepository.tryRelayLock(OutboxRelay.RELAY_LOCK_KEY)).thenReturn(true);
+        when(outboxEventRepository.findOldestDue(2))
+                .thenReturn(List.of(event(1L), event(2L)))
+                .thenReturn(List.of(event(3L)));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(outboxTransport, times(2)).publish(anyList());
+        verify(outboxEventRepository, times(1)).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxEventRepository, times(1)).deleteAllByIdInBatch(List.of(3L));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Another instance holding the relay lock should leave the outbox untouched")
+    void testRelay_whenLockHeldElsewhere_shouldDoNothing() {
+        // Arrange
+        when(outboxEventRepository.tryRelayLock(OutboxRelay.RELAY_LOCK_KEY)).thenReturn(false);
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(outboxEventRepository, never()).findOldestDue(anyInt());
+        verify(outboxTransport, never()).publish(anyList());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("A failing transport should leave the event in the outbox and record the failure for a later retry")
+    void testRelay_whenTransportFails_shouldRecordFailure() {
+        // Arrange
+        when(outboxEventRepository.tryRelayLock(OutboxRelay.RELAY_LOCK_KEY)).thenReturn(true);
+        when(outboxEventRepository.findOldestDue(2)).thenReturn(List.of(event(1L)));
+        when(outboxEventRepository.findOldestDue(1)).thenReturn(List.of(event(1L)));
+        doThrow(new IllegalStateException("broker unavailable")).when(outboxTransport).publish(anyList());
+        Instant before = Instant.now();
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        ArgumentCaptor<Instant> nextAttemptAt = ArgumentCaptor.forClass(Instant.class);
+        verify(outboxEventRepository).recordFailure(eq(1L), contains("broker unavailable"), nextAttemptAt.capture());
+        assertFalse(nextAttemptAt.getValue().isBefore(before.plusSeconds(1)));
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(anyList());
+        verify(outboxEventRepository, never()).moveToDeadLetter(anyLong());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("An event failing for the last allowed time should be dead-lettered and no longer hold back the rest")
+    void testRelay_whenEventFailsTooOften_shouldMoveItToDeadLetter() {
+        // Arrange
+        OutboxEvent poison = event(2L);
+        poison.setAttempts(9);
+        when(outboxEventRepository.tryRelayLock(OutboxRelay.RELAY_LOCK_KEY)).thenReturn(true);
+        when(outboxEventRepository.findOldestDue(2)).thenReturn(List.of(event(1L), poison));
+        when(outboxEventRepository.findOldestDue(1))
+                .thenReturn(List.of(event(1L)))
+                .thenReturn(List.of(poison));
+        doAnswer(invocation -> {
+            List<OutboxMessage> messages = invocation.getArgument(0);
+            if (messages.stream().anyMatch(message -> message.id() == 2L)) {
+                throw new IllegalStateException("cannot be serialized");
+            }
+            return null;
+        }).when(outboxTransport).publish(anyList());
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        var inOrder = inOrder(outboxEventRepository);
+        inOrder.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+        inOrder.verify(outboxEventRepository).recordFailure(eq(2L), contains("cannot be serialized"), any());
+        inOrder.verify(outboxEventRepository).moveToDeadLetter(2L);
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("An event waiting for its retry should hold back only its own wallet, other wallets are still relayed")
+    void testRelay_whenEventBacksOff_shouldStillRelayOtherWallets() {
+        // Arrange
+        OutboxEvent otherWallet = event(2L);
+        otherWallet.setWalletId(8L);
+        when(outboxEventRepository.tryRelayLock(OutboxRelay.RELAY_LOCK_KEY)).thenReturn(true);
+        // the first poll fails on event 1 of wallet 7, the next one no longer returns wallet 7's events
+        when(outboxEventRepository.findOldestDue(2))
+                .thenReturn(List.of(event(1L), otherWallet))
+                .thenReturn(List.of(otherWallet));
+        when(outboxEventRepository.findOldestDue(1)).thenReturn(List.of(event(1L)));
+        doAnswer(invocation -> {
+            List<OutboxMessage> messages = invocation.getArgument(0);
+            if (messages.stream().anyMatch(message -> message.id() == 1L)) {
+                throw new IllegalStateException("broker unavailable");
+            }
+            return null;
+        }).when(outboxTransport).publish(anyList());
+
+        // Act
+        outboxRelay.relay();
+        outboxRelay.relay();
+
+        // Assert
+        verify(outboxEventRepository).recordFailure(eq(1L), contains("broker unavailable"), any());
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(2L));
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    private OutboxEvent event(long id) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setWalletId(7L);
+        event.setAggregateId("TX" + id);
+        event.setEventType(OutboxEventType.TRANSACTION_CREATED);
+        event.setPayload("{}");
+        event.setCreatedAt(Instant.parse("2025-11-09T15:00:00Z"));
+        return event;
+    }
+}
@@ -0,0 +1,103 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class SlidingWindowCountersTest {
+
+    // one hour in buckets of ten minutes
+    private static final long BUCKET_MILLIS = 600_000L;
+    private static final long NOW = 1_000 * BUCKET_MILLIS;
+
+    private final SlidingWindowCounters<String> counters =
+            new SlidingWindowCounters<>(Duration.ofHours(1), 6, 4, 100);
+
+    @Test
+    @Order(1)
+    @DisplayName("Events over the count or the amount cap should be refused and not counted")
+    void testTryAdd_whenCapReached_shouldRefuse() {
+        assertTrue(counters.tryAdd("w1", 300, NOW, 2, 1000));
+        assertTrue(counters.tryAdd("w1", 300, NOW, 2, 1000));
+        assertFalse(counters.tryAdd("w1", 100, NOW, 2, 1000));
+        assertFalse(counters.tryAdd("w2", 1001, NOW, 2, 1000));
+
+        assertEquals(2, counters.count("w1", NOW));
+        assertEquals(600, counters.amount("w1", NOW));
+        assertEquals(0, counters.count("w2", NOW));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Events should stop counting once their bucket has left the window")
+    void testTryAdd_whenWindowSlides_shouldExpireOldBuckets() {
+        assertTrue(counters.tryAdd("w1", 500, NOW, 1, 0));
+        assertTrue(counters.tryAdd("w1", 500, NOW + 5 * BUCKET_MILLIS, 0, 0));
+
+        assertFalse(counters.tryAdd("w1", 500, NOW + 5 * BUCKET_MILLIS, 2, 0));
+        assertEquals(1, counters.count("w1", NOW + 6 * BUCKET_MILLIS));
+        assertTrue(counters.tryAdd("w1", 500, NOW + 6 * BUCKET_MILLIS, 2, 0));
+        assertEquals(0, counters.count("w1", NOW + 12 * BUCKET_MILLIS));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Removing an event should free its share of the caps, but not after its bucket was reused")
+    void testRemove_shouldOnlyTakeBackLiveEvents() {
+        counters.tryAdd("w1", 400, NOW, 0, 0);
+        counters.remove("w1", 400, NOW);
+        assertEquals(0, counters.count("w1", NOW));
+
+        counters.tryAdd("w1", 400, NOW, 0, 0);
+        counters.tryAdd("w1", 700, NOW + 6 * BUCKET_MILLIS, 0, 0);
+        counters.remove("w1", 400, NOW);
+        assertEquals(700, counters.amount("w1", NOW + 6 * BUCKET_MILLIS));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Rebuilt events older than the window should be ignored")
+    void testAdd_whenEventOutsideWindow_shouldIgnoreIt() {
+        counters.add("w1", 100, NOW - 6 * BUCKET_MILLIS, NOW);
+        counters.add("w1", 200, NOW - 5 * BUCKET_MILLIS, NOW);
+
+        assertEquals(1, counters.count("w1", NOW));
+        assertEquals(200, counters.amount("w1", NOW));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Keys without events in the window should be dropped to keep the number of keys bounded")
+    void testTryAdd_whenStripeFullOfExpiredKeys_shouldDropThem() {
+        SlidingWindowCounters<String> small = new SlidingWindowCounters<>(Duration.ofHours(1), 6, 1, 3);
+        for (int i = 0; i < 3; i++) {
+            small.tryAdd("old" + i, 1, NOW, 0, 0);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            small.tryAdd("new" + i, 1, NOW + 6 * BUCKET_MILLIS, 0, 0);
+        }
+
+        assertEquals(3, small.size());
+        assertEquals(1, small.count("new0", NOW + 6 * BUCKET_MILLIS));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("A key with events in the window should never be dropped, however many keys are added")
+    void testTryAdd_whenStripeFullOfActiveKeys_shouldKeepTheirCounts() {
+        SlidingWindowCounters<String> small = new SlidingWindowCounters<>(Duration.ofHours(1), 6, 1, 3);
+        assertTrue(small.tryAdd("busy", 500, NOW, 1, 0));
+
+        for (int i = 0; i < 1_000; i++) {
+            small.tryAdd("w" + i, 1, NOW + BUCKET_MILLIS, 0, 0);
+        }
+
+        assertEquals(1_001, small.size());
+        assertEquals(1, small.count("busy", NOW + BUCKET_MILLIS));
+        assertFalse(small.tryAdd("busy", 500, NOW + BUCKET_MILLIS, 1, 0));
+    }
+}
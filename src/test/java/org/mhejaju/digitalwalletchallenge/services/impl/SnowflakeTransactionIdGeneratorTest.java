@@ -0,0 +1,108 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class SnowflakeTransactionIdGeneratorTest {
+
+    private static final long NOW = SnowflakeTransactionIdGenerator.EPOCH_MILLIS + 1_000_000L;
+
+    @Test
+    @Order(1)
+    @DisplayName("Ids are fixed width Crockford base32")
+    void testNextId_shouldBeFixedWidthBase32() {
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator(7);
+
+        String id = generator.nextId();
+
+        assertEquals(SnowflakeTransactionIdGenerator.ID_LENGTH, id.length());
+        assertTrue(id.matches("[0-9A-HJKMNP-TV-Z]+"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Ids within the same millisecond are unique and increasing, also past the sequence limit")
+    void testNextId_whenClockDoesNotAdvance_shouldStayMonotonic() {
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator(1, () -> NOW);
+
+        String previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            String next = generator.nextId();
+            assertTrue(next.compareTo(previous) > 0, next + " should sort after " + previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Ids keep increasing when the wall clock moves backwards")
+    void testNextId_whenClockMovesBackwards_shouldStayMonotonic() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator(1, clock::get);
+
+        String beforeAdjustment = generator.nextId();
+        clock.addAndGet(-5_000);
+        String afterAdjustment = generator.nextId();
+
+        assertTrue(afterAdjustment.compareTo(beforeAdjustment) > 0);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Nodes generating at the same instant never collide")
+    void testNextId_whenDifferentNodes_shouldNotCollide() {
+        SnowflakeTransactionIdGenerator first = new SnowflakeTransactionIdGenerator(1, () -> NOW);
+        SnowflakeTransactionIdGenerator second = new SnowflakeTransactionIdGenerator(2, () -> NOW);
+
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(ids.add(first.nextId()));
+            assertTrue(ids.add(second.nextId()));
+        }
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Concurrent callers never receive the same id")
+    void testNextId_whenCalledConcurrently_shouldNotCollide() throws Exception {
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator(3);
+        int threads = 8;
+        int idsPerThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    List<String> ids = new ArrayList<>(idsPerThread);
+                    for (int i = 0; i < idsPerThread; i++) {
+                        ids.add(generator.nextId());
+                    }
+                    return ids;
+                }));
+            }
+
+            Set<String> unique = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                unique.addAll(future.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(threads * idsPerThread, unique.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Node id outside the 10 bit range is rejected")
+    void testConstructor_whenNodeIdOutOfRange_shouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeTransactionIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeTransactionIdGenerator(SnowflakeTransactionIdGenerator.MAX_NODE_ID + 1));
+    }
+}
@@ -0,0 +1,105 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.enums.CustomerTier;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Role;
+import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.CustomerAccess;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    private static final long CUSTOMER_ID = 1L;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @InjectMocks
+    private TokenRevocationService tokenRevocationService;
+
+    private Customer principal;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenRevocationService, "revocationCheckTtl", Duration.ofMinutes(5));
+
+        principal = new Customer();
+        principal.setId(CUSTOMER_ID);
+        principal.setRole(Role.BASIC);
+        principal.setTier(CustomerTier.STANDARD);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Principal is accepted and the role and tier lookup is reused within the TTL")
+    void testIsRevoked_whenRoleUnchanged_shouldLookUpOnceWithinTtl() {
+        // arrange
+        when(customerRepository.findAccessById(CUSTOMER_ID))
+                .thenReturn(Optional.of(new CustomerAccess(Role.BASIC, CustomerTier.STANDARD)));
+
+        // act & assert
+        assertFalse(tokenRevocationService.isRevoked(principal));
+        assertFalse(tokenRevocationService.isRevoked(principal));
+        verify(customerRepository, times(1)).findAccessById(CUSTOMER_ID);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Principal is revoked when the customer's role has changed")
+    void testIsRevoked_whenRoleChanged_shouldReturnTrue() {
+        // arrange
+        when(customerRepository.findAccessById(CUSTOMER_ID))
+                .thenReturn(Optional.of(new CustomerAccess(Role.ADMIN, CustomerTier.STANDARD)));
+
+        // act & assert
+        assertTrue(tokenRevocationService.isRevoked(principal));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Principal is revoked when the customer's tier has changed")
+    void testIsRevoked_whenTierChanged_shouldReturnTrue() {
+        // arrange
+        when(customerRepository.findAccessById(CUSTOMER_ID))
+                .thenReturn(Optional.of(new CustomerAccess(Role.BASIC, CustomerTier.PREMIUM)));
+
+        // act & assert
+        assertTrue(tokenRevocationService.isRevoked(principal));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Principal is revoked when the customer no longer exists")
+    void testIsRevoked_whenCustomerRemoved_shouldReturnTrue() {
+        // arrange
+        when(customerRepository.findAccessById(CUSTOMER_ID)).thenReturn(Optional.empty());
+
+        // act & assert
+        assertTrue(tokenRevocationService.isRevoked(principal));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Zero TTL disables the revocation check")
+    void testIsRevoked_whenTtlIsZero_shouldNotQueryDatabase() {
+        // arrange
+        ReflectionTestUtils.setField(tokenRevocationService, "revocationCheckTtl", Duration.ZERO);
+
+        // act & assert
+        assertFalse(tokenRevocationService.isRevoked(principal));
+        verifyNoInteractions(customerRepository);
+    }
+}
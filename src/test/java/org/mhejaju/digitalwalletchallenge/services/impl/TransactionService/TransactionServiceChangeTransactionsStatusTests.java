@@ -1,9 +1,13 @@
 package org.mhejaju.digitalwalletchallenge.services.impl.TransactionService;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mhejaju.digitalwalletchallenge.config.WalletConcurrencyMode;
 import org.mhejaju.digitalwalletchallenge.dto.TransactionStatusChangeRequestDto;
 import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
 import org.mhejaju.digitalwalletchallenge.entities.Transaction;
 import org.mhejaju.digitalwalletchallenge.entities.Wallet;
 import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionStatus;
@@ -11,14 +15,18 @@ import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionType;
 import org.mhejaju.digitalwalletchallenge.exceptions.CustomerNotFoundException;
 import org.mhejaju.digitalwalletchallenge.exceptions.TransactionNotFoundException;
 import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.OutboxEventRepository;
 import org.mhejaju.digitalwalletchallenge.repositories.TransactionRepository;
 import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
 import org.mhejaju.digitalwalletchallenge.services.impl.TransactionServiceImpl;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,6 +46,15 @@ class TransactionServiceChangeTransactionsStatusTests {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
@@ -47,9 +64,9 @@ class TransactionServiceChangeTransactionsStatusTests {
     private static final String TR_IDENTITY_NO = "12345678901";
     private static final String CUSTOMER_TR_IDENTITY_NO_2 = "98765432109";
     private static final String CUSTOMER_EMAIL = "john.doe@example.com";
-    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1000.00);
-    private static final BigDecimal INITIAL_USABLE_BALANCE = BigDecimal.valueOf(500.00);
-    private static final BigDecimal TRANSACTION_AMOUNT = BigDecimal.valueOf(300.00);
+    private static final Money INITIAL_BALANCE = Money.of("1000.00");
+    private static final Money INITIAL_USABLE_BALANCE = Money.of("500.00");
+    private static final Money TRANSACTION_AMOUNT = Money.of("300.00");
 
     private Customer customer;
     private Customer differentCustomer;
@@ -102,9 +119,9 @@ class TransactionServiceChangeTransactionsStatusTests {
 
         when(transactionRepository.findByTransactionId(TRANSACTION_ID)).thenReturn(Optional.of(transaction));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(walletRepository.saveAndFlush(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        BigDecimal expectedUsableBalance = INITIAL_USABLE_BALANCE.add(TRANSACTION_AMOUNT);
+        Money expectedUsableBalance = INITIAL_USABLE_BALANCE.plus(TRANSACTION_AMOUNT);
 
         // Act
         transactionService.changeTransactionStatus(customer, request);
@@ -115,8 +132,11 @@ class TransactionServiceChangeTransactionsStatusTests {
         assertEquals(INITIAL_BALANCE, wallet.getBalance());
 
         verify(transactionRepository, times(1)).findByTransactionId(TRANSACTION_ID);
+        verify(entityManager, times(1)).refresh(wallet, LockModeType.PESSIMISTIC_WRITE);
         verify(transactionRepository, times(1)).save(transaction);
-        verify(walletRepository, times(1)).save(wallet);
+        verify(walletRepository, times(1)).saveAndFlush(wallet);
+        verify(ledgerEntryRepository, times(1)).postSettled(List.of(transaction.getId()));
+        verify(outboxEventRepository, times(1)).record("TRANSACTION_STATUS_CHANGED", List.of(transaction.getId()));
     }
 
     @Test
@@ -132,9 +152,9 @@ class TransactionServiceChangeTransactionsStatusTests {
 
         when(transactionRepository.findByTransactionId(TRANSACTION_ID)).thenReturn(Optional.of(transaction));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(walletRepository.saveAndFlush(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        BigDecimal expectedBalance = INITIAL_BALANCE.subtract(TRANSACTION_AMOUNT);
+        Money expectedBalance = INITIAL_BALANCE.minus(TRANSACTION_AMOUNT);
 
         // Act
         transactionService.changeTransactionStatus(customer, request);
@@ -145,7 +165,7 @@ class TransactionServiceChangeTransactionsStatusTests {
         assertEquals(INITIAL_USABLE_BALANCE, wallet.getUsableBalance());
 
         verify(transactionRepository, times(1)).save(transaction);
-        verify(walletRepository, times(1)).save(wallet);
+        verify(walletRepository, times(1)).saveAndFlush(wallet);
     }
 
     @Test
@@ -161,9 +181,9 @@ class TransactionServiceChangeTransactionsStatusTests {
 
         when(transactionRepository.findByTransactionId(TRANSACTION_ID)).thenReturn(Optional.of(transaction));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(walletRepository.saveAndFlush(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        BigDecimal expectedBalance = INITIAL_BALANCE.subtract(TRANSACTION_AMOUNT);
+        Money expectedBalance = INITIAL_BALANCE.minus(TRANSACTION_AMOUNT);
 
         // Act
         transactionService.changeTransactionStatus(customer, request);
@@ -174,7 +194,7 @@ class TransactionServiceChangeTransactionsStatusTests {
         assertEquals(INITIAL_USABLE_BALANCE, wallet.getUsableBalance());
 
         verify(transactionRepository, times(1)).save(transaction);
-        verify(walletRepository, times(1)).save(wallet);
+        verify(walletRepository, times(1)).saveAndFlush(wallet);
     }
 
     @Test
@@ -190,9 +210,9 @@ class TransactionServiceChangeTransactionsStatusTests {
 
         when(transactionRepository.findByTransactionId(TRANSACTION_ID)).thenReturn(Optional.of(transaction));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(walletRepository.saveAndFlush(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        BigDecimal expectedUsableBalance = INITIAL_USABLE_BALANCE.add(TRANSACTION_AMOUNT);
+        Money expectedUsableBalance = INITIAL_USABLE_BALANCE.plus(TRANSACTION_AMOUNT);
 
         // Act
         transactionService.changeTransactionStatus(customer, request);
@@ -203,7 +223,7 @@ class TransactionServiceChangeTransactionsStatusTests {
         assertEquals(expectedUsableBalance, wallet.getUsableBalance());
 
         verify(transactionRepository, times(1)).save(transaction);
-        verify(walletRepository, times(1)).save(wallet);
+        verify(walletRepository, times(1)).saveAndFlush(wallet);
     }
 
     @Test
@@ -225,7 +245,7 @@ class TransactionServiceChangeTransactionsStatusTests {
 
         verify(transactionRepository, times(1)).findByTransactionId("non-existent-transaction");
         verify(transactionRepository, never()).save(any(Transaction.class));
-        verify(walletRepository, never()).save(any(Wallet.class));
+        verify(walletRepository, never()).saveAndFlush(any(Wallet.class));
     }
 
     @Test
@@ -247,8 +267,9 @@ class TransactionServiceChangeTransactionsStatusTests {
         });
 
         verify(transactionRepository, times(1)).findByTransactionId(TRANSACTION_ID);
+        verifyNoInteractions(entityManager);
         verify(transactionRepository, never()).save(any(Transaction.class));
-        verify(walletRepository, never()).save(any(Wallet.class));
+        verify(walletRepository, never()).saveAndFlush(any(Wallet.class));
     }
 
     @Test
@@ -273,7 +294,7 @@ class TransactionServiceChangeTransactionsStatusTests {
 
         verify(transactionRepository, times(1)).findByTransactionId(TRANSACTION_ID);
         verify(transactionRepository, never()).save(any(Transaction.class));
-        verify(walletRepository, never()).save(any(Wallet.class));
+        verify(walletRepository, never()).saveAndFlush(any(Wallet.class));
     }
 
     @Test
@@ -298,7 +319,7 @@ class TransactionServiceChangeTransactionsStatusTests {
 
         verify(transactionRepository, times(1)).findByTransactionId(TRANSACTION_ID);
         verify(transactionRepository, never()).save(any(Transaction.class));
-        verify(walletRepository, never()).save(any(Wallet.class));
+        verify(walletRepository, never()).saveAndFlush(any(Wallet.class));
     }
 
     @Test
@@ -315,9 +336,9 @@ class TransactionServiceChangeTransactionsStatusTests {
         when(customerRepository.findByTrIdentityNo(TR_IDENTITY_NO)).thenReturn(Optional.of(customer));
         when(transactionRepository.findByTransactionId(TRANSACTION_ID)).thenReturn(Optional.of(transaction));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(walletRepository.saveAndFlush(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        BigDecimal expectedUsableBalance = INITIAL_USABLE_BALANCE.add(TRANSACTION_AMOUNT);
+        Money expectedUsableBalance = INITIAL_USABLE_BALANCE.plus(TRANSACTION_AMOUNT);
 
         // Act
         transactionService.changeTransactionStatus(TR_IDENTITY_NO, request);
@@ -329,7 +350,7 @@ class TransactionServiceChangeTransactionsStatusTests {
         verify(customerRepository, times(1)).findByTrIdentityNo(TR_IDENTITY_NO);
         verify(transactionRepository, times(1)).findByTransactionId(TRANSACTION_ID);
         verify(transactionRepository, times(1)).save(transaction);
-        verify(walletRepository, times(1)).save(wallet);
+        verify(walletRepository, times(1)).saveAndFlush(wallet);
     }
 
     @Test
@@ -353,4 +374,35 @@ class TransactionServiceChangeTransactionsStatusTests {
         verifyNoInteractions(transactionRepository);
         verifyNoInteractions(walletRepository);
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(11)
+    @DisplayName("Optimistic mode should write the wallet before the transaction, in the bulk settlement's lock order")
+    void testChangeTransactionStatus_whenOptimistic_shouldWriteWalletBeforeTransaction() {
+        // Arrange
+        ReflectionTestUtils.setField(transactionService, "concurrencyMode", WalletConcurrencyMode.OPTIMISTIC);
+        transaction.setType(TransactionType.DEPOSIT);
+        TransactionStatusChangeRequestDto request = new TransactionStatusChangeRequestDto(
+                TRANSACTION_ID,
+                TransactionStatus.APPROVED.name()
+        );
+
+        when(transactionRepository.findByTransactionId(TRANSACTION_ID)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(walletRepository.saveAndFlush(any(Wallet.class))).thenAnswer(invocation -> {
+            // flushed while the transaction is still unchanged, so only the wallet row is written here
+            assertEquals(TransactionStatus.PENDING, transaction.getStatus());
+            return invocation.getArgument(0);
+        });
+
+        // Act
+        transactionService.changeTransactionStatus(customer, request);
+
+        // Assert
+        verifyNoInteractions(entityManager);
+        InOrder inOrder = inOrder(walletRepository, transactionRepository);
+        inOrder.verify(walletRepository).saveAndFlush(wallet);
+        inOrder.verify(transactionRepository).save(transaction);
+        assertEquals(TransactionStatus.APPROVED, transaction.getStatus());
+    }
+}
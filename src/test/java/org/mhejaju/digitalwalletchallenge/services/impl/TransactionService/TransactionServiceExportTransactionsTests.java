@@ -0,0 +1,187 @@
+package org.mhejaju.digitalwalletchallenge.services.impl.TransactionService;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mhejaju.digitalwalletchallenge.dto.TransactionExportDto;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.entities.enums.OppositePartyType;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionStatus;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionType;
+import org.mhejaju.digitalwalletchallenge.exceptions.CustomerNotFoundException;
+import org.mhejaju.digitalwalletchallenge.exceptions.WalletNotFoundException;
+import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.OutboxEventRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.TransactionRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.TransactionSummary;
+import org.mhejaju.digitalwalletchallenge.services.impl.TransactionServiceImpl;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceExportTransactionsTests {
+
+    private static final String WALLET_ID = "test-wallet-123";
+    private static final String TR_IDENTITY_NO = "12345678901";
+    private static final String IBAN = "TR330006100519786457841326";
+    private static final Long CUSTOMER_ID = 1L;
+    private static final Long DIFFERENT_CUSTOMER_ID = 2L;
+    private static final Long WALLET_DB_ID = 1L;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private TransactionServiceImpl transactionService;
+
+    private Customer customer;
+    private Wallet wallet;
+    private long nextTransactionId = 1L;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setId(CUSTOMER_ID);
+        customer.setTrIdentityNo(TR_IDENTITY_NO);
+
+        wallet = new Wallet();
+        wallet.setId(WALLET_DB_ID);
+        wallet.setWalletId(WALLET_ID);
+        wallet.setCustomer(customer);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Should return the wallet database id when the wallet belongs to the customer")
+    void testGetOwnedWalletDbId_whenWalletBelongsToCustomer_shouldReturnId() {
+        // Arrange
+        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+
+        // Act
+        long walletDbId = transactionService.getOwnedWalletDbId(customer, WALLET_ID);
+
+        // Assert
+        assertEquals(WALLET_DB_ID, walletDbId);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Should throw WalletNotFoundException when wallet belongs to different customer")
+    void testGetOwnedWalletDbId_whenWalletBelongsToDifferentCustomer_shouldThrowException() {
+        // Arrange
+        Customer differentCustomer = new Customer();
+        differentCustomer.setId(DIFFERENT_CUSTOMER_ID);
+        wallet.setCustomer(differentCustomer);
+
+        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+
+        // Act & Assert
+        assertThrows(WalletNotFoundException.class,
+                () -> transactionService.getOwnedWalletDbId(customer, WALLET_ID));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Should throw CustomerNotFoundException when TR Identity Number is invalid")
+    void testGetOwnedWalletDbIdWithTrIdentityNo_whenCustomerNotFound_shouldThrowException() {
+        // Arrange
+        when(customerRepository.findByTrIdentityNo(TR_IDENTITY_NO)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(CustomerNotFoundException.class,
+                () -> transactionService.getOwnedWalletDbId(TR_IDENTITY_NO, WALLET_ID));
+
+        verifyNoInteractions(walletRepository);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Should write one JSON line per transaction without touching the persistence context")
+    void testExportTransactions_shouldWriteNdjson() throws Exception {
+        // Arrange
+        TransactionSummary deposit = createTransaction("TRANSACTION1", TransactionType.DEPOSIT,
+                TransactionStatus.APPROVED, BigDecimal.valueOf(500.00));
+        TransactionSummary withdraw = createTransaction("TRANSACTION2", TransactionType.WITHDRAW,
+                TransactionStatus.PENDING, BigDecimal.valueOf(1500.00));
+
+        when(transactionRepository.streamByWalletId(WALLET_DB_ID)).thenReturn(Stream.of(deposit, withdraw));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        transactionService.exportTransactions(WALLET_DB_ID, WALLET_ID, outputStream);
+
+        // Assert
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+
+        TransactionExportDto first = objectMapper.readValue(lines[0], TransactionExportDto.class);
+        assertEquals("TRANSACTION1", first.transactionId());
+        assertEquals(WALLET_ID, first.walletId());
+        assertEquals("DEPOSIT", first.type());
+        assertEquals("APPROVED", first.status());
+
+        TransactionExportDto second = objectMapper.readValue(lines[1], TransactionExportDto.class);
+        assertEquals("TRANSACTION2", second.transactionId());
+        assertEquals("WITHDRAW", second.type());
+        assertEquals(0, BigDecimal.valueOf(1500.00).compareTo(second.amount()));
+
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Should write nothing when the wallet has no transactions")
+    void testExportTransactions_whenNoTransactionsExist_shouldWriteNothing() throws Exception {
+        // Arrange
+        when(transactionRepository.streamByWalletId(WALLET_DB_ID)).thenReturn(Stream.empty());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        transactionService.exportTransactions(WALLET_DB_ID, WALLET_ID, outputStream);
+
+        // Assert
+        assertEquals(0, outputStream.size());
+        verifyNoInteractions(entityManager);
+    }
+
+    private TransactionSummary createTransaction(String transactionId, TransactionType type, TransactionStatus status,
+                                                 BigDecimal amount) {
+        return new TransactionSummary(nextTransactionId++, transactionId, type, OppositePartyType.IBAN, status, IBAN,
+                Money.of(amount));
+    }
+}
@@ -4,20 +4,26 @@ import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mhejaju.digitalwalletchallenge.dto.WalletTransactionListResponseDto;
 import org.mhejaju.digitalwalletchallenge.entities.Customer;
-import org.mhejaju.digitalwalletchallenge.entities.Transaction;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
 import org.mhejaju.digitalwalletchallenge.entities.Wallet;
 import org.mhejaju.digitalwalletchallenge.entities.enums.OppositePartyType;
 import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionStatus;
 import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionType;
 import org.mhejaju.digitalwalletchallenge.exceptions.CustomerNotFoundException;
+import org.mhejaju.digitalwalletchallenge.exceptions.InvalidCursorException;
 import org.mhejaju.digitalwalletchallenge.exceptions.WalletNotFoundException;
+import org.mhejaju.digitalwalletchallenge.mapper.TransactionCursorMapper;
 import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.OutboxEventRepository;
 import org.mhejaju.digitalwalletchallenge.repositories.TransactionRepository;
 import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.TransactionSummary;
 import org.mhejaju.digitalwalletchallenge.services.impl.TransactionServiceImpl;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -26,6 +32,8 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -37,11 +45,12 @@ class TransactionServiceGetTransactionsTests {
     private static final String DIFFERENT_TR_IDENTITY_NO = "98765432109";
     private static final String WALLET_NAME = "Test Wallet";
     private static final String IBAN = "TR330006100519786457841326";
-    private static final BigDecimal WALLET_BALANCE = BigDecimal.valueOf(2000.00);
-    private static final BigDecimal WALLET_USABLE_BALANCE = BigDecimal.valueOf(1500.00);
+    private static final Money WALLET_BALANCE = Money.of("2000.00");
+    private static final Money WALLET_USABLE_BALANCE = Money.of("1500.00");
     private static final Long CUSTOMER_ID = 1L;
     private static final Long DIFFERENT_CUSTOMER_ID = 2L;
     private static final Long WALLET_DB_ID = 1L;
+    private static final int LIMIT = 50;
 
     @Mock
     private WalletRepository walletRepository;
@@ -52,11 +61,18 @@ class TransactionServiceGetTransactionsTests {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
     private Customer customer;
     private Wallet wallet;
+    private long nextTransactionId;
 
     @BeforeEach
     void setUp() {
@@ -71,6 +87,8 @@ class TransactionServiceGetTransactionsTests {
         wallet.setBalance(WALLET_BALANCE);
         wallet.setUsableBalance(WALLET_USABLE_BALANCE);
         wallet.setCustomer(customer);
+
+        nextTransactionId = 100L;
     }
 
     @Test
@@ -79,20 +97,20 @@ class TransactionServiceGetTransactionsTests {
     void testGetTransactions_whenNoTransactionsExist_shouldReturnEmptyList() {
         // Arrange
         when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
-        when(transactionRepository.findByWalletId(WALLET_DB_ID)).thenReturn(Collections.emptyList());
+        when(transactionRepository.findByWalletIdOrderByIdDesc(eq(WALLET_DB_ID), any(Limit.class))).thenReturn(Collections.emptyList());
 
         // Act
-        WalletTransactionListResponseDto response = transactionService.getTransactions(customer, WALLET_ID);
+        WalletTransactionListResponseDto response = transactionService.getTransactions(customer, WALLET_ID, LIMIT, null);
 
         // Assert
         assertNotNull(response);
         assertEquals(WALLET_NAME, response.walletName());
-        assertEquals(WALLET_BALANCE, response.balance());
-        assertEquals(WALLET_USABLE_BALANCE, response.usableBalance());
+        assertEquals(WALLET_BALANCE.toBigDecimal(), response.balance());
+        assertEquals(WALLET_USABLE_BALANCE.toBigDecimal(), response.usableBalance());
         assertTrue(response.transactions().isEmpty());
 
         verify(walletRepository, times(1)).findByWalletId(WALLET_ID);
-        verify(transactionRepository, times(1)).findByWalletId(WALLET_DB_ID);
+        verify(transactionRepository, times(1)).findByWalletIdOrderByIdDesc(WALLET_DB_ID, Limit.of(LIMIT + 1));
     }
 
     @Test
@@ -100,19 +118,19 @@ class TransactionServiceGetTransactionsTests {
     @DisplayName("Should return single transaction when wallet has one transaction")
     void testGetTransactions_whenSingleTransactionExists_shouldReturnSingleTransaction() {
         // Arrange
-        Transaction transaction = createTransaction(
+        TransactionSummary transaction = createTransaction(
                 TransactionType.DEPOSIT,
                 TransactionStatus.APPROVED,
-                BigDecimal.valueOf(500.00),
+                new BigDecimal("500.00"),
                 OppositePartyType.IBAN
         );
-        List<Transaction> transactions = List.of(transaction);
+        List<TransactionSummary> transactions = List.of(transaction);
 
         when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
-        when(transactionRepository.findByWalletId(WALLET_DB_ID)).thenReturn(transactions);
+        when(transactionRepository.findByWalletIdOrderByIdDesc(eq(WALLET_DB_ID), any(Limit.class))).thenReturn(transactions);
 
         // Act
-        WalletTransactionListResponseDto response = transactionService.getTransactions(customer, WALLET_ID);
+        WalletTransactionListResponseDto response = transactionService.getTransactions(customer, WALLET_ID, LIMIT, null);
 
         // Assert
         assertNotNull(response);
@@ -120,10 +138,10 @@ class TransactionServiceGetTransactionsTests {
         assertEquals(WALLET_ID, response.transactions().get(0).walletId());
         assertEquals("DEPOSIT", response.transactions().get(0).type());
         assertEquals("APPROVED", response.transactions().get(0).status());
-        assertEquals(BigDecimal.valueOf(500.00), response.transactions().get(0).amount());
+        assertEquals(new BigDecimal("500.00"), response.transactions().get(0).amount());
         assertEquals("IBAN", response.transactions().get(0).oppositePartyType());
 
-        verify(transactionRepository, times(1)).findByWalletId(WALLET_DB_ID);
+        verify(transactionRepository, times(1)).findByWalletIdOrderByIdDesc(WALLET_DB_ID, Limit.of(LIMIT + 1));
     }
 
     @Test
@@ -131,31 +149,31 @@ class TransactionServiceGetTransactionsTests {
     @DisplayName("Should return multiple transactions when wallet has multiple transactions")
     void testGetTransactions_whenMultipleTransactionsExist_shouldReturnAllTransactions() {
         // Arrange
-        List<Transaction> transactions = new ArrayList<>();
+        List<TransactionSummary> transactions = new ArrayList<>();
         transactions.add(createTransaction(
                 TransactionType.DEPOSIT,
                 TransactionStatus.APPROVED,
-                BigDecimal.valueOf(500.00),
+                new BigDecimal("500.00"),
                 OppositePartyType.IBAN
         ));
         transactions.add(createTransaction(
                 TransactionType.WITHDRAW,
                 TransactionStatus.PENDING,
-                BigDecimal.valueOf(1500.00),
+                new BigDecimal("1500.00"),
                 OppositePartyType.PAYMENT
         ));
         transactions.add(createTransaction(
                 TransactionType.DEPOSIT,
                 TransactionStatus.DENIED,
-                BigDecimal.valueOf(2000.00),
+                new BigDecimal("2000.00"),
                 OppositePartyType.IBAN
         ));
 
         when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
-        when(transactionRepository.findByWalletId(WALLET_DB_ID)).thenReturn(transactions);
+        when(transactionRepository.findByWalletIdOrderByIdDesc(eq(WALLET_DB_ID), any(Limit.class))).thenReturn(transactions);
 
         // Act
-        WalletTransactionListResponseDto response = transactionService.getTransactions(customer, WALLET_ID);
+        WalletTransactionListResponseDto response = transactionService.getTransactions(customer, WALLET_ID, LIMIT, null);
 
         // Assert
         assertNotNull(response);
@@ -165,7 +183,7 @@ class TransactionServiceGetTransactionsTests {
         assertEquals("PENDING", response.transactions().get(1).status());
         assertEquals("DENIED", response.transactions().get(2).status());
 
-        verify(transactionRepository, times(1)).findByWalletId(WALLET_DB_ID);
+        verify(transactionRepository, times(1)).findByWalletIdOrderByIdDesc(WALLET_DB_ID, Limit.of(LIMIT + 1));
     }
 
     @Test
@@ -177,10 +195,10 @@ class TransactionServiceGetTransactionsTests {
 
         // Act & Assert
         assertThrows(WalletNotFoundException.class,
-                () -> transactionService.getTransactions(customer, WALLET_ID));
+                () -> transactionService.getTransactions(customer, WALLET_ID, LIMIT, null));
 
         verify(walletRepository, times(1)).findByWalletId(WALLET_ID);
-        verify(transactionRepository, never()).findByWalletId(anyLong());
+        verifyNoInteractions(transactionRepository);
     }
 
     @Test
@@ -197,10 +215,10 @@ class TransactionServiceGetTransactionsTests {
 
         // Act & Assert
         assertThrows(WalletNotFoundException.class,
-                () -> transactionService.getTransactions(customer, WALLET_ID));
+                () -> transactionService.getTransactions(customer, WALLET_ID, LIMIT, null));
 
         verify(walletRepository, times(1)).findByWalletId(WALLET_ID);
-        verify(transactionRepository, never()).findByWalletId(anyLong());
+        verifyNoInteractions(transactionRepository);
     }
 
     @Test
@@ -209,14 +227,14 @@ class TransactionServiceGetTransactionsTests {
     void testGetTransactions_shouldReturnCorrectBalanceInformation() {
         // Arrange
         when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
-        when(transactionRepository.findByWalletId(WALLET_DB_ID)).thenReturn(Collections.emptyList());
+        when(transactionRepository.findByWalletIdOrderByIdDesc(eq(WALLET_DB_ID), any(Limit.class))).thenReturn(Collections.emptyList());
 
         // Act
-        WalletTransactionListResponseDto response = transactionService.getTransactions(customer, WALLET_ID);
+        WalletTransactionListResponseDto response = transactionService.getTransactions(customer, WALLET_ID, LIMIT, null);
 
         // Assert
-        assertEquals(WALLET_BALANCE, response.balance());
-        assertEquals(WALLET_USABLE_BALANCE, response.usableBalance());
+        assertEquals(WALLET_BALANCE.toBigDecimal(), response.balance());
+        assertEquals(WALLET_USABLE_BALANCE.toBigDecimal(), response.usableBalance());
         assertEquals(WALLET_NAME, response.walletName());
     }
 
@@ -225,18 +243,18 @@ class TransactionServiceGetTransactionsTests {
     @DisplayName("Should correctly map transaction enums to string representations")
     void testGetTransactions_shouldMapEnumsToStrings() {
         // Arrange
-        Transaction transaction = createTransaction(
+        TransactionSummary transaction = createTransaction(
                 TransactionType.WITHDRAW,
                 TransactionStatus.PENDING,
-                BigDecimal.valueOf(750.00),
+                new BigDecimal("750.00"),
                 OppositePartyType.PAYMENT
         );
 
         when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
-        when(transactionRepository.findByWalletId(WALLET_DB_ID)).thenReturn(List.of(transaction));
+        when(transactionRepository.findByWalletIdOrderByIdDesc(eq(WALLET_DB_ID), any(Limit.class))).thenReturn(List.of(transaction));
 
         // Act
-        WalletTransactionListResponseDto response = transactionService.getTransactions(customer, WALLET_ID);
+        WalletTransactionListResponseDto response = transactionService.getTransactions(customer, WALLET_ID, LIMIT, null);
 
         // Assert
         assertEquals("WITHDRAW", response.transactions().get(0).type());
@@ -249,19 +267,19 @@ class TransactionServiceGetTransactionsTests {
     @DisplayName("Should return transactions when valid TR Identity Number is provided")
     void testGetTransactionsWithTrIdentityNo_whenCustomerFound_shouldReturnTransactions() {
         // Arrange
-        Transaction transaction = createTransaction(
+        TransactionSummary transaction = createTransaction(
                 TransactionType.DEPOSIT,
                 TransactionStatus.APPROVED,
-                BigDecimal.valueOf(500.00),
+                new BigDecimal("500.00"),
                 OppositePartyType.IBAN
         );
 
         when(customerRepository.findByTrIdentityNo(TR_IDENTITY_NO)).thenReturn(Optional.of(customer));
         when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
-        when(transactionRepository.findByWalletId(WALLET_DB_ID)).thenReturn(List.of(transaction));
+        when(transactionRepository.findByWalletIdOrderByIdDesc(eq(WALLET_DB_ID), any(Limit.class))).thenReturn(List.of(transaction));
 
         // Act
-        WalletTransactionListResponseDto response = transactionService.getTransactions(TR_IDENTITY_NO, WALLET_ID);
+        WalletTransactionListResponseDto response = transactionService.getTransactions(TR_IDENTITY_NO, WALLET_ID, LIMIT, null);
 
         // Assert
         assertNotNull(response);
@@ -270,7 +288,7 @@ class TransactionServiceGetTransactionsTests {
 
         verify(customerRepository, times(1)).findByTrIdentityNo(TR_IDENTITY_NO);
         verify(walletRepository, times(1)).findByWalletId(WALLET_ID);
-        verify(transactionRepository, times(1)).findByWalletId(WALLET_DB_ID);
+        verify(transactionRepository, times(1)).findByWalletIdOrderByIdDesc(WALLET_DB_ID, Limit.of(LIMIT + 1));
     }
 
     @Test
@@ -283,20 +301,88 @@ class TransactionServiceGetTransactionsTests {
 
         // Act & Assert
         assertThrows(CustomerNotFoundException.class,
-                () -> transactionService.getTransactions(invalidTrIdentityNo, WALLET_ID));
+                () -> transactionService.getTransactions(invalidTrIdentityNo, WALLET_ID, LIMIT, null));
 
         verify(customerRepository, times(1)).findByTrIdentityNo(invalidTrIdentityNo);
         verify(walletRepository, never()).findByWalletId(anyString());
-        verify(transactionRepository, never()).findByWalletId(anyLong());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("Should trim the extra row and return a next cursor when more transactions exist")
+    void testGetTransactions_whenMoreThanLimitExist_shouldReturnPageAndNextCursor() {
+        // Arrange
+        int limit = 2;
+        TransactionSummary newest = createTransaction(TransactionType.DEPOSIT, TransactionStatus.APPROVED,
+                new BigDecimal("100.00"), OppositePartyType.IBAN);
+        TransactionSummary middle = createTransaction(TransactionType.WITHDRAW, TransactionStatus.APPROVED,
+                new BigDecimal("200.00"), OppositePartyType.IBAN);
+        TransactionSummary oldest = createTransaction(TransactionType.DEPOSIT, TransactionStatus.PENDING,
+                new BigDecimal("3000.00"), OppositePartyType.IBAN);
+
+        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(transactionRepository.findByWalletIdOrderByIdDesc(eq(WALLET_DB_ID), any(Limit.class)))
+                .thenReturn(List.of(newest, middle, oldest));
+
+        // Act
+        WalletTransactionListResponseDto response = transactionService.getTransactions(customer, WALLET_ID, limit, null);
+
+        // Assert
+        assertEquals(limit, response.transactions().size());
+        assertEquals(new BigDecimal("100.00"), response.transactions().get(0).amount());
+        assertEquals(new BigDecimal("200.00"), response.transactions().get(1).amount());
+        assertEquals(TransactionCursorMapper.toCursor(middle.id()), response.nextCursor());
+
+        verify(transactionRepository, times(1)).findByWalletIdOrderByIdDesc(WALLET_DB_ID, Limit.of(limit + 1));
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("Should seek past the cursor and return no next cursor on the last page")
+    void testGetTransactions_whenCursorProvided_shouldSeekPastCursor() {
+        // Arrange
+        TransactionSummary transaction = createTransaction(TransactionType.DEPOSIT, TransactionStatus.APPROVED,
+                new BigDecimal("500.00"), OppositePartyType.IBAN);
+        String cursor = TransactionCursorMapper.toCursor(transaction.id() + 1);
+
+        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(transactionRepository.findByWalletIdAndIdLessThanOrderByIdDesc(
+                eq(WALLET_DB_ID), eq(transaction.id() + 1), any(Limit.class)))
+                .thenReturn(List.of(transaction));
+
+        // Act
+        WalletTransactionListResponseDto response = transactionService.getTransactions(customer, WALLET_ID, LIMIT, cursor);
+
+        // Assert
+        assertEquals(1, response.transactions().size());
+        assertNull(response.nextCursor());
+
+        verify(transactionRepository, never()).findByWalletIdOrderByIdDesc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("Should throw InvalidCursorException when the cursor cannot be decoded")
+    void testGetTransactions_whenCursorMalformed_shouldThrowException() {
+        // Arrange
+        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+
+        // Act & Assert
+        assertThrows(InvalidCursorException.class,
+                () -> transactionService.getTransactions(customer, WALLET_ID, LIMIT, "not-a-cursor"));
+
+        verifyNoInteractions(transactionRepository);
     }
 
     private Transaction createTransaction(TransactionType type, TransactionStatus status,
                                            BigDecimal amount, OppositePartyType oppositePartyType) {
-        Transaction transaction = new Transaction();
+        TransactionSummary transaction = new Transaction();
+        transaction.setId(nextTransactionId--);
         transaction.setWallet(wallet);
         transaction.setType(type);
         transaction.setStatus(status);
-        transaction.setAmount(amount);
+        transaction.setAmount(Money.of(amount));
         transaction.setOppositeParty(IBAN);
         transaction.setOppositePartyType(oppositePartyType);
         return transaction;
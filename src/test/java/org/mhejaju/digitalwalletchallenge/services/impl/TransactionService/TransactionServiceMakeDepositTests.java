@@ -4,24 +4,36 @@ import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mhejaju.digitalwalletchallenge.dto.DepositDto;
 import org.mhejaju.digitalwalletchallenge.dto.TransactionResponseDto;
+import org.mhejaju.digitalwalletchallenge.entities.ApprovalRule;
 import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
 import org.mhejaju.digitalwalletchallenge.entities.Transaction;
 import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
 import org.mhejaju.digitalwalletchallenge.exceptions.CustomerNotFoundException;
 import org.mhejaju.digitalwalletchallenge.exceptions.WalletNotFoundException;
+import org.mhejaju.digitalwalletchallenge.repositories.ApprovalRuleRepository;
 import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.OutboxEventRepository;
 import org.mhejaju.digitalwalletchallenge.repositories.TransactionRepository;
 import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.services.impl.ApprovalRules;
 import org.mhejaju.digitalwalletchallenge.services.impl.TransactionServiceImpl;
+import org.mhejaju.digitalwalletchallenge.services.impl.WalletCurrencyCache;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -32,9 +44,11 @@ class TransactionServiceMakeDepositTests {
     private static final String TR_IDENTITY_NO = "12345678901";
     private static final String IBAN = "TR330006100519786457841326";
     private static final String SOURCE_TYPE_IBAN = "IBAN";
-    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1000.00);
-    private static final BigDecimal INITIAL_USABLE_BALANCE = BigDecimal.valueOf(500.00);
-    private static final BigDecimal THRESHOLD_AMOUNT = BigDecimal.valueOf(1000.00);
+    private static final Money INITIAL_BALANCE = Money.of("1000.00");
+    private static final Money INITIAL_USABLE_BALANCE = Money.of("500.00");
+    private static final BigDecimal THRESHOLD_AMOUNT = new BigDecimal("1000.00");
+    private static final long CUSTOMER_ID = 1L;
+    private static final long WALLET_PK = 1L;
 
     @Mock
     private WalletRepository walletRepository;
@@ -45,6 +59,21 @@ class TransactionServiceMakeDepositTests {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private WalletCurrencyCache walletCurrencies;
+
+    private final ApprovalRuleRepository approvalRuleRepository = mock(ApprovalRuleRepository.class);
+
+    // the real rules, holding only the default threshold until a test reloads them from approvalRuleRepository
+    @Spy
+    private ApprovalRules approvalRules = new ApprovalRules(approvalRuleRepository);
+
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
@@ -54,11 +83,11 @@ class TransactionServiceMakeDepositTests {
     @BeforeEach
     void setUp() {
         customer = new Customer();
-        customer.setId(1L);
+        customer.setId(CUSTOMER_ID);
         customer.setTrIdentityNo(TR_IDENTITY_NO);
 
         wallet = new Wallet();
-        wallet.setId(1L);
+        wallet.setId(WALLET_PK);
         wallet.setWalletId(WALLET_ID);
         wallet.setBalance(INITIAL_BALANCE);
         wallet.setUsableBalance(INITIAL_USABLE_BALANCE);
@@ -70,15 +99,14 @@ class TransactionServiceMakeDepositTests {
     @DisplayName("Should auto-approve deposit when amount is less than 1000")
     void testMakeDeposit_whenAmountBelowThreshold_shouldAutoApprove() {
         // Arrange
-        BigDecimal depositAmount = BigDecimal.valueOf(500.00);
+        BigDecimal depositAmount = new BigDecimal("500.00");
         DepositDto depositDto = createDepositDto(depositAmount);
 
-        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(depositAmount), minor(depositAmount)))
+                .thenReturn(Optional.of(WALLET_PK));
+        when(walletRepository.getReferenceById(WALLET_PK)).thenReturn(wallet);
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        BigDecimal expectedBalance = INITIAL_BALANCE.add(depositAmount);
-        BigDecimal expectedUsableBalance = INITIAL_USABLE_BALANCE.add(depositAmount);
-
         // Act
         TransactionResponseDto response = transactionService.makeDeposit(depositDto, customer);
 
@@ -90,11 +118,14 @@ class TransactionServiceMakeDepositTests {
         assertEquals("DEPOSIT", response.type());
         assertEquals("APPROVED", response.status());
         assertEquals(depositAmount, response.amount());
-        assertEquals(expectedBalance, wallet.getBalance());
-        assertEquals(expectedUsableBalance, wallet.getUsableBalance());
 
-        verify(walletRepository, times(1)).findByWalletId(WALLET_ID);
-        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        ArgumentCaptor<Transaction> saved = ArgumentCaptor.forClass(Transaction.class);
+        verify(walletRepository, times(1)).creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(depositAmount), minor(depositAmount));
+        verify(walletRepository, never()).findByWalletId(anyString());
+        verify(transactionRepository, times(1)).save(saved.capture());
+        assertSame(wallet, saved.getValue().getWallet());
+        verify(ledgerEntryRepository, times(1)).postCreated(List.of(saved.getValue().getId()));
+        verify(outboxEventRepository, times(1)).record("TRANSACTION_CREATED", List.of(saved.getValue().getId()));
     }
 
     @Test
@@ -104,18 +135,18 @@ class TransactionServiceMakeDepositTests {
         // Arrange
         DepositDto depositDto = createDepositDto(THRESHOLD_AMOUNT);
 
-        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(THRESHOLD_AMOUNT), 0L))
+                .thenReturn(Optional.of(WALLET_PK));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        BigDecimal expectedBalance = INITIAL_BALANCE.add(THRESHOLD_AMOUNT);
-
         // Act
         TransactionResponseDto response = transactionService.makeDeposit(depositDto, customer);
 
         // Assert
         assertEquals("PENDING", response.status());
-        assertEquals(expectedBalance, wallet.getBalance());
-        assertEquals(INITIAL_USABLE_BALANCE, wallet.getUsableBalance());
+
+        // pending deposits only raise the balance, the usable balance waits for approval
+        verify(walletRepository, times(1)).creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(THRESHOLD_AMOUNT), 0L);
 
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
@@ -125,10 +156,11 @@ class TransactionServiceMakeDepositTests {
     @DisplayName("Should set status to PENDING when amount exceeds 1000")
     void testMakeDeposit_whenAmountAboveThreshold_shouldBePending() {
         // Arrange
-        BigDecimal depositAmount = BigDecimal.valueOf(2500.00);
+        BigDecimal depositAmount = new BigDecimal("2500.00");
         DepositDto depositDto = createDepositDto(depositAmount);
 
-        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(depositAmount), 0L))
+                .thenReturn(Optional.of(WALLET_PK));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
@@ -136,7 +168,7 @@ class TransactionServiceMakeDepositTests {
 
         // Assert
         assertEquals("PENDING", response.status());
-        assertEquals(INITIAL_USABLE_BALANCE, wallet.getUsableBalance());
+        verify(walletRepository, times(1)).creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(depositAmount), 0L);
 
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
@@ -146,15 +178,16 @@ class TransactionServiceMakeDepositTests {
     @DisplayName("Should throw WalletNotFoundException when wallet does not exist")
     void testMakeDeposit_whenWalletNotFound_shouldThrowException() {
         // Arrange
-        DepositDto depositDto = createDepositDto(BigDecimal.valueOf(500.00));
+        DepositDto depositDto = createDepositDto(new BigDecimal("500.00"));
 
-        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.empty());
+        when(walletRepository.creditIfOwned(eq(WALLET_ID), eq(CUSTOMER_ID), anyLong(), anyLong()))
+                .thenReturn(Optional.empty());
 
         // Act & Assert
         WalletNotFoundException exception = assertThrows(WalletNotFoundException.class,
                 () -> transactionService.makeDeposit(depositDto, customer));
 
-        verify(walletRepository, times(1)).findByWalletId(WALLET_ID);
+        verify(walletRepository, times(1)).creditIfOwned(eq(WALLET_ID), eq(CUSTOMER_ID), anyLong(), anyLong());
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
 
@@ -166,17 +199,18 @@ class TransactionServiceMakeDepositTests {
         Customer differentCustomer = new Customer();
         differentCustomer.setId(2L);
         differentCustomer.setTrIdentityNo("98765432109");
-        wallet.setCustomer(differentCustomer);
 
-        DepositDto depositDto = createDepositDto(BigDecimal.valueOf(500.00));
+        DepositDto depositDto = createDepositDto(new BigDecimal("500.00"));
 
-        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        // the wallet belongs to customer 1, so the ownership predicate of the UPDATE matches no row
+        when(walletRepository.creditIfOwned(eq(WALLET_ID), eq(2L), anyLong(), anyLong()))
+                .thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(WalletNotFoundException.class,
-                () -> transactionService.makeDeposit(depositDto, customer));
+                () -> transactionService.makeDeposit(depositDto, differentCustomer));
 
-        verify(walletRepository, times(1)).findByWalletId(WALLET_ID);
+        verify(walletRepository, times(1)).creditIfOwned(eq(WALLET_ID), eq(2L), anyLong(), anyLong());
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
 
@@ -185,22 +219,19 @@ class TransactionServiceMakeDepositTests {
     @DisplayName("Should correctly update balance for minimum deposit amount")
     void testMakeDeposit_withMinimumAmount_shouldUpdateBalances() {
         // Arrange
-        BigDecimal minAmount = BigDecimal.valueOf(0.01);
+        BigDecimal minAmount = new BigDecimal("0.01");
         DepositDto depositDto = createDepositDto(minAmount);
 
-        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(minAmount), minor(minAmount)))
+                .thenReturn(Optional.of(WALLET_PK));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        BigDecimal expectedBalance = INITIAL_BALANCE.add(minAmount);
-        BigDecimal expectedUsableBalance = INITIAL_USABLE_BALANCE.add(minAmount);
-
         // Act
         TransactionResponseDto response = transactionService.makeDeposit(depositDto, customer);
 
         // Assert
         assertEquals("APPROVED", response.status());
-        assertEquals(expectedBalance, wallet.getBalance());
-        assertEquals(expectedUsableBalance, wallet.getUsableBalance());
+        verify(walletRepository, times(1)).creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(minAmount), minor(minAmount));
     }
 
     @Test
@@ -208,10 +239,11 @@ class TransactionServiceMakeDepositTests {
     @DisplayName("Should correctly handle deposit just below threshold (999.99)")
     void testMakeDeposit_justBelowThreshold_shouldAutoApprove() {
         // Arrange
-        BigDecimal amountJustBelow = BigDecimal.valueOf(999.99);
+        BigDecimal amountJustBelow = new BigDecimal("999.99");
         DepositDto depositDto = createDepositDto(amountJustBelow);
 
-        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(amountJustBelow), minor(amountJustBelow)))
+                .thenReturn(Optional.of(WALLET_PK));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
@@ -219,7 +251,7 @@ class TransactionServiceMakeDepositTests {
 
         // Assert
         assertEquals("APPROVED", response.status());
-        assertEquals(INITIAL_USABLE_BALANCE.add(amountJustBelow), wallet.getUsableBalance());
+        verify(walletRepository, times(1)).creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(amountJustBelow), minor(amountJustBelow));
     }
 
     @Test
@@ -227,16 +259,14 @@ class TransactionServiceMakeDepositTests {
     @DisplayName("Should auto-approve deposit when valid TR Identity Number is provided")
     void testMakeDepositWithTrIdentityNo_whenCustomerFound_shouldAutoApprove() {
         // Arrange
-        BigDecimal depositAmount = BigDecimal.valueOf(500.00);
+        BigDecimal depositAmount = new BigDecimal("500.00");
         DepositDto depositDto = createDepositDto(depositAmount);
 
         when(customerRepository.findByTrIdentityNo(TR_IDENTITY_NO)).thenReturn(Optional.of(customer));
-        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(depositAmount), minor(depositAmount)))
+                .thenReturn(Optional.of(WALLET_PK));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        BigDecimal expectedBalance = INITIAL_BALANCE.add(depositAmount);
-        BigDecimal expectedUsableBalance = INITIAL_USABLE_BALANCE.add(depositAmount);
-
         // Act
         TransactionResponseDto response = transactionService.makeDeposit(depositDto, TR_IDENTITY_NO);
 
@@ -245,11 +275,9 @@ class TransactionServiceMakeDepositTests {
         assertEquals(WALLET_ID, response.walletId());
         assertEquals("APPROVED", response.status());
         assertEquals(depositAmount, response.amount());
-        assertEquals(expectedBalance, wallet.getBalance());
-        assertEquals(expectedUsableBalance, wallet.getUsableBalance());
 
         verify(customerRepository, times(1)).findByTrIdentityNo(TR_IDENTITY_NO);
-        verify(walletRepository, times(1)).findByWalletId(WALLET_ID);
+        verify(walletRepository, times(1)).creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(depositAmount), minor(depositAmount));
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
 
@@ -259,7 +287,7 @@ class TransactionServiceMakeDepositTests {
     void testMakeDepositWithTrIdentityNo_whenCustomerNotFound_shouldThrowException() {
         // Arrange
         String invalidTrIdentityNo = "99999999999";
-        DepositDto depositDto = createDepositDto(BigDecimal.valueOf(500.00));
+        DepositDto depositDto = createDepositDto(new BigDecimal("500.00"));
 
         when(customerRepository.findByTrIdentityNo(invalidTrIdentityNo)).thenReturn(Optional.empty());
 
@@ -268,11 +296,43 @@ class TransactionServiceMakeDepositTests {
                 () -> transactionService.makeDeposit(depositDto, invalidTrIdentityNo));
 
         verify(customerRepository, times(1)).findByTrIdentityNo(invalidTrIdentityNo);
-        verify(walletRepository, never()).findByWalletId(anyString());
+        verifyNoInteractions(walletRepository);
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
 
+    @Test
+    @Order(10)
+    @DisplayName("Should hold a deposit under 1000 when the approval rule of the wallet's currency is lower")
+    void testMakeDeposit_whenCurrencyRuleIsLower_shouldBePending() {
+        // Arrange
+        ApprovalRule usdRule = new ApprovalRule();
+        usdRule.setCurrency(Currency.USD);
+        usdRule.setThreshold(Money.of("100.00"));
+        when(approvalRuleRepository.findAll()).thenReturn(List.of(usdRule));
+        approvalRules.reload();
+
+        BigDecimal depositAmount = new BigDecimal("500.00");
+        DepositDto depositDto = createDepositDto(depositAmount);
+
+        when(walletCurrencies.currencyOf(WALLET_ID)).thenReturn(Currency.USD);
+        when(walletRepository.creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(depositAmount), 0L))
+                .thenReturn(Optional.of(WALLET_PK));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        TransactionResponseDto response = transactionService.makeDeposit(depositDto, customer);
+
+        // Assert
+        assertEquals("PENDING", response.status());
+        verify(walletRepository, times(1)).creditIfOwned(WALLET_ID, CUSTOMER_ID, minor(depositAmount), 0L);
+    }
+
     private DepositDto createDepositDto(BigDecimal amount) {
         return new DepositDto(amount, WALLET_ID, SOURCE_TYPE_IBAN, IBAN);
     }
-}
\ No newline at end of file
+
+    // repository amounts are minor units
+    private long minor(BigDecimal amount) {
+        return Money.of(amount).minorUnits();
+    }
+}
@@ -4,26 +4,40 @@ import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mhejaju.digitalwalletchallenge.dto.WithdrawDto;
 import org.mhejaju.digitalwalletchallenge.dto.TransactionResponseDto;
+import org.mhejaju.digitalwalletchallenge.entities.ApprovalRule;
 import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
 import org.mhejaju.digitalwalletchallenge.entities.Wallet;
 import org.mhejaju.digitalwalletchallenge.entities.Transaction;
+import org.mhejaju.digitalwalletchallenge.entities.enums.CustomerTier;
 import org.mhejaju.digitalwalletchallenge.exceptions.CustomerNotFoundException;
 import org.mhejaju.digitalwalletchallenge.exceptions.InsufficientFundsException;
+import org.mhejaju.digitalwalletchallenge.exceptions.VelocityLimitExceededException;
 import org.mhejaju.digitalwalletchallenge.exceptions.WalletNotAvailableException;
 import org.mhejaju.digitalwalletchallenge.exceptions.WalletNotFoundException;
+import org.mhejaju.digitalwalletchallenge.repositories.ApprovalRuleRepository;
 import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.OutboxEventRepository;
 import org.mhejaju.digitalwalletchallenge.repositories.TransactionRepository;
 import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.services.impl.ApprovalRules;
 import org.mhejaju.digitalwalletchallenge.services.impl.TransactionServiceImpl;
+import org.mhejaju.digitalwalletchallenge.services.impl.VelocityLimiter;
+import org.mhejaju.digitalwalletchallenge.services.impl.WalletCurrencyCache;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -41,11 +55,11 @@ class TransactionServiceWithdrawTests {
     private static final String CUSTOMER_SURNAME = "Doe";
     private static final String CUSTOMER_EMAIL = "john.doe@example.com";
 
-    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1000.00);
-    private static final BigDecimal INITIAL_USABLE_BALANCE = BigDecimal.valueOf(500.00);
-    private static final BigDecimal AMOUNT_UNDER_1000 = BigDecimal.valueOf(500.00);
-    private static final BigDecimal AMOUNT_OVER_1000 = BigDecimal.valueOf(2500.00);
-    private static final BigDecimal AMOUNT_EXCEEDING_USABLE = BigDecimal.valueOf(600.00);
+    private static final Money INITIAL_BALANCE = Money.of("1000.00");
+    private static final Money INITIAL_USABLE_BALANCE = Money.of("500.00");
+    private static final BigDecimal AMOUNT_UNDER_1000 = new BigDecimal("500.00");
+    private static final BigDecimal AMOUNT_OVER_1000 = new BigDecimal("2500.00");
+    private static final BigDecimal AMOUNT_EXCEEDING_USABLE = new BigDecimal("600.00");
 
     private static final long CUSTOMER_ID = 1L;
     private static final long WALLET_ID_LONG = 1L;
@@ -60,6 +74,24 @@ class TransactionServiceWithdrawTests {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private WalletCurrencyCache walletCurrencies;
+
+    private final ApprovalRuleRepository approvalRuleRepository = mock(ApprovalRuleRepository.class);
+
+    // the real rules, holding only the default threshold until a test reloads them from approvalRuleRepository
+    @Spy
+    private ApprovalRules approvalRules = new ApprovalRules(approvalRuleRepository);
+
+    @Mock
+    private VelocityLimiter velocityLimiter;
+
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
@@ -99,12 +131,11 @@ class TransactionServiceWithdrawTests {
                 TARGET_IBAN
         );
 
-        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.debitIfAvailable(WALLET_ID, CUSTOMER_ID, minor(AMOUNT_UNDER_1000), minor(AMOUNT_UNDER_1000)))
+                .thenReturn(Optional.of(WALLET_ID_LONG));
+        when(walletRepository.getReferenceById(WALLET_ID_LONG)).thenReturn(wallet);
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        BigDecimal expectedBalance = wallet.getBalance().subtract(AMOUNT_UNDER_1000);
-        BigDecimal expectedUsableBalance = wallet.getUsableBalance().subtract(AMOUNT_UNDER_1000);
-
         // Act
         TransactionResponseDto response = transactionService.withdraw(withdrawDto, customer);
 
@@ -112,15 +143,16 @@ class TransactionServiceWithdrawTests {
         assertNotNull(response);
         assertEquals(WALLET_ID, response.walletId());
         assertEquals(TARGET_IBAN, response.oppositeParty());
+        assertEquals(TARGET_TYPE, response.oppositePartyType());
         assertEquals("WITHDRAW", response.type());
         assertEquals("APPROVED", response.status());
         assertEquals(AMOUNT_UNDER_1000, response.amount());
 
-        assertEquals(expectedBalance, wallet.getBalance());
-        assertEquals(expectedUsableBalance, wallet.getUsableBalance());
-
-        verify(walletRepository, times(1)).findByWalletId(WALLET_ID);
-        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        ArgumentCaptor<Transaction> saved = ArgumentCaptor.forClass(Transaction.class);
+        verify(walletRepository, times(1)).debitIfAvailable(WALLET_ID, CUSTOMER_ID, minor(AMOUNT_UNDER_1000), minor(AMOUNT_UNDER_1000));
+        verify(walletRepository, never()).findByWalletId(anyString());
+        verify(transactionRepository, times(1)).save(saved.capture());
+        assertSame(wallet, saved.getValue().getWallet());
     }
 
 
@@ -129,8 +161,6 @@ class TransactionServiceWithdrawTests {
     @DisplayName("Withdrawal over 1000 should be pending and only deducted from usable balance")
     void testWithdraw_whenAmountOver1000_shouldBePendingAndOnlyUpdateUsableBalance() {
         // Arrange
-        wallet.setUsableBalance(BigDecimal.valueOf(3000.00));
-
         withdrawDto = new WithdrawDto(
                 AMOUNT_OVER_1000,
                 WALLET_ID,
@@ -138,18 +168,19 @@ class TransactionServiceWithdrawTests {
                 TARGET_IBAN
         );
 
-        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.debitIfAvailable(WALLET_ID, CUSTOMER_ID, minor(AMOUNT_OVER_1000), 0L))
+                .thenReturn(Optional.of(WALLET_ID_LONG));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        BigDecimal initialBalance = wallet.getBalance();
-
         // Act
         TransactionResponseDto response = transactionService.withdraw(withdrawDto, customer);
 
         // Assert
         assertNotNull(response);
         assertEquals("PENDING", response.status());
-        assertEquals(initialBalance, wallet.getBalance());
+
+        // pending withdrawals only reserve the usable balance, the balance is settled on approval
+        verify(walletRepository, times(1)).debitIfAvailable(WALLET_ID, CUSTOMER_ID, minor(AMOUNT_OVER_1000), 0L);
 
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
@@ -166,6 +197,8 @@ class TransactionServiceWithdrawTests {
                 TARGET_IBAN
         );
 
+        when(walletRepository.debitIfAvailable(eq(NON_EXISTENT_WALLET_ID), eq(CUSTOMER_ID), anyLong(), anyLong()))
+                .thenReturn(Optional.empty());
         when(walletRepository.findByWalletId(NON_EXISTENT_WALLET_ID)).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -193,6 +226,8 @@ class TransactionServiceWithdrawTests {
                 TARGET_IBAN
         );
 
+        when(walletRepository.debitIfAvailable(eq(WALLET_ID), eq(CUSTOMER_ID), anyLong(), anyLong()))
+                .thenReturn(Optional.empty());
         when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
 
         // Act & Assert
@@ -218,6 +253,8 @@ class TransactionServiceWithdrawTests {
                 TARGET_IBAN
         );
 
+        when(walletRepository.debitIfAvailable(eq(WALLET_ID), eq(CUSTOMER_ID), anyLong(), anyLong()))
+                .thenReturn(Optional.empty());
         when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
 
         // Act & Assert
@@ -243,6 +280,8 @@ class TransactionServiceWithdrawTests {
                 TARGET_IBAN
         );
 
+        when(walletRepository.debitIfAvailable(eq(WALLET_ID), eq(CUSTOMER_ID), anyLong(), anyLong()))
+                .thenReturn(Optional.empty());
         when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
 
         // Act & Assert
@@ -266,6 +305,8 @@ class TransactionServiceWithdrawTests {
                 TARGET_IBAN
         );
 
+        when(walletRepository.debitIfAvailable(eq(WALLET_ID), eq(CUSTOMER_ID), anyLong(), anyLong()))
+                .thenReturn(Optional.empty());
         when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
 
         // Act & Assert
@@ -290,7 +331,8 @@ class TransactionServiceWithdrawTests {
         );
 
         when(customerRepository.findByTrIdentityNo(TR_IDENTITY_NO)).thenReturn(Optional.of(customer));
-        when(walletRepository.findByWalletId(WALLET_ID)).thenReturn(Optional.of(wallet));
+        when(walletRepository.debitIfAvailable(WALLET_ID, CUSTOMER_ID, minor(AMOUNT_UNDER_1000), minor(AMOUNT_UNDER_1000)))
+                .thenReturn(Optional.of(WALLET_ID_LONG));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
@@ -301,7 +343,7 @@ class TransactionServiceWithdrawTests {
         assertEquals("APPROVED", response.status());
 
         verify(customerRepository, times(1)).findByTrIdentityNo(TR_IDENTITY_NO);
-        verify(walletRepository, times(1)).findByWalletId(WALLET_ID);
+        verify(walletRepository, times(1)).debitIfAvailable(WALLET_ID, CUSTOMER_ID, minor(AMOUNT_UNDER_1000), minor(AMOUNT_UNDER_1000));
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
 
@@ -328,4 +370,61 @@ class TransactionServiceWithdrawTests {
         verifyNoInteractions(walletRepository);
         verifyNoInteractions(transactionRepository);
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(10)
+    @DisplayName("Withdrawal over 1000 should be approved when the customer's tier has a higher threshold")
+    void testWithdraw_whenTierRuleIsHigher_shouldAutoApprove() {
+        // Arrange
+        ApprovalRule premiumRule = new ApprovalRule();
+        premiumRule.setTier(CustomerTier.PREMIUM);
+        premiumRule.setThreshold(Money.of("5000.00"));
+        when(approvalRuleRepository.findAll()).thenReturn(List.of(premiumRule));
+        approvalRules.reload();
+        customer.setTier(CustomerTier.PREMIUM);
+
+        withdrawDto = new WithdrawDto(
+                AMOUNT_OVER_1000,
+                WALLET_ID,
+                TARGET_TYPE,
+                TARGET_IBAN
+        );
+
+        when(walletRepository.debitIfAvailable(WALLET_ID, CUSTOMER_ID, minor(AMOUNT_OVER_1000), minor(AMOUNT_OVER_1000)))
+                .thenReturn(Optional.of(WALLET_ID_LONG));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        TransactionResponseDto response = transactionService.withdraw(withdrawDto, customer);
+
+        // Assert
+        assertEquals("APPROVED", response.status());
+        verify(walletRepository, times(1)).debitIfAvailable(WALLET_ID, CUSTOMER_ID, minor(AMOUNT_OVER_1000), minor(AMOUNT_OVER_1000));
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("Withdrawal over the velocity limit should be rejected before the wallet is updated")
+    void testWithdraw_whenVelocityLimitExceeded_shouldThrowVelocityLimitExceededException() {
+        // Arrange
+        withdrawDto = new WithdrawDto(
+                AMOUNT_UNDER_1000,
+                WALLET_ID,
+                TARGET_TYPE,
+                TARGET_IBAN
+        );
+
+        when(velocityLimiter.reserve(WALLET_ID, CUSTOMER_ID, Money.of(AMOUNT_UNDER_1000)))
+                .thenThrow(new VelocityLimitExceededException("Withdrawal limit of the customer reached, try again later"));
+
+        // Act & Assert
+        assertThrows(VelocityLimitExceededException.class, () -> transactionService.withdraw(withdrawDto, customer));
+        verify(walletRepository, never()).debitIfAvailable(anyString(), anyLong(), anyLong(), anyLong());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    // repository amounts are minor units
+    private long minor(BigDecimal amount) {
+        return Money.of(amount).minorUnits();
+    }
+}
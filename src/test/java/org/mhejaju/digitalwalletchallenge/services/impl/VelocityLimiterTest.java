@@ -0,0 +1,148 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
+import org.mhejaju.digitalwalletchallenge.exceptions.VelocityLimitExceededException;
+import org.mhejaju.digitalwalletchallenge.repositories.LedgerEntryRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.RecentWithdrawal;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(MockitoExtension.class)
+class VelocityLimiterTest {
+
+    private static final String WALLET_ID = "test-wallet-123";
+    private static final String OTHER_WALLET_ID = "test-wallet-456";
+    private static final long CUSTOMER_ID = 1L;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Test
+    @Order(1)
+    @DisplayName("With every cap at 0 nothing should be counted or rebuilt")
+    void testReserve_whenDisabled_shouldCountNothing() {
+        // Arrange
+        VelocityLimiter limiter = limiter(0, "0", 0, "0");
+
+        // Act
+        limiter.rebuild();
+        limiter.reserve(WALLET_ID, CUSTOMER_ID, Money.of("500.00"));
+
+        // Assert
+        assertFalse(limiter.isEnabled());
+        assertEquals(0, limiter.walletCounters().size());
+        verify(ledgerEntryRepository, never()).findWithdrawalsSince(any());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("A withdrawal over the wallet's cap should be rejected without counting it for the customer")
+    void testReserve_whenWalletCapReached_shouldThrow() {
+        // Arrange
+        VelocityLimiter limiter = limiter(2, "0", 0, "0");
+        limiter.reserve(WALLET_ID, CUSTOMER_ID, Money.of("100.00"));
+        limiter.reserve(WALLET_ID, CUSTOMER_ID, Money.of("100.00"));
+
+        // Act & Assert
+        assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.reserve(WALLET_ID, CUSTOMER_ID, Money.of("100.00")));
+        assertEquals(2, limiter.customerCounters().count(CUSTOMER_ID, System.currentTimeMillis()));
+        assertDoesNotThrow(() -> limiter.reserve(OTHER_WALLET_ID, CUSTOMER_ID, Money.of("100.00")));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("A withdrawal over the customer's cap should be rejected and taken back from the wallet's count")
+    void testReserve_whenCustomerCapReached_shouldReleaseWalletCount() {
+        // Arrange
+        VelocityLimiter limiter = limiter(0, "0", 0, "1000.00");
+        limiter.reserve(WALLET_ID, CUSTOMER_ID, Money.of("800.00"));
+
+        // Act & Assert
+        assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.reserve(OTHER_WALLET_ID, CUSTOMER_ID, Money.of("300.00")));
+        assertEquals(0, limiter.walletCounters().count(OTHER_WALLET_ID, System.currentTimeMillis()));
+        assertEquals(80_000, limiter.customerCounters().amount(CUSTOMER_ID, System.currentTimeMillis()));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Releasing a reservation should free it once, however often it is released")
+    void testRelease_shouldTakeBackOnce() {
+        // Arrange
+        VelocityLimiter limiter = limiter(0, "1000.00", 0, "0");
+        VelocityLimiter.Reservation first = limiter.reserve(WALLET_ID, CUSTOMER_ID, Money.of("600.00"));
+        limiter.reserve(WALLET_ID, CUSTOMER_ID, Money.of("300.00"));
+
+        // Act
+        first.release();
+        first.release();
+
+        // Assert
+        assertEquals(30_000, limiter.walletCounters().amount(WALLET_ID, System.currentTimeMillis()));
+        assertDoesNotThrow(() -> limiter.reserve(WALLET_ID, CUSTOMER_ID, Money.of("700.00")));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Rebuilding should count the withdrawals of the window from the ledger")
+    void testRebuild_shouldCountRecentWithdrawals() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        when(ledgerEntryRepository.findWithdrawalsSince(any(Instant.class))).thenReturn(List.of(
+                withdrawal(WALLET_ID, 40_000, now - 60_000),
+                withdrawal(OTHER_WALLET_ID, 50_000, now - 120_000)));
+        VelocityLimiter limiter = limiter(0, "500.00", 2, "0");
+
+        // Act
+        limiter.rebuild();
+
+        // Assert
+        assertEquals(40_000, limiter.walletCounters().amount(WALLET_ID, now));
+        assertEquals(2, limiter.customerCounters().count(CUSTOMER_ID, now));
+        assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.reserve(WALLET_ID, CUSTOMER_ID, Money.of("200.00")));
+    }
+
+    private VelocityLimiter limiter(long walletMaxCount, String walletMaxAmount,
+                                    long customerMaxCount, String customerMaxAmount) {
+        return new VelocityLimiter(ledgerEntryRepository, Duration.ofHours(1), 12, 4, 1000,
+                walletMaxCount, new BigDecimal(walletMaxAmount), customerMaxCount, new BigDecimal(customerMaxAmount));
+    }
+
+    private RecentWithdrawal withdrawal(String walletId, long amount, long createdAtMillis) {
+        return new RecentWithdrawal() {
+            @Override
+            public String getWalletId() {
+                return walletId;
+            }
+
+            @Override
+            public long getCustomerId() {
+                return CUSTOMER_ID;
+            }
+
+            @Override
+            public long getAmount() {
+                return amount;
+            }
+
+            @Override
+            public long getCreatedAtMillis() {
+                return createdAtMillis;
+            }
+        };
+    }
+}
@@ -0,0 +1,272 @@
+package org.mhejaju.digitalwalletchallenge.services.impl;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mhejaju.digitalwalletchallenge.dto.DepositDto;
+import org.mhejaju.digitalwalletchallenge.dto.TransactionResponseDto;
+import org.mhejaju.digitalwalletchallenge.dto.WithdrawDto;
+import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Transaction;
+import org.mhejaju.digitalwalletchallenge.entities.enums.TransactionStatus;
+import org.mhejaju.digitalwalletchallenge.exceptions.InsufficientFundsException;
+import org.mhejaju.digitalwalletchallenge.mapper.TransactionMapper;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(MockitoExtension.class)
+class WalletSequencerTest {
+
+    private static final String WALLET_ID = "ebed7406-0593-4e01-bd7b-7f5abee2315f";
+    private static final String IBAN_TYPE = "IBAN";
+    private static final String IBAN = "TR330006100519786457841326";
+    private static final Duration AWAIT_TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    private BatchTransactionServiceImpl batchTransactionService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private WalletSequencer walletSequencer;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setId(1L);
+        customer.setTrIdentityNo("12345678901");
+        walletSequencer = new WalletSequencer(batchTransactionService, transactionTemplate, 1, 16, 16, Duration.ZERO,
+                AWAIT_TIMEOUT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        walletSequencer.destroy();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("A queued deposit should complete with the transaction created by its lane")
+    void testDeposit_whenApplied_shouldCompleteWithTransaction() {
+        // Arrange
+        DepositDto deposit = new DepositDto(new BigDecimal("100.00"), WALLET_ID, IBAN_TYPE, IBAN);
+        callThroughTransactionTemplate();
+        when(batchTransactionService.depositChunk(List.of(deposit), customer)).thenReturn(applied(deposit));
+
+        // Act
+        TransactionResponseDto response = walletSequencer.await(walletSequencer.deposit(deposit, customer));
+
+        // Assert
+        assertEquals(WALLET_ID, response.walletId());
+        assertEquals(new BigDecimal("100.00"), response.amount());
+        assertEquals(TransactionStatus.APPROVED.name(), response.status());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("A rejected withdrawal should fail its caller with the rejection")
+    void testWithdraw_whenRejected_shouldThrowRejection() {
+        // Arrange
+        WithdrawDto withdrawal = new WithdrawDto(new BigDecimal("100.00"), WALLET_ID, IBAN_TYPE, IBAN);
+        callThroughTransactionTemplate();
+        when(batchTransactionService.withdrawChunk(List.of(withdrawal), customer)).thenReturn(new BatchTransactionServiceImpl.Outcome[]{
+                BatchTransactionServiceImpl.Outcome.failed(new InsufficientFundsException("Not enough funds available in the wallet"))});
+
+        // Act & Assert
+        CompletableFuture<TransactionResponseDto> result = walletSequencer.withdraw(withdrawal, customer);
+        assertThrows(InsufficientFundsException.class, () -> walletSequencer.await(result));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Queued commands should be applied in one transaction, split into runs of the same kind in arrival order")
+    void testLane_whenCommandsQueued_shouldApplyThemInOrderInOneTransaction() throws Exception {
+        // Arrange
+        DepositDto first = new DepositDto(new BigDecimal("1.00"), WALLET_ID, IBAN_TYPE, IBAN);
+        DepositDto second = new DepositDto(new BigDecimal("2.00"), WALLET_ID, IBAN_TYPE, IBAN);
+        WithdrawDto third = new WithdrawDto(new BigDecimal("3.00"), WALLET_ID, IBAN_TYPE, IBAN);
+        DepositDto fourth = new DepositDto(new BigDecimal("4.00"), WALLET_ID, IBAN_TYPE, IBAN);
+
+        // the lane is held in its first transaction until the other commands are queued behind it
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            firstStarted.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+        });
+        when(batchTransactionService.depositChunk(anyList(), eq(customer)))
+                .thenAnswer(invocation -> applied(invocation.<List<DepositDto>>getArgument(0).toArray(DepositDto[]::new)));
+        when(batchTransactionService.withdrawChunk(List.of(third), customer)).thenReturn(applied(third));
+
+        // Act
+        CompletableFuture<TransactionResponseDto> firstResult = walletSequencer.deposit(first, customer);
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<TransactionResponseDto>> queued = List.of(
+                walletSequencer.deposit(second, customer),
+                walletSequencer.withdraw(third, customer),
+                walletSequencer.deposit(fourth, customer));
+        release.countDown();
+
+        // Assert
+        walletSequencer.await(firstResult);
+        queued.forEach(walletSequencer::await);
+        verify(transactionTemplate, times(2)).execute(any());
+        InOrder inOrder = inOrder(batchTransactionService);
+        inOrder.verify(batchTransactionService).depositChunk(List.of(first), customer);
+        inOrder.verify(batchTransactionService).depositChunk(List.of(second), customer);
+        inOrder.verify(batchTransactionService).withdrawChunk(List.of(third), customer);
+        inOrder.verify(batchTransactionService).depositChunk(List.of(fourth), customer);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("A group whose transaction failed should be replayed one command at a time")
+    void testLane_whenGroupTransactionFails_shouldReplayCommandsOneByOne() {
+        // Arrange
+        DepositDto deposit = new DepositDto(new BigDecimal("100.00"), WALLET_ID, IBAN_TYPE, IBAN);
+        when(transactionTemplate.execute(any()))
+                .thenThrow(new CannotAcquireLockException("deadlock detected"))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(batchTransactionService.depositChunk(List.of(deposit), customer)).thenReturn(applied(deposit));
+
+        // Act
+        TransactionResponseDto response = walletSequencer.await(walletSequencer.deposit(deposit, customer));
+
+        // Assert
+        assertEquals(new BigDecimal("100.00"), response.amount());
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Commands arriving within the max-wait window should be committed together")
+    void testLane_whenCommandsArriveWithinWindow_shouldCommitThemTogether() {
+        // Arrange
+        walletSequencer.destroy();
+        walletSequencer = new WalletSequencer(batchTransactionService, transactionTemplate, 1, 16, 16,
+                Duration.ofMillis(500), AWAIT_TIMEOUT);
+        DepositDto first = new DepositDto(new BigDecimal("1.00"), WALLET_ID, IBAN_TYPE, IBAN);
+        DepositDto second = new DepositDto(new BigDecimal("2.00"), WALLET_ID, IBAN_TYPE, IBAN);
+        callThroughTransactionTemplate();
+        when(batchTransactionService.depositChunk(List.of(first, second), customer)).thenReturn(applied(first, second));
+
+        // Act
+        CompletableFuture<TransactionResponseDto> firstResult = walletSequencer.deposit(first, customer);
+        CompletableFuture<TransactionResponseDto> secondResult = walletSequencer.deposit(second, customer);
+
+        // Assert
+        assertEquals(new BigDecimal("1.00"), walletSequencer.await(firstResult).amount());
+        assertEquals(new BigDecimal("2.00"), walletSequencer.await(secondResult).amount());
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("An Error thrown while applying a command should fail its caller and leave the lane running")
+    void testLane_whenApplyThrowsError_shouldFailCallerAndKeepServing() {
+        // Arrange
+        DepositDto failing = new DepositDto(new BigDecimal("1.00"), WALLET_ID, IBAN_TYPE, IBAN);
+        DepositDto next = new DepositDto(new BigDecimal("2.00"), WALLET_ID, IBAN_TYPE, IBAN);
+        callThroughTransactionTemplate();
+        when(batchTransactionService.depositChunk(List.of(failing), customer)).thenThrow(new StackOverflowError());
+        when(batchTransactionService.depositChunk(List.of(next), customer)).thenReturn(applied(next));
+
+        // Act
+        CompletableFuture<TransactionResponseDto> failingResult = walletSequencer.deposit(failing, customer);
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> walletSequencer.await(failingResult));
+        TransactionResponseDto response = walletSequencer.await(walletSequencer.deposit(next, customer));
+
+        // Assert
+        assertInstanceOf(StackOverflowError.class, failure.getCause());
+        assertEquals(new BigDecimal("2.00"), response.amount());
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("A command submitted after shutdown should be rejected instead of waiting forever")
+    void testSubmit_whenShutDown_shouldRejectCommand() {
+        // Arrange
+        DepositDto deposit = new DepositDto(new BigDecimal("1.00"), WALLET_ID, IBAN_TYPE, IBAN);
+        walletSequencer.destroy();
+
+        // Act
+        CompletableFuture<TransactionResponseDto> result = walletSequencer.deposit(deposit, customer);
+
+        // Assert
+        assertTrue(result.isCompletedExceptionally());
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> walletSequencer.await(result));
+        assertEquals("The application is shutting down", failure.getMessage());
+        verifyNoInteractions(transactionTemplate, batchTransactionService);
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("A caller should stop waiting after the await timeout when its lane does not answer")
+    void testAwait_whenLaneDoesNotAnswer_shouldTimeOut() throws Exception {
+        // Arrange
+        walletSequencer.destroy();
+        walletSequencer = new WalletSequencer(batchTransactionService, transactionTemplate, 1, 16, 16, Duration.ZERO,
+                Duration.ofMillis(100));
+        DepositDto deposit = new DepositDto(new BigDecimal("1.00"), WALLET_ID, IBAN_TYPE, IBAN);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+        });
+        when(batchTransactionService.depositChunk(List.of(deposit), customer)).thenReturn(applied(deposit));
+
+        // Act
+        CompletableFuture<TransactionResponseDto> result = walletSequencer.deposit(deposit, customer);
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> walletSequencer.await(result));
+        release.countDown();
+
+        // Assert
+        assertEquals("Timed out waiting for the transaction, it may still be applied", failure.getMessage());
+        assertEquals(new BigDecimal("1.00"), result.get(5, TimeUnit.SECONDS).amount());
+    }
+
+    private void callThroughTransactionTemplate() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private BatchTransactionServiceImpl.Outcome[] applied(DepositDto... deposits) {
+        BatchTransactionServiceImpl.Outcome[] outcomes = new BatchTransactionServiceImpl.Outcome[deposits.length];
+        for (int i = 0; i < deposits.length; i++) {
+            outcomes[i] = outcome(TransactionMapper.mapToTransaction(deposits[i]), deposits[i].walletId());
+        }
+        return outcomes;
+    }
+
+    private BatchTransactionServiceImpl.Outcome[] applied(WithdrawDto withdrawal) {
+        return new BatchTransactionServiceImpl.Outcome[]{
+                outcome(TransactionMapper.mapToTransaction(withdrawal), withdrawal.walletId())};
+    }
+
+    private BatchTransactionServiceImpl.Outcome outcome(Transaction transaction, String walletId) {
+        transaction.setStatus(TransactionStatus.APPROVED);
+        return new BatchTransactionServiceImpl.Outcome(transaction, walletId, null);
+    }
+}
@@ -3,16 +3,23 @@ package org.mhejaju.digitalwalletchallenge.services.impl;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mhejaju.digitalwalletchallenge.dto.WalletDto;
+import org.mhejaju.digitalwalletchallenge.dto.WalletResponseDto;
 import org.mhejaju.digitalwalletchallenge.entities.Customer;
+import org.mhejaju.digitalwalletchallenge.entities.Money;
 import org.mhejaju.digitalwalletchallenge.entities.Wallet;
+import org.mhejaju.digitalwalletchallenge.entities.enums.Currency;
 import org.mhejaju.digitalwalletchallenge.exceptions.CustomerNotFoundException;
 import org.mhejaju.digitalwalletchallenge.mapper.WalletMapper;
 import org.mhejaju.digitalwalletchallenge.repositories.CustomerRepository;
 import org.mhejaju.digitalwalletchallenge.repositories.WalletRepository;
+import org.mhejaju.digitalwalletchallenge.repositories.projections.WalletSummary;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -100,5 +107,29 @@ class WalletServiceImplTest {
         verifyNoInteractions(walletRepository);
     }
 
+    @Test
+    @DisplayName("Wallet list is built from the summary projection without loading wallet entities")
+    @Order(4)
+    void testListWallets_whenCustomerProvided_shouldMapWalletSummaries() {
+        // arrange
+        WalletSummary summary = new WalletSummary("ebed7406-0593-4e01-bd7b-7f5abee2315f", "My Wallet", "John", "Doe",
+                Currency.TRY, true, false, Money.of("1900.00"), Money.of("400.00"));
+        when(walletRepository.findSummariesByCustomerId(1L)).thenReturn(List.of(summary));
 
-}
\ No newline at end of file
+        // act
+        List<WalletResponseDto> wallets = walletService.listWallets(customer);
+
+        // assert
+        assertEquals(1, wallets.size());
+        WalletResponseDto wallet = wallets.get(0);
+        assertEquals("ebed7406-0593-4e01-bd7b-7f5abee2315f", wallet.walletId());
+        assertEquals("My Wallet", wallet.walletName());
+        assertEquals("John Doe", wallet.customer());
+        assertEquals("TRY", wallet.currency());
+        assertTrue(wallet.activeForWithdraw());
+        assertFalse(wallet.activeForShopping());
+        assertEquals(new BigDecimal("1900.00"), wallet.balance());
+        assertEquals(new BigDecimal("400.00"), wallet.usableBalance());
+        verifyNoMoreInteractions(walletRepository);
+    }
+}